@@ -0,0 +1,192 @@
+package dev.flowty.gl.benchmark;
+
+import dev.flowty.gl.shape.Bounds;
+import dev.flowty.gl.shape.Shape;
+import dev.flowty.gl.shape.spatial.ShapeIndex;
+import dev.flowty.gl.shape.spatial.Triangles;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how {@link ShapeIndex} scales with the number of shapes. The shapes are unit triangles
+ * scattered over a square whose area grows with their number, so the density, and hence the
+ * number of results per query, stays constant:
+ * <dl>
+ *   <dt>build</dt><dd>Constructing an index over the whole set in one go</dd>
+ *   <dt>insert</dt><dd>Adding the shapes one at a time</dd>
+ *   <dt>refit</dt><dd>Moving one shape and updating the index</dd>
+ *   <dt>pick</dt><dd>Finding the shapes under a point</dd>
+ *   <dt>scan</dt><dd>The same as <code>pick</code>, but by testing every shape. This is the
+ *   baseline that the index should beat.</dd>
+ *   <dt>query</dt><dd>Finding the shapes that overlap a small box</dd>
+ *   <dt>raycast</dt><dd>Finding the first shape along a ray through the plane of the shapes</dd>
+ * </dl>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ShapeIndexBenchmark {
+
+  /**
+   * The number of queries to cycle through, so that successive invocations don't hit the same
+   * part of the tree
+   */
+  private static final int QUERIES = 1024;
+
+  /**
+   * The number of indexed shapes
+   */
+  @Param({"100", "1000", "10000", "100000"})
+  public int shapes;
+
+  private List<Shape> scattered;
+  private ShapeIndex<Shape> index;
+  private float[] points;
+  private int query;
+
+  private final Bounds region = new Bounds();
+  private final Vector3f origin = new Vector3f();
+  private final Vector3f direction = new Vector3f();
+  private final Matrix4f move = new Matrix4f();
+  private int moves;
+  private int hits;
+
+  /**
+   * Builds the shapes, the index and the query points
+   */
+  @Setup
+  public void setup() {
+    Random rng = new Random(0);
+    // about four shapes per unit square
+    float extent = (float) Math.sqrt(shapes / 4.0);
+
+    scattered = new ArrayList<>(shapes);
+    for (int i = 0; i < shapes; i++) {
+      scattered.add(new Shape(
+          new float[]{
+              0, 0, 0,
+              0, 1, 0,
+              1, 0, 0},
+          new int[]{0, 1, 2})
+          .transform(new Matrix4f()
+              .translate(
+                  rng.nextFloat(extent),
+                  rng.nextFloat(extent),
+                  rng.nextFloat(-1, 1))
+              .rotateZ(rng.nextFloat((float) (2 * Math.PI)))));
+    }
+    index = new ShapeIndex<>(scattered);
+
+    points = new float[2 * QUERIES];
+    for (int i = 0; i < points.length; i++) {
+      points[i] = rng.nextFloat(extent);
+    }
+  }
+
+  private int next() {
+    query = (query + 1) % QUERIES;
+    return 2 * query;
+  }
+
+  /**
+   * @return The built index
+   */
+  @Benchmark
+  public ShapeIndex<Shape> build() {
+    return new ShapeIndex<>(scattered);
+  }
+
+  /**
+   * @return The populated index
+   */
+  @Benchmark
+  public ShapeIndex<Shape> insert() {
+    ShapeIndex<Shape> incremental = new ShapeIndex<>();
+    for (Shape shape : scattered) {
+      incremental.add(shape);
+    }
+    return incremental;
+  }
+
+  /**
+   * @return The updated index
+   */
+  @Benchmark
+  public ShapeIndex<Shape> refit() {
+    // each shape takes a small step there and then back, so they don't drift over the run
+    Shape shape = scattered.get(moves / 2 % shapes);
+    float step = moves % 2 == 0 ? 0.5f : -0.5f;
+    moves = (moves + 1) % (2 * shapes);
+    shape.transform(move.translation(step, step, 0));
+    return index.refit(shape);
+  }
+
+  /**
+   * @return The number of shapes under the point
+   */
+  @Benchmark
+  public int pick() {
+    int p = next();
+    hits = 0;
+    index.pick(points[p], points[p + 1], s -> hits++);
+    return hits;
+  }
+
+  /**
+   * @return The number of shapes under the point
+   */
+  @Benchmark
+  public int scan() {
+    int p = next();
+    int count = 0;
+    for (Shape shape : scattered) {
+      if (Triangles.containsXY(shape, points[p], points[p + 1])) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * @return The number of shapes whose bounds overlap the box
+   */
+  @Benchmark
+  public int query() {
+    int p = next();
+    region.set(
+        points[p], points[p + 1], -1,
+        points[p] + 2, points[p + 1] + 2, 1);
+    hits = 0;
+    index.query(region, s -> hits++);
+    return hits;
+  }
+
+  /**
+   * @return The nearest shape on the ray, or <code>null</code>
+   */
+  @Benchmark
+  public Shape raycast() {
+    int p = next();
+    origin.set(points[p], points[p + 1], -2);
+    direction.set(0.1f, 0.1f, 1);
+    return index.raycast(origin, direction);
+  }
+}
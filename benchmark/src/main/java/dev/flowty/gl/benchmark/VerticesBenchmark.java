@@ -0,0 +1,119 @@
+package dev.flowty.gl.benchmark;
+
+import dev.flowty.gl.shape.Shape;
+import dev.flowty.gl.shape.Vertices;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.joml.Matrix4f;
+import org.joml.Vector4f;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares ways of transforming vertex positions:
+ * <dl>
+ *   <dt>perVertex</dt><dd>How <code>Shape.transform()</code> used to work: a lambda and a
+ *   {@link Vector4f} round-trip for every vertex</dd>
+ *   <dt>scalar</dt><dd>{@link Vertices#transform(org.joml.Matrix4fc, float[], int, float[], int,
+ *   int)} without the vector module, so it takes the scalar loop</dd>
+ *   <dt>vectorised</dt><dd>The same call, but in a JVM that has the vector module</dd>
+ * </dl>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class VerticesBenchmark {
+
+  /**
+   * The number of vertices to transform. Small shapes never fill a vector block.
+   */
+  @Param({"3", "64", "4096"})
+  public int vertices;
+
+  /**
+   * Whether the perspective divide is required
+   */
+  @Param({"affine", "projective"})
+  public String matrix;
+
+  private Matrix4f transform;
+  private float[] positions;
+  /**
+   * Each invocation copies the positions into here and then transforms them in place, as
+   * <code>Shape.transform()</code> does, so the input doesn't drift
+   */
+  private float[] output;
+  private Shape shape;
+
+  /**
+   * Builds the input data
+   */
+  @Setup
+  public void setup() {
+    transform = "affine".equals(matrix)
+        ? new Matrix4f()
+        .translate(10, -20, 30)
+        .rotateXYZ(0.1f, 0.2f, 0.3f)
+        .scale(2, 3, 4)
+        : new Matrix4f()
+            .perspective(1, 1.5f, 0.1f, 100)
+            .translate(0, 0, -200);
+    Random rng = new Random(0);
+    positions = new float[3 * vertices];
+    for (int i = 0; i < positions.length; i++) {
+      positions[i] = rng.nextFloat(-100, 100);
+    }
+    output = new float[positions.length];
+    shape = new Shape(output, new int[0]);
+  }
+
+  /**
+   * @return The transformed positions
+   */
+  @Benchmark
+  public float[] perVertex() {
+    System.arraycopy(positions, 0, output, 0, output.length);
+    Vector4f vertex = new Vector4f();
+    for (int i = 0; i < shape.vertices(); i++) {
+      shape.vertex(i, v -> {
+        vertex.set(v, 1);
+        vertex.mul(transform);
+        v.set(vertex);
+      });
+    }
+    return output;
+  }
+
+  /**
+   * @return The transformed positions
+   */
+  @Benchmark
+  public float[] scalar() {
+    System.arraycopy(positions, 0, output, 0, output.length);
+    Vertices.transform(transform, output, 0, output, 0, vertices);
+    return output;
+  }
+
+  /**
+   * @return The transformed positions
+   */
+  @Benchmark
+  @Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+  public float[] vectorised() {
+    System.arraycopy(positions, 0, output, 0, output.length);
+    Vertices.transform(transform, output, 0, output, 0, vertices);
+    return output;
+  }
+}
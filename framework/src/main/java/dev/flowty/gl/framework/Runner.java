@@ -16,6 +16,8 @@ import static org.lwjgl.opengl.GL20.GL_SHADING_LANGUAGE_VERSION;
 import static org.lwjgl.opengl.GL30.GL_NUM_EXTENSIONS;
 import static org.lwjgl.opengl.GL30.glGetStringi;
 
+import dev.flowty.gl.shader.Program;
+import dev.flowty.gl.shader.ProgramCache;
 import org.lwjgl.Version;
 import org.lwjgl.glfw.GLFW;
 import org.lwjgl.glfw.GLFWErrorCallback;
@@ -76,6 +78,7 @@ public class Runner implements Runnable {
 
     game.initialiseState();
     game.initialiseGL();
+    logProgramCache("startup");
 
     game.display().withCreationListener(game::initialiseGL);
     game.display().withDestructionListener(game::destroyGL);
@@ -115,8 +118,22 @@ public class Runner implements Runnable {
   }
 
   private void shutdown() {
+    // programs that are linked lazily won't have shown up in the startup report
+    logProgramCache("shutdown");
     game.display().destroy();
     glfwTerminate();
   }
 
+  /**
+   * Reports the effectiveness of the program binary cache, if one is in use
+   *
+   * @param when The point in the game's lifecycle
+   */
+  private static void logProgramCache(String when) {
+    ProgramCache cache = Program.cache();
+    if (cache != null) {
+      LOG.info("Program cache at {}: {}", when, cache);
+    }
+  }
+
 }
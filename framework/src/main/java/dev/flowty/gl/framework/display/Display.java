@@ -17,12 +17,9 @@ import static org.lwjgl.opengl.GL11.GL_BLEND;
 import static org.lwjgl.opengl.GL11.GL_FRONT_AND_BACK;
 import static org.lwjgl.opengl.GL11.GL_ONE_MINUS_SRC_ALPHA;
 import static org.lwjgl.opengl.GL11.GL_SRC_ALPHA;
-import static org.lwjgl.opengl.GL11.glBlendFunc;
 import static org.lwjgl.opengl.GL11.glClearColor;
 import static org.lwjgl.opengl.GL11.glDepthFunc;
-import static org.lwjgl.opengl.GL11.glEnable;
 import static org.lwjgl.opengl.GL11.glPolygonMode;
-import static org.lwjgl.opengl.GL11.glViewport;
 import static org.lwjgl.system.MemoryUtil.NULL;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
@@ -33,6 +30,7 @@ import dev.flowty.gl.config.model.annote.ChoiceOf;
 import dev.flowty.gl.config.model.annote.TypeHint;
 import dev.flowty.gl.config.model.codec.ColourCodec;
 import dev.flowty.gl.framework.input.Input;
+import dev.flowty.gl.shader.GLState;
 import dev.flowty.gl.util.Colour;
 import java.nio.IntBuffer;
 import java.util.ArrayList;
@@ -411,7 +409,7 @@ public class Display {
     // and we want the viewport to fill the display
     GLFW.glfwSetFramebufferSizeCallback(window, (wndw, width, height) -> {
       LOG.info("framebuffer resized to {}x{}", width, height);
-      glViewport(0, 0, width, height);
+      GLState.viewport(0, 0, width, height);
     });
 
     input.initialise(window);
@@ -438,10 +436,10 @@ public class Display {
         Colour.bluef(clearColour()),
         Colour.alphaf(clearColour()));
 
-    glEnable(GL_BLEND);
-    glBlendFunc(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA);
+    GLState.enable(GL_BLEND);
+    GLState.blendFunc(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA);
     glPolygonMode(GL_FRONT_AND_BACK, polygonMode.mode);
-    glEnable(GL11.GL_DEPTH_TEST);
+    GLState.enable(GL11.GL_DEPTH_TEST);
     glDepthFunc(GL11.GL_LEQUAL);
 
     creationListeners.forEach(Runnable::run);
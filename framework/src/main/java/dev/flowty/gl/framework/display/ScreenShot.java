@@ -22,43 +22,47 @@ public class ScreenShot {
    */
   public static void capture(Path file) {
     try {
-      // get the resolution
-      int[] viewport = new int[4];
-      GL11.glGetIntegerv(GL11.GL_VIEWPORT, viewport);
-      int w = viewport[2];
-      int h = viewport[3];
-
-      // read the pixels
-      ByteBuffer rgb = BufferUtils.createByteBuffer(w * h * 3);
-      GL11.glReadPixels(0, 0, w, h, GL11.GL_RGB, GL11.GL_UNSIGNED_BYTE, rgb);
+      Files.createDirectories(file.getParent());
+      ImageIO.write(image(), "png", file.toFile());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
 
-      // convert to a java image
-      int[] pixels = new int[w * h];
-      for (int i = 0; i < pixels.length; i++) {
-        byte r = rgb.get();
-        byte g = rgb.get();
-        byte b = rgb.get();
+  /**
+   * @return The contents of the current viewport
+   */
+  public static BufferedImage image() {
+    // get the resolution
+    int[] viewport = new int[4];
+    GL11.glGetIntegerv(GL11.GL_VIEWPORT, viewport);
+    int w = viewport[2];
+    int h = viewport[3];
 
-        pixels[i] = 0
-            | r << 16 & 0xFF0000
-            | g << 8 & 0x00FF00
-            | b << 0 & 0x0000FF;
-      }
-      BufferedImage image = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
-      image.setRGB(0, 0, w, h, pixels, 0, w);
+    // read the pixels
+    ByteBuffer rgb = BufferUtils.createByteBuffer(w * h * 3);
+    GL11.glReadPixels(0, 0, w, h, GL11.GL_RGB, GL11.GL_UNSIGNED_BYTE, rgb);
 
-      // flip y-axis
-      AffineTransform at = AffineTransform.getScaleInstance(1, -1);
-      at.translate(0, -h);
-      image = new AffineTransformOp(at, AffineTransformOp.TYPE_NEAREST_NEIGHBOR)
-          .filter(image, null);
+    // convert to a java image
+    int[] pixels = new int[w * h];
+    for (int i = 0; i < pixels.length; i++) {
+      byte r = rgb.get();
+      byte g = rgb.get();
+      byte b = rgb.get();
 
-      // save the image
-      Files.createDirectories(file.getParent());
-      ImageIO.write(image, "png", file.toFile());
-    } catch (IOException e) {
-      throw new UncheckedIOException(e);
+      pixels[i] = 0
+          | r << 16 & 0xFF0000
+          | g << 8 & 0x00FF00
+          | b << 0 & 0x0000FF;
     }
+    BufferedImage image = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+    image.setRGB(0, 0, w, h, pixels, 0, w);
+
+    // flip y-axis
+    AffineTransform at = AffineTransform.getScaleInstance(1, -1);
+    at.translate(0, -h);
+    return new AffineTransformOp(at, AffineTransformOp.TYPE_NEAREST_NEIGHBOR)
+        .filter(image, null);
   }
 
 }
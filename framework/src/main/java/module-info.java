@@ -10,6 +10,7 @@ module dev.flowty.gl.framework {
 
   requires dev.flowty.gl.util;
   requires dev.flowty.gl.config.model;
+  requires dev.flowty.gl.shader;
   requires org.lwjgl.opengl;
 
   exports dev.flowty.gl.framework;
@@ -0,0 +1,397 @@
+package dev.flowty.gl.shader;
+
+import static org.lwjgl.opengl.GL11.GL_TEXTURE_2D;
+import static org.lwjgl.opengl.GL11.glBindTexture;
+import static org.lwjgl.opengl.GL11.glBlendFunc;
+import static org.lwjgl.opengl.GL11.glDeleteTextures;
+import static org.lwjgl.opengl.GL11.glDisable;
+import static org.lwjgl.opengl.GL11.glEnable;
+import static org.lwjgl.opengl.GL11.glViewport;
+import static org.lwjgl.opengl.GL13.GL_TEXTURE0;
+import static org.lwjgl.opengl.GL13.glActiveTexture;
+import static org.lwjgl.opengl.GL15.GL_ARRAY_BUFFER;
+import static org.lwjgl.opengl.GL15.GL_ELEMENT_ARRAY_BUFFER;
+import static org.lwjgl.opengl.GL15.glBindBuffer;
+import static org.lwjgl.opengl.GL15.glDeleteBuffers;
+import static org.lwjgl.opengl.GL20.glDeleteProgram;
+import static org.lwjgl.opengl.GL20.glUseProgram;
+import static org.lwjgl.opengl.GL30.GL_FRAMEBUFFER;
+import static org.lwjgl.opengl.GL30.glBindFramebuffer;
+import static org.lwjgl.opengl.GL30.glBindVertexArray;
+import static org.lwjgl.opengl.GL30.glDeleteFramebuffers;
+import static org.lwjgl.opengl.GL30.glDeleteVertexArrays;
+
+import java.util.Arrays;
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GLCapabilities;
+
+/**
+ * Remembers the GL state that we've set, so that calls that would not change anything can be
+ * skipped. The state that is tracked here - program, framebuffer, viewport, texture, buffer and
+ * vertex array bindings, blending and capabilities - is only ever changed via this class, as are
+ * object deletions, throughout the modules of this library. Other state, e.g.: the depth function
+ * or polygon mode, is set directly.
+ * <p>
+ * All state starts out unknown, so the first call to each setter always reaches GL. If other code
+ * changes the same state directly then the tracker will be wrong about it, and subsequent calls
+ * might be wrongly skipped: call {@link #invalidate()} after such changes. Tracked state is
+ * forgotten automatically when the current context changes, but this class assumes that the
+ * contexts are used from a single thread.
+ * </p>
+ */
+public final class GLState {
+
+  private static final int UNKNOWN = -1;
+
+  /**
+   * The context that the tracked state belongs to
+   */
+  private static GLCapabilities context = null;
+
+  private static int program = UNKNOWN;
+  private static int framebuffer = UNKNOWN;
+  private static int viewportX = UNKNOWN;
+  private static int viewportY = UNKNOWN;
+  private static int viewportWidth = UNKNOWN;
+  private static int viewportHeight = UNKNOWN;
+  private static int activeTexture = UNKNOWN;
+  /**
+   * <code>GL_TEXTURE_2D</code> bindings, indexed by texture unit
+   */
+  private static int[] textures = new int[0];
+  private static int arrayBuffer = UNKNOWN;
+  /**
+   * Note that this is part of the vertex array state, so it is forgotten whenever the vertex array
+   * binding changes
+   */
+  private static int elementBuffer = UNKNOWN;
+  private static int vertexArray = UNKNOWN;
+  private static int blendSource = UNKNOWN;
+  private static int blendDestination = UNKNOWN;
+  /**
+   * Capabilities that have been enabled or disabled
+   */
+  private static int[] capabilities = new int[0];
+  /**
+   * Whether each member of {@link #capabilities} is enabled
+   */
+  private static boolean[] enabled = new boolean[0];
+
+  private static long issued = 0;
+  private static long elided = 0;
+
+  private GLState() {
+    // no instances
+  }
+
+  /**
+   * Forgets all tracked state, so that the next call to each setter reaches GL
+   */
+  public static void invalidate() {
+    program = UNKNOWN;
+    framebuffer = UNKNOWN;
+    viewportX = viewportY = viewportWidth = viewportHeight = UNKNOWN;
+    activeTexture = UNKNOWN;
+    Arrays.fill(textures, UNKNOWN);
+    arrayBuffer = UNKNOWN;
+    elementBuffer = UNKNOWN;
+    vertexArray = UNKNOWN;
+    blendSource = blendDestination = UNKNOWN;
+    capabilities = new int[0];
+    enabled = new boolean[0];
+  }
+
+  /**
+   * @return The number of calls that have reached GL since the last {@link #resetCounts()}
+   */
+  public static long issued() {
+    return issued;
+  }
+
+  /**
+   * @return The number of calls that have been skipped since the last {@link #resetCounts()}
+   * because they would not have changed anything
+   */
+  public static long elided() {
+    return elided;
+  }
+
+  /**
+   * Zeroes the {@link #issued()} and {@link #elided()} counts
+   */
+  public static void resetCounts() {
+    issued = 0;
+    elided = 0;
+  }
+
+  /**
+   * Forgets the tracked state if the context has changed since we last looked
+   */
+  private static void checkContext() {
+    GLCapabilities current = GL.getCapabilities();
+    if (current != context) {
+      invalidate();
+      context = current;
+    }
+  }
+
+  /**
+   * Updates the counts
+   *
+   * @param changed <code>true</code> if a call will change the state
+   * @return <code>changed</code>
+   */
+  private static boolean changes(boolean changed) {
+    if (changed) {
+      issued++;
+    } else {
+      elided++;
+    }
+    return changed;
+  }
+
+  /**
+   * @param handle The program to use
+   * @see org.lwjgl.opengl.GL20#glUseProgram(int)
+   */
+  public static void useProgram(int handle) {
+    checkContext();
+    if (changes(program != handle)) {
+      glUseProgram(handle);
+      program = handle;
+    }
+  }
+
+  /**
+   * @param handle The program to delete
+   * @see org.lwjgl.opengl.GL20#glDeleteProgram(int)
+   */
+  public static void deleteProgram(int handle) {
+    checkContext();
+    glDeleteProgram(handle);
+    if (program == handle) {
+      program = UNKNOWN;
+    }
+  }
+
+  /**
+   * Binds a framebuffer for both drawing and reading
+   *
+   * @param handle The framebuffer, or 0 for the default framebuffer
+   * @see org.lwjgl.opengl.GL30#glBindFramebuffer(int, int)
+   */
+  public static void bindFramebuffer(int handle) {
+    checkContext();
+    if (changes(framebuffer != handle)) {
+      glBindFramebuffer(GL_FRAMEBUFFER, handle);
+      framebuffer = handle;
+    }
+  }
+
+  /**
+   * @param handle The framebuffer to delete
+   * @see org.lwjgl.opengl.GL30#glDeleteFramebuffers(int)
+   */
+  public static void deleteFramebuffer(int handle) {
+    checkContext();
+    glDeleteFramebuffers(handle);
+    if (framebuffer == handle) {
+      framebuffer = UNKNOWN;
+    }
+  }
+
+  /**
+   * @param x      viewport left
+   * @param y      viewport bottom
+   * @param width  viewport width
+   * @param height viewport height
+   * @see org.lwjgl.opengl.GL11#glViewport(int, int, int, int)
+   */
+  public static void viewport(int x, int y, int width, int height) {
+    checkContext();
+    if (changes(viewportX != x || viewportY != y
+        || viewportWidth != width || viewportHeight != height)) {
+      glViewport(x, y, width, height);
+      viewportX = x;
+      viewportY = y;
+      viewportWidth = width;
+      viewportHeight = height;
+    }
+  }
+
+  /**
+   * @param unit The texture unit to make active, e.g.: {@link org.lwjgl.opengl.GL13#GL_TEXTURE0}
+   * @see org.lwjgl.opengl.GL13#glActiveTexture(int)
+   */
+  public static void activeTexture(int unit) {
+    checkContext();
+    if (changes(activeTexture != unit)) {
+      glActiveTexture(unit);
+      activeTexture = unit;
+    }
+  }
+
+  /**
+   * Binds a 2D texture to a texture unit. That unit is left active.
+   *
+   * @param unit   The texture unit, e.g.: {@link org.lwjgl.opengl.GL13#GL_TEXTURE0}
+   * @param handle The texture
+   * @see org.lwjgl.opengl.GL11#glBindTexture(int, int)
+   */
+  public static void bindTexture(int unit, int handle) {
+    checkContext();
+    activeTexture(unit);
+    int index = unit - GL_TEXTURE0;
+    if (index >= textures.length) {
+      int length = textures.length;
+      textures = Arrays.copyOf(textures, Math.max(index + 1, 2 * length));
+      Arrays.fill(textures, length, textures.length, UNKNOWN);
+    }
+    if (changes(textures[index] != handle)) {
+      glBindTexture(GL_TEXTURE_2D, handle);
+      textures[index] = handle;
+    }
+  }
+
+  /**
+   * @param handle The texture to delete
+   * @see org.lwjgl.opengl.GL11#glDeleteTextures(int)
+   */
+  public static void deleteTexture(int handle) {
+    checkContext();
+    glDeleteTextures(handle);
+    for (int i = 0; i < textures.length; i++) {
+      if (textures[i] == handle) {
+        textures[i] = UNKNOWN;
+      }
+    }
+  }
+
+  /**
+   * Binds a buffer. Only the {@link org.lwjgl.opengl.GL15#GL_ARRAY_BUFFER} and
+   * {@link org.lwjgl.opengl.GL15#GL_ELEMENT_ARRAY_BUFFER} bindings are tracked, binds to other
+   * targets always reach GL.
+   *
+   * @param target The buffer binding target
+   * @param handle The buffer
+   * @see org.lwjgl.opengl.GL15#glBindBuffer(int, int)
+   */
+  public static void bindBuffer(int target, int handle) {
+    checkContext();
+    if (target == GL_ARRAY_BUFFER) {
+      if (changes(arrayBuffer != handle)) {
+        glBindBuffer(target, handle);
+        arrayBuffer = handle;
+      }
+    } else if (target == GL_ELEMENT_ARRAY_BUFFER) {
+      if (changes(elementBuffer != handle)) {
+        glBindBuffer(target, handle);
+        elementBuffer = handle;
+      }
+    } else {
+      changes(true);
+      glBindBuffer(target, handle);
+    }
+  }
+
+  /**
+   * @param handle The buffer to delete
+   * @see org.lwjgl.opengl.GL15#glDeleteBuffers(int)
+   */
+  public static void deleteBuffer(int handle) {
+    checkContext();
+    glDeleteBuffers(handle);
+    if (arrayBuffer == handle) {
+      arrayBuffer = UNKNOWN;
+    }
+    if (elementBuffer == handle) {
+      elementBuffer = UNKNOWN;
+    }
+  }
+
+  /**
+   * @param handle The vertex array
+   * @see org.lwjgl.opengl.GL30#glBindVertexArray(int)
+   */
+  public static void bindVertexArray(int handle) {
+    checkContext();
+    if (changes(vertexArray != handle)) {
+      glBindVertexArray(handle);
+      vertexArray = handle;
+      // the element buffer binding comes with the vertex array
+      elementBuffer = UNKNOWN;
+    }
+  }
+
+  /**
+   * @param handle The vertex array to delete
+   * @see org.lwjgl.opengl.GL30#glDeleteVertexArrays(int)
+   */
+  public static void deleteVertexArray(int handle) {
+    checkContext();
+    glDeleteVertexArrays(handle);
+    if (vertexArray == handle) {
+      vertexArray = UNKNOWN;
+      elementBuffer = UNKNOWN;
+    }
+  }
+
+  /**
+   * @param source      The source blend factor
+   * @param destination The destination blend factor
+   * @see org.lwjgl.opengl.GL11#glBlendFunc(int, int)
+   */
+  public static void blendFunc(int source, int destination) {
+    checkContext();
+    if (changes(blendSource != source || blendDestination != destination)) {
+      glBlendFunc(source, destination);
+      blendSource = source;
+      blendDestination = destination;
+    }
+  }
+
+  /**
+   * @param capability The capability to enable, e.g.: {@link org.lwjgl.opengl.GL11#GL_BLEND}
+   * @see org.lwjgl.opengl.GL11#glEnable(int)
+   */
+  public static void enable(int capability) {
+    checkContext();
+    if (changes(set(capability, true))) {
+      glEnable(capability);
+    }
+  }
+
+  /**
+   * @param capability The capability to disable, e.g.: {@link org.lwjgl.opengl.GL11#GL_BLEND}
+   * @see org.lwjgl.opengl.GL11#glDisable(int)
+   */
+  public static void disable(int capability) {
+    checkContext();
+    if (changes(set(capability, false))) {
+      glDisable(capability);
+    }
+  }
+
+  /**
+   * Records the state of a capability
+   *
+   * @param capability The capability
+   * @param state      Its new state
+   * @return <code>true</code> if that is a change from the previous state
+   */
+  private static boolean set(int capability, boolean state) {
+    for (int i = 0; i < capabilities.length; i++) {
+      if (capabilities[i] == capability) {
+        boolean changed = enabled[i] != state;
+        enabled[i] = state;
+        return changed;
+      }
+    }
+    // there are only a handful of capabilities in play, so linear growth is fine
+    capabilities = Arrays.copyOf(capabilities, capabilities.length + 1);
+    enabled = Arrays.copyOf(enabled, enabled.length + 1);
+    capabilities[capabilities.length - 1] = capability;
+    enabled[enabled.length - 1] = state;
+    return true;
+  }
+}
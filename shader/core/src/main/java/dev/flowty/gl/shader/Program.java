@@ -3,11 +3,10 @@ package dev.flowty.gl.shader;
 import static org.lwjgl.opengl.GL20.GL_LINK_STATUS;
 import static org.lwjgl.opengl.GL20.glAttachShader;
 import static org.lwjgl.opengl.GL20.glCreateProgram;
-import static org.lwjgl.opengl.GL20.glDeleteProgram;
 import static org.lwjgl.opengl.GL20.glGetProgramInfoLog;
 import static org.lwjgl.opengl.GL20.glGetProgrami;
 import static org.lwjgl.opengl.GL20.glLinkProgram;
-import static org.lwjgl.opengl.GL20.glUseProgram;
+import static org.lwjgl.opengl.KHRParallelShaderCompile.GL_COMPLETION_STATUS_KHR;
 
 import dev.flowty.gl.shader.uniform.Uniform;
 import java.util.ArrayList;
@@ -19,6 +18,8 @@ import java.util.List;
  */
 public abstract class Program {
 
+  private static ProgramCache cache = null;
+
   private final VertexShader vertex;
   private final FragmentShader fragment;
   private final List<Uniform> uniforms = new ArrayList<>();
@@ -27,6 +28,14 @@ public abstract class Program {
    * The ID of the linked program
    */
   private int handle = 0;
+  /**
+   * <code>true</code> if the link status has been checked
+   */
+  private boolean linked = false;
+  /**
+   * When linking started, for the benefit of the {@link ProgramCache}
+   */
+  private long linkStart = 0;
 
   /**
    * Links shaders into a program
@@ -39,6 +48,23 @@ public abstract class Program {
     this.fragment = fragment;
   }
 
+  /**
+   * Enables caching of linked program binaries. This affects every program that is subsequently
+   * linked.
+   *
+   * @param c The cache, or <code>null</code> to always compile programs from source
+   */
+  public static void cache(ProgramCache c) {
+    cache = c;
+  }
+
+  /**
+   * @return The cache of linked program binaries, or <code>null</code> if caching is not enabled
+   */
+  public static ProgramCache cache() {
+    return cache;
+  }
+
   /**
    * Populates the uniforms for automatic handling
    *
@@ -52,40 +78,82 @@ public abstract class Program {
   }
 
   /**
-   * @return The ID of the linked program
+   * Submits the program for compilation and linking, without waiting for the result. Unless the
+   * context supports parallel shader compilation this is unlikely to save much time by itself, see
+   * {@link ProgramBatch}.
+   *
+   * @return <code>this</code>
    */
-  public int handle() {
+  public Program link() {
     if (handle == 0) {
       handle = glCreateProgram();
+      if (cache != null && cache.load(handle, vertex, fragment)) {
+        // the shaders never needed to be compiled
+        linked = true;
+      } else {
+        linkStart = System.nanoTime();
+        glAttachShader(handle, vertex.compile());
+        glAttachShader(handle, fragment.compile());
+        glLinkProgram(handle);
+      }
+    }
+    return this;
+  }
+
+  /**
+   * Submits the program for linking if that hasn't already happened, and checks if it has
+   * finished
+   *
+   * @return <code>true</code> if {@link #handle()} will not have to wait for compilation. This is
+   * always <code>true</code> where the context does not support parallel shader compilation.
+   */
+  public boolean ready() {
+    link();
+    return linked
+        || !ProgramBatch.parallel()
+        || glGetProgrami(handle, GL_COMPLETION_STATUS_KHR) != 0;
+  }
+
+  /**
+   * @return The ID of the linked program
+   */
+  public int handle() {
+    link();
+    if (!linked) {
       try {
-        glAttachShader(handle, vertex.handle());
-        glAttachShader(handle, fragment.handle());
+        vertex.handle();
+        fragment.handle();
       } catch (Exception e) {
         throw new IllegalStateException(String.format(
             "Failed to compile %s!\n",
             getClass().getSimpleName()), e);
       }
-      glLinkProgram(handle);
       int success = glGetProgrami(handle, GL_LINK_STATUS);
       if (success == 0) {
         throw new IllegalStateException(String.format(
-            "Failed to link %s!\n",
+            "Failed to link %s!\n%s",
             getClass().getSimpleName(),
             glGetProgramInfoLog(handle)));
       }
+      if (cache != null) {
+        cache.store(handle, vertex, fragment, System.nanoTime() - linkStart);
+      }
+      // the shaders are no longer needed once the program is linked
       vertex.delete();
       fragment.delete();
+      linked = true;
     }
     return handle;
   }
 
   /**
-   * Activates the program for rendering
+   * Activates the program for rendering. Uniform values are only sent if they have changed since
+   * they were last sent, see {@link Uniform#issued()} and {@link Uniform#skipped()}
    *
    * @return <code>this</code>
    */
   public Program use() {
-    glUseProgram(handle());
+    GLState.useProgram(handle());
     for (Uniform uniform : uniforms) {
       uniform.populate();
     }
@@ -96,8 +164,9 @@ public abstract class Program {
    * Deletes the program
    */
   public void delete() {
-    glDeleteProgram(handle);
+    GLState.deleteProgram(handle);
     handle = 0;
+    linked = false;
     for (Uniform uniform : uniforms) {
       uniform.delete();
     }
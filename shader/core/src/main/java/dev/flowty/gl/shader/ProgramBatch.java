@@ -0,0 +1,133 @@
+package dev.flowty.gl.shader;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.lwjgl.opengl.ARBParallelShaderCompile;
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GLCapabilities;
+import org.lwjgl.opengl.KHRParallelShaderCompile;
+
+/**
+ * Compiles a set of programs without blocking the render loop, e.g.: from a loading screen:
+ *
+ * <pre>
+ * // when the loading screen is created
+ * batch = new ProgramBatch(programs).start();
+ *
+ * // every frame
+ * if (batch.poll() == 0) {
+ *   // everything is ready to use
+ * }
+ * </pre>
+ * <p>
+ * Where the context supports <code>KHR_parallel_shader_compile</code> (or the equivalent ARB
+ * extension) every program is submitted to the driver at once, and each {@link #poll()} collects
+ * the programs that have finished without waiting for the others. Otherwise programs are compiled
+ * one at a time, one per {@link #poll()}, so the render loop stalls for a single program rather
+ * than all of them.
+ * </p>
+ */
+public class ProgramBatch {
+
+  /**
+   * The context that {@link #parallel} applies to
+   */
+  private static GLCapabilities context = null;
+  private static boolean parallel = false;
+
+  private final List<Program> pending = new ArrayList<>();
+  private final int size;
+  private boolean started = false;
+
+  /**
+   * @param programs The programs to compile
+   */
+  public ProgramBatch(Program... programs) {
+    this(List.of(programs));
+  }
+
+  /**
+   * @param programs The programs to compile
+   */
+  public ProgramBatch(List<? extends Program> programs) {
+    pending.addAll(programs);
+    size = pending.size();
+  }
+
+  /**
+   * @return <code>true</code> if the current context can compile shaders in the background
+   */
+  static boolean parallel() {
+    GLCapabilities caps = GL.getCapabilities();
+    if (caps != context) {
+      context = caps;
+      parallel = caps.GL_KHR_parallel_shader_compile || caps.GL_ARB_parallel_shader_compile;
+      // let the driver use as many threads as it likes
+      if (caps.GL_KHR_parallel_shader_compile) {
+        KHRParallelShaderCompile.glMaxShaderCompilerThreadsKHR(0xFFFFFFFF);
+      } else if (caps.GL_ARB_parallel_shader_compile) {
+        ARBParallelShaderCompile.glMaxShaderCompilerThreadsARB(0xFFFFFFFF);
+      }
+    }
+    return parallel;
+  }
+
+  /**
+   * Submits every program for compilation. This is called by the first {@link #poll()} if
+   * necessary.
+   *
+   * @return <code>this</code>
+   */
+  public ProgramBatch start() {
+    if (!started) {
+      started = true;
+      if (parallel()) {
+        for (Program program : pending) {
+          program.link();
+        }
+      }
+    }
+    return this;
+  }
+
+  /**
+   * Completes programs that have finished compiling. Failures to compile or link are thrown from
+   * here, as they would be from {@link Program#handle()}.
+   *
+   * @return The number of programs that are not yet ready to use
+   */
+  public int poll() {
+    start();
+    if (parallel()) {
+      for (int i = pending.size() - 1; i >= 0; i--) {
+        if (pending.get(i).ready()) {
+          pending.remove(i).handle();
+        }
+      }
+    } else if (!pending.isEmpty()) {
+      pending.removeFirst().handle();
+    }
+    return pending.size();
+  }
+
+  /**
+   * @return The proportion of programs that are ready to use, in the range 0 to 1
+   */
+  public float progress() {
+    return size == 0 ? 1 : (float) (size - pending.size()) / size;
+  }
+
+  /**
+   * Waits for every program to be ready
+   *
+   * @return <code>this</code>
+   */
+  public ProgramBatch finish() {
+    start();
+    for (Program program : pending) {
+      program.handle();
+    }
+    pending.clear();
+    return this;
+  }
+}
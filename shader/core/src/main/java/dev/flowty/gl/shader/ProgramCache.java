@@ -0,0 +1,223 @@
+package dev.flowty.gl.shader;
+
+import static org.lwjgl.opengl.GL11.GL_RENDERER;
+import static org.lwjgl.opengl.GL11.GL_TRUE;
+import static org.lwjgl.opengl.GL11.GL_VENDOR;
+import static org.lwjgl.opengl.GL11.GL_VERSION;
+import static org.lwjgl.opengl.GL11.glGetInteger;
+import static org.lwjgl.opengl.GL11.glGetString;
+import static org.lwjgl.opengl.GL20.GL_LINK_STATUS;
+import static org.lwjgl.opengl.GL20.glGetProgrami;
+import static org.lwjgl.opengl.GL41.GL_NUM_PROGRAM_BINARY_FORMATS;
+import static org.lwjgl.opengl.GL41.GL_PROGRAM_BINARY_LENGTH;
+import static org.lwjgl.opengl.GL41.GL_PROGRAM_BINARY_RETRIEVABLE_HINT;
+import static org.lwjgl.opengl.GL41.glGetProgramBinary;
+import static org.lwjgl.opengl.GL41.glProgramBinary;
+import static org.lwjgl.opengl.GL41.glProgramParameteri;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import org.lwjgl.BufferUtils;
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GLCapabilities;
+
+/**
+ * An on-disk cache of linked program binaries, to avoid the cost of compiling shader source on
+ * every startup. Enable it with {@link Program#cache(ProgramCache)} before any program is linked.
+ * <p>
+ * Binaries are keyed on the shader sources and the <code>GL_VENDOR</code>,
+ * <code>GL_RENDERER</code> and <code>GL_VERSION</code> strings, so a driver update simply results
+ * in cache misses. A binary that the driver rejects is also treated as a miss, and the program is
+ * compiled from source as usual. The cache is best-effort: failures to read or write cache files
+ * are ignored.
+ * </p>
+ * <p>
+ * This requires <code>ARB_get_program_binary</code> support. Where that is missing, or where the
+ * driver offers no binary formats, every lookup is a miss and nothing is stored.
+ * </p>
+ * <p>
+ * The framework's <code>Runner</code> logs the hit, miss and time-saved figures at startup and
+ * shutdown.
+ * </p>
+ */
+public class ProgramCache {
+
+  /**
+   * Cache file header: binary format and original compile time
+   */
+  private static final int HEADER_BYTES = Integer.BYTES + Long.BYTES;
+
+  private final Path directory;
+
+  private Boolean supported = null;
+  private String context = null;
+
+  private int hits = 0;
+  private int misses = 0;
+  private long savedNanos = 0;
+
+  /**
+   * @param directory The directory in which to store program binaries. It will be created if
+   *                  necessary.
+   */
+  public ProgramCache(Path directory) {
+    this.directory = directory;
+  }
+
+  /**
+   * @return The number of programs that have been loaded from the cache
+   */
+  public int hits() {
+    return hits;
+  }
+
+  /**
+   * @return The number of programs that had to be compiled from source
+   */
+  public int misses() {
+    return misses;
+  }
+
+  /**
+   * @return The difference between the time it originally took to compile and link the programs
+   * that were loaded from the cache, and the time it took to load them
+   */
+  public Duration saved() {
+    return Duration.ofNanos(savedNanos);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s hits, %s misses, %sms saved",
+        hits, misses, saved().toMillis());
+  }
+
+  private boolean supported() {
+    if (supported == null) {
+      GLCapabilities caps = GL.getCapabilities();
+      supported = (caps.OpenGL41 || caps.GL_ARB_get_program_binary)
+          && glGetInteger(GL_NUM_PROGRAM_BINARY_FORMATS) > 0;
+    }
+    return supported;
+  }
+
+  /**
+   * Attempts to populate a program from the cache
+   *
+   * @param handle   The ID of an unlinked program
+   * @param vertex   The vertex shader
+   * @param fragment The fragment shader
+   * @return <code>true</code> if the program has been successfully linked from a cached binary.
+   * If not, the caller should compile the program from source, via {@link #store(int, Shader,
+   * Shader, long)}.
+   */
+  boolean load(int handle, Shader vertex, Shader fragment) {
+    if (!supported()) {
+      misses++;
+      return false;
+    }
+
+    long start = System.nanoTime();
+    Path file = file(vertex, fragment);
+    if (Files.isRegularFile(file)) {
+      try {
+        byte[] content = Files.readAllBytes(file);
+        if (content.length > HEADER_BYTES) {
+          ByteBuffer data = BufferUtils.createByteBuffer(content.length)
+              .order(ByteOrder.LITTLE_ENDIAN);
+          data.put(content).flip();
+          int format = data.getInt();
+          long compileNanos = data.getLong();
+
+          glProgramBinary(handle, format, data);
+          if (glGetProgrami(handle, GL_LINK_STATUS) != 0) {
+            hits++;
+            savedNanos += compileNanos - (System.nanoTime() - start);
+            return true;
+          }
+        }
+      } catch (IOException ioe) {
+        // fall back to compilation
+      }
+    }
+
+    misses++;
+    // make sure that the driver keeps the binary around when we link from source
+    glProgramParameteri(handle, GL_PROGRAM_BINARY_RETRIEVABLE_HINT, GL_TRUE);
+    return false;
+  }
+
+  /**
+   * Saves a linked program to the cache
+   *
+   * @param handle       The ID of the successfully-linked program
+   * @param vertex       The vertex shader
+   * @param fragment     The fragment shader
+   * @param compileNanos How long it took to compile and link the program
+   */
+  void store(int handle, Shader vertex, Shader fragment, long compileNanos) {
+    if (!supported()) {
+      return;
+    }
+
+    int length = glGetProgrami(handle, GL_PROGRAM_BINARY_LENGTH);
+    if (length <= 0) {
+      return;
+    }
+    ByteBuffer binary = BufferUtils.createByteBuffer(length);
+    IntBuffer format = BufferUtils.createIntBuffer(1);
+    glGetProgramBinary(handle, null, format, binary);
+
+    ByteBuffer content = ByteBuffer.allocate(HEADER_BYTES + length)
+        .order(ByteOrder.LITTLE_ENDIAN)
+        .putInt(format.get(0))
+        .putLong(compileNanos)
+        .put(binary);
+
+    try {
+      Files.createDirectories(directory);
+      // write-then-move, so a concurrent or interrupted run never sees a partial file
+      Path file = file(vertex, fragment);
+      Path tmp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+      Files.write(tmp, content.array());
+      Files.move(tmp, file,
+          StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException ioe) {
+      // the cache is an optimisation, we can live without it
+    }
+  }
+
+  /**
+   * @param vertex   The vertex shader
+   * @param fragment The fragment shader
+   * @return The cache file for the program
+   */
+  private Path file(Shader vertex, Shader fragment) {
+    if (context == null) {
+      context = glGetString(GL_VENDOR) + "\n"
+          + glGetString(GL_RENDERER) + "\n"
+          + glGetString(GL_VERSION) + "\n";
+    }
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      digest.update(context.getBytes(StandardCharsets.UTF_8));
+      digest.update(vertex.source().getBytes(StandardCharsets.UTF_8));
+      // separate the sources so that text can't migrate between them unnoticed
+      digest.update((byte) 0);
+      digest.update(fragment.source().getBytes(StandardCharsets.UTF_8));
+      return directory.resolve(HexFormat.of().formatHex(digest.digest()) + ".bin");
+    } catch (NoSuchAlgorithmException nsae) {
+      throw new IllegalStateException("SHA-256 is required to be supported", nsae);
+    }
+  }
+}
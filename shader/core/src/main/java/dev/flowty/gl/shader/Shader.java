@@ -20,6 +20,10 @@ public abstract class Shader {
    * The ID of the shader
    */
   private int handle = 0;
+  /**
+   * <code>true</code> if the compilation status has been checked
+   */
+  private boolean compiled = false;
 
   /**
    * @param source The source code of the shader
@@ -31,13 +35,32 @@ public abstract class Shader {
   }
 
   /**
-   * @return The ID of the compiled shader
+   * @return The source code of the shader
    */
-  public int handle() {
+  String source() {
+    return source;
+  }
+
+  /**
+   * Submits the shader for compilation, without waiting for the result
+   *
+   * @return The ID of the shader, which may not yet have finished compiling
+   */
+  int compile() {
     if (handle == 0) {
       handle = glCreateShader(type);
       glShaderSource(handle, source);
       glCompileShader(handle);
+    }
+    return handle;
+  }
+
+  /**
+   * @return The ID of the compiled shader
+   */
+  public int handle() {
+    compile();
+    if (!compiled) {
       int status = glGetShaderi(handle, GL_COMPILE_STATUS);
       if (status == 0) {
         throw new IllegalStateException(String.format(
@@ -45,6 +68,7 @@ public abstract class Shader {
             getClass().getSimpleName(),
             glGetShaderInfoLog(handle)));
       }
+      compiled = true;
     }
     return handle;
   }
@@ -55,5 +79,6 @@ public abstract class Shader {
   public void delete() {
     glDeleteShader(handle);
     handle = 0;
+    compiled = false;
   }
 }
@@ -5,13 +5,21 @@ import static org.lwjgl.opengl.GL20.glGetUniformLocation;
 import dev.flowty.gl.shader.Program;
 
 /**
- * Represents a single uniform variable in a program
+ * Represents a single uniform variable in a program. Implementations remember the value that was
+ * last sent to GL, and only send it again when it has changed or the program has been relinked.
  */
 public abstract class Uniform {
 
+  private static long issued = 0;
+  private static long skipped = 0;
+
   private final Program program;
   private final String name;
   private int location = -1;
+  /**
+   * <code>true</code> if the linked program holds a value that we've sent
+   */
+  private boolean uploaded = false;
 
   /**
    * @param program The owning program
@@ -22,6 +30,20 @@ public abstract class Uniform {
     this.name = name;
   }
 
+  /**
+   * @return The owning program
+   */
+  protected Program program() {
+    return program;
+  }
+
+  /**
+   * @return The uniform name
+   */
+  protected String name() {
+    return name;
+  }
+
   /**
    * @return The uniform location
    */
@@ -33,14 +55,58 @@ public abstract class Uniform {
   }
 
   /**
-   * Causes the location to be refreshed on next access
+   * Causes the location to be refreshed on next access, and the value to be sent on next
+   * {@link #populate()}
    */
   public void delete() {
     location = -1;
+    uploaded = false;
+  }
+
+  /**
+   * Decides if the value should be sent to GL, and updates the {@link #issued()} and
+   * {@link #skipped()} counts accordingly
+   *
+   * @param changed <code>true</code> if the value differs from the one that was last sent
+   * @return <code>true</code> if the value should be sent
+   */
+  protected boolean upload(boolean changed) {
+    if (changed || !uploaded) {
+      uploaded = true;
+      issued++;
+      return true;
+    }
+    skipped++;
+    return false;
+  }
+
+  /**
+   * @return The number of uniform values that have been sent to GL since the last
+   * {@link #resetCounts()}
+   */
+  public static long issued() {
+    return issued;
+  }
+
+  /**
+   * @return The number of uniform updates that have been avoided since the last
+   * {@link #resetCounts()} because the program already held that value
+   */
+  public static long skipped() {
+    return skipped;
+  }
+
+  /**
+   * Zeroes the {@link #issued()} and {@link #skipped()} counts
+   */
+  public static void resetCounts() {
+    issued = 0;
+    skipped = 0;
   }
 
   /**
-   * Implement this to populate the uniform value into opengl
+   * Implement this to populate the uniform value into opengl, if {@link #upload(boolean)} agrees
+   * that it's necessary. This is called with the owning program in use.
    */
   public abstract void populate();
 }
@@ -10,6 +10,7 @@ import dev.flowty.gl.shader.Program;
 public class Uniform1f extends Uniform {
 
   private float value;
+  private float sent;
 
   /**
    * @param program The program
@@ -30,6 +31,9 @@ public class Uniform1f extends Uniform {
 
   @Override
   public void populate() {
-    glUniform1f(location(), value);
+    if (upload(value != sent)) {
+      glUniform1f(location(), value);
+      sent = value;
+    }
   }
 }
@@ -10,6 +10,7 @@ import dev.flowty.gl.shader.Program;
 public class Uniform1i extends Uniform {
 
   private int value;
+  private int sent;
 
   /**
    * @param program The program
@@ -30,6 +31,9 @@ public class Uniform1i extends Uniform {
 
   @Override
   public void populate() {
-    glUniform1i(location(), value);
+    if (upload(value != sent)) {
+      glUniform1i(location(), value);
+      sent = value;
+    }
   }
 }
@@ -14,6 +14,7 @@ public class Uniform2f extends Uniform {
    * The value
    */
   public final Vector2f value = new Vector2f();
+  private final Vector2f sent = new Vector2f();
 
   /**
    * @param program The program
@@ -25,6 +26,9 @@ public class Uniform2f extends Uniform {
 
   @Override
   public void populate() {
-    glUniform2f(location(), value.x(), value.y());
+    if (upload(!value.equals(sent))) {
+      glUniform2f(location(), value.x(), value.y());
+      sent.set(value);
+    }
   }
 }
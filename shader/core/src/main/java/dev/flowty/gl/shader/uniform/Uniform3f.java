@@ -14,6 +14,7 @@ public class Uniform3f extends Uniform {
    * The value
    */
   public final Vector3f value = new Vector3f();
+  private final Vector3f sent = new Vector3f();
 
   /**
    * @param program The program
@@ -25,6 +26,9 @@ public class Uniform3f extends Uniform {
 
   @Override
   public void populate() {
-    glUniform3f(location(), value.x(), value.y(), value.z());
+    if (upload(!value.equals(sent))) {
+      glUniform3f(location(), value.x(), value.y(), value.z());
+      sent.set(value);
+    }
   }
 }
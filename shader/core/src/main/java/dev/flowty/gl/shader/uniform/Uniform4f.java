@@ -0,0 +1,34 @@
+package dev.flowty.gl.shader.uniform;
+
+import static org.lwjgl.opengl.GL20.glUniform4f;
+
+import dev.flowty.gl.shader.Program;
+import org.joml.Vector4f;
+
+/**
+ * Represents a 4-value float vector uniform
+ */
+public class Uniform4f extends Uniform {
+
+  /**
+   * The value
+   */
+  public final Vector4f value = new Vector4f();
+  private final Vector4f sent = new Vector4f();
+
+  /**
+   * @param program The program
+   * @param name    The uniform name
+   */
+  public Uniform4f(Program program, String name) {
+    super(program, name);
+  }
+
+  @Override
+  public void populate() {
+    if (upload(!value.equals(sent))) {
+      glUniform4f(location(), value.x(), value.y(), value.z(), value.w());
+      sent.set(value);
+    }
+  }
+}
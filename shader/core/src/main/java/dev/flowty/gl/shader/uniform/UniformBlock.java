@@ -0,0 +1,60 @@
+package dev.flowty.gl.shader.uniform;
+
+import static org.lwjgl.opengl.GL31.GL_INVALID_INDEX;
+import static org.lwjgl.opengl.GL31.glGetUniformBlockIndex;
+import static org.lwjgl.opengl.GL31.glUniformBlockBinding;
+
+import dev.flowty.gl.shader.Program;
+
+/**
+ * Represents a named uniform block in a program. The block contents are supplied by whatever
+ * buffer object is bound to the block's binding point, e.g.: via
+ * {@link org.lwjgl.opengl.GL30#glBindBufferBase(int, int, int) glBindBufferBase}
+ */
+public class UniformBlock extends Uniform {
+
+  private final int binding;
+  private int index = GL_INVALID_INDEX;
+
+  /**
+   * @param program The program
+   * @param name    The uniform block name
+   * @param binding The uniform buffer binding point to associate with the block
+   */
+  public UniformBlock(Program program, String name, int binding) {
+    super(program, name);
+    this.binding = binding;
+  }
+
+  /**
+   * @return The uniform buffer binding point
+   */
+  public int binding() {
+    return binding;
+  }
+
+  /**
+   * @return The uniform block index
+   */
+  @Override
+  public int location() {
+    if (index == GL_INVALID_INDEX) {
+      index = glGetUniformBlockIndex(program().handle(), name());
+    }
+    return index;
+  }
+
+  @Override
+  public void delete() {
+    super.delete();
+    index = GL_INVALID_INDEX;
+  }
+
+  @Override
+  public void populate() {
+    // the binding point never changes, so it only needs to be set once per link
+    if (upload(false)) {
+      glUniformBlockBinding(program().handle(), location(), binding);
+    }
+  }
+}
@@ -6,6 +6,7 @@ import dev.flowty.gl.shader.Program;
 import java.nio.FloatBuffer;
 import java.util.function.Consumer;
 import org.joml.Matrix4f;
+import org.joml.Matrix4fc;
 import org.lwjgl.BufferUtils;
 
 /**
@@ -14,6 +15,7 @@ import org.lwjgl.BufferUtils;
 public class UniformMatrix4f extends Uniform {
 
   private final Matrix4f matrix = new Matrix4f();
+  private final Matrix4f sent = new Matrix4f();
   private final FloatBuffer matrixFb = BufferUtils.createFloatBuffer(16);
 
   /**
@@ -33,9 +35,19 @@ public class UniformMatrix4f extends Uniform {
     m.accept(matrix);
   }
 
+  /**
+   * @return The current matrix value
+   */
+  public Matrix4fc value() {
+    return matrix;
+  }
+
   @Override
   public void populate() {
-    matrix.get(matrixFb);
-    glUniformMatrix4fv(location(), false, matrixFb);
+    if (upload(!matrix.equals(sent))) {
+      matrix.get(matrixFb);
+      glUniformMatrix4fv(location(), false, matrixFb);
+      sent.set(matrix);
+    }
   }
 }
@@ -1,26 +1,27 @@
 package dev.flowty.gl.shader.flat;
 
 import static org.lwjgl.opengl.GL11.GL_FLOAT;
-import static org.lwjgl.opengl.GL11.GL_TRIANGLES;
-import static org.lwjgl.opengl.GL11.glDrawElements;
-import static org.lwjgl.opengl.GL15.GL_ARRAY_BUFFER;
 import static org.lwjgl.opengl.GL15.GL_DYNAMIC_DRAW;
-import static org.lwjgl.opengl.GL15.glBindBuffer;
 import static org.lwjgl.opengl.GL15.glBufferData;
-import static org.lwjgl.opengl.GL15.glDeleteBuffers;
+import static org.lwjgl.opengl.GL15.glBufferSubData;
 import static org.lwjgl.opengl.GL15.glGenBuffers;
+import static org.lwjgl.opengl.GL20.glEnableVertexAttribArray;
 import static org.lwjgl.opengl.GL20.glVertexAttribPointer;
+import static org.lwjgl.opengl.GL30.glBindBufferBase;
+import static org.lwjgl.opengl.GL31.GL_UNIFORM_BUFFER;
 
+import dev.flowty.gl.shader.GLState;
+import dev.flowty.gl.shape.Bounds;
 import dev.flowty.gl.shape.Shape;
+import dev.flowty.gl.shape.Vertices;
+import java.nio.ByteBuffer;
 import java.nio.FloatBuffer;
-import java.nio.IntBuffer;
 import org.joml.Matrix4f;
-import org.joml.Matrix4fc;
-import org.joml.Vector4f;
 import org.lwjgl.BufferUtils;
 
 /**
- * Draws coloured geometry
+ * Draws coloured geometry. Vertex data is interleaved in a single buffer: each vertex position is
+ * immediately followed by that vertex's colour data.
  *
  * @param <S> self type
  */
@@ -31,98 +32,252 @@ public abstract class AbstractFlatColourRenderer<S extends AbstractFlatColourRen
    * The number of vertices that can be batched immediately after construction
    */
   protected static final int DEFAULT_VERTEX_COUNT = 100;
-  private FloatBuffer vertices;
-  private IntBuffer triangles;
+  private final TriangleBatch batch;
 
-  private int vertexBufferHandle = -1;
+  /**
+   * The number of floats in each vertex position: either x,y,z or x,y,z,transform
+   */
+  private final int positionSize;
+  /**
+   * The number of bytes of colour data in each vertex
+   */
+  private final int colourBytes;
+  /**
+   * The number of bytes in each vertex
+   */
+  private final int stride;
+
+  /**
+   * Batched transform matrices, only used when transforming on the GPU
+   */
+  private final FloatBuffer transforms;
+  private int transformCount = 0;
+  private final Matrix4f lastTransform = new Matrix4f();
+  private int transformBufferHandle = -1;
 
-  private final Vector4f vertex = new Vector4f();
+  private boolean culling = false;
+  private final Matrix4f clip = new Matrix4f();
+  private final Bounds bounds = new Bounds();
+  private int drawn = 0;
+  private int culled = 0;
 
   /**
-   * @param stackDepth The size of the matrix stack
+   * @param stackDepth  The size of the matrix stack
+   * @param colourBytes The number of bytes of colour data in each vertex
    */
-  public AbstractFlatColourRenderer(int stackDepth) {
-    super(new FlatColourProgram(), stackDepth);
+  protected AbstractFlatColourRenderer(int stackDepth, int colourBytes) {
+    this(stackDepth, false, colourBytes);
+  }
 
-    vertices = BufferUtils.createFloatBuffer(3 * DEFAULT_VERTEX_COUNT);
-    triangles = BufferUtils.createIntBuffer(3 * 512);
+  /**
+   * @param stackDepth   The size of the matrix stack
+   * @param gpuTransform <code>true</code> to apply the current transform to vertices in the vertex
+   *                     shader rather than on the CPU. Each batch then carries one matrix per
+   *                     distinct transform rather than transformed copies of every vertex.
+   * @param colourBytes  The number of bytes of colour data in each vertex
+   */
+  protected AbstractFlatColourRenderer(int stackDepth, boolean gpuTransform, int colourBytes) {
+    super(new FlatColourProgram(gpuTransform), stackDepth);
+
+    positionSize = gpuTransform ? 4 : 3;
+    this.colourBytes = colourBytes;
+    stride = positionSize * Float.BYTES + colourBytes;
+    batch = new TriangleBatch(stride, DEFAULT_VERTEX_COUNT, () -> {
+      glEnableVertexAttribArray(FlatColourProgram.VERTEX_ARRAY_ATTRIBUTE_INDEX);
+      glVertexAttribPointer(FlatColourProgram.VERTEX_ARRAY_ATTRIBUTE_INDEX,
+          positionSize, GL_FLOAT, false, stride, 0);
+      glEnableVertexAttribArray(FlatColourProgram.COLOUR_ARRAY_ATTRIBUTE_INDEX);
+      colourPointer(stride, positionSize * Float.BYTES);
+    });
+    transforms = gpuTransform
+        ? BufferUtils.createFloatBuffer(16 * FlatColourProgram.TRANSFORM_BLOCK_SIZE)
+        : null;
   }
 
-  private int vertexBufferHandle() {
-    if (vertexBufferHandle == -1) {
-      vertexBufferHandle = glGenBuffers();
+  private int transformBufferHandle() {
+    if (transformBufferHandle == -1) {
+      transformBufferHandle = glGenBuffers();
+      // allocate the whole block up front - the shader expects it to be fully backed
+      GLState.bindBuffer(GL_UNIFORM_BUFFER, transformBufferHandle);
+      glBufferData(GL_UNIFORM_BUFFER, transforms.capacity() * Float.BYTES, GL_DYNAMIC_DRAW);
     }
-    return vertexBufferHandle;
+    return transformBufferHandle;
+  }
+
+  /**
+   * Controls viewport culling. When enabled, shapes whose bounds lie entirely outside of the
+   * projected view volume are rejected before any of their vertices are transformed or batched.
+   *
+   * @param enabled <code>true</code> to cull invisible shapes
+   * @return <code>this</code>
+   */
+  public S culling(boolean enabled) {
+    culling = enabled;
+    return self();
+  }
+
+  /**
+   * @return The number of shapes that have been batched since the last {@link #resetCounts()}
+   */
+  public int drawn() {
+    return drawn;
+  }
+
+  /**
+   * @return The number of shapes that have been rejected by culling since the last
+   * {@link #resetCounts()}
+   */
+  public int culled() {
+    return culled;
   }
 
   /**
-   * Adds shape geometry for rendering
+   * Zeroes the {@link #drawn()} and {@link #culled()} counts
+   *
+   * @return <code>this</code>
+   */
+  public S resetCounts() {
+    drawn = 0;
+    culled = 0;
+    return self();
+  }
+
+  /**
+   * @return The number of bytes between the starts of consecutive vertices in
+   * {@link #vertexData()}
+   */
+  protected int stride() {
+    return stride;
+  }
+
+  /**
+   * @return The batched vertex data, positioned after the last vertex
+   */
+  protected ByteBuffer vertexData() {
+    return batch.vertexData();
+  }
+
+  /**
+   * Adds shape geometry for rendering. Space is left after each vertex position for the colour
+   * data, which the caller is expected to populate.
    *
    * @param cs The shape to render
+   * @return The offset in {@link #vertexData()} of the colour data for the first vertex of the
+   * shape. The colour data of subsequent vertices follows at intervals of {@link #stride()}. If
+   * the shape has been culled then no space is reserved and <code>-1</code> is returned.
    */
-  protected void addGeometry(Shape cs) {
+  protected int addGeometry(Shape cs) {
 
-    while (vertices.remaining() < cs.vertices.length) {
-      growVerts();
+    if (culling && outside(cs)) {
+      culled++;
+      return -1;
     }
+    drawn++;
 
-    while (triangles.remaining() < cs.triangles.length) {
-      growTris();
+    if (!batch.accepts(cs.vertices())) {
+      // too many vertices for the index width, draw what we've got and start again
+      render();
     }
 
-    // populate the triangle indices
-    int existingVertexCount = vertices.position() / 3;
-    for (int index : cs.triangles) {
-      triangles.put(index + existingVertexCount);
+    if (transforms != null) {
+      return addTransformedGeometry(cs);
     }
 
+    ByteBuffer verts = batch.add(cs.triangles, cs.vertices());
+
+    int colourOffset = verts.position() + 3 * Float.BYTES;
     Matrix4f transform = transform();
+    // make sure the kernel can spot the identity and affine fast paths
     transform.determineProperties();
-    if ((transform.properties() & Matrix4fc.PROPERTY_IDENTITY) == 0) {
-      // transform is not identity! transform each vertex
-      for (int i = 0; i < cs.vertices(); i++) {
-        cs.vertex(i, vertex);
-        vertex.mul(transform);
-        vertices.put(vertex.x / vertex.w);
-        vertices.put(vertex.y / vertex.w);
-        vertices.put(vertex.z / vertex.w);
-      }
-    } else {
-      // otherwise add the vertex data directly
-      vertices.put(cs.vertices);
+    Vertices.transform(transform, cs.vertices, 0, verts, verts.position(), stride, cs.vertices());
+    verts.position(verts.position() + cs.vertices() * stride);
+    return colourOffset;
+  }
+
+  /**
+   * Tests a shape's bounding box against the view volume
+   *
+   * @param s The shape
+   * @return <code>true</code> if the shape is definitely not visible
+   */
+  private boolean outside(Shape s) {
+    if (s.vertices() == 0) {
+      return false;
     }
 
-    /**
-     * TODO: it'd be nice to avoid this per-vertex work on the CPU. We should be
-     * able to:
-     * <ul>
-     * <li>Have a uniform buffer object where we store the matrices</li>
-     * <li>Have a vertex attribute that indexes into that array</li>
-     * <li>Do the transform in the vertex shader</li>
-     * </ul>
-     * I had a crack at it, but I'm not clever enough to avoid a black screen
-     */
+    s.bounds(bounds);
+    float minX = bounds.min.x, minY = bounds.min.y, minZ = bounds.min.z;
+    float maxX = bounds.max.x, maxY = bounds.max.y, maxZ = bounds.max.z;
+
+    program().projection.value().mul(transform(), clip);
+
+    // a corner of the box that is outside a plane of the view volume clears nothing, one that is
+    // inside clears that plane's bit. The box is invisible if any bit survives all eight corners.
+    int outside = 0b111111;
+    for (int corner = 0; corner < 8 && outside != 0; corner++) {
+      float x = (corner & 1) == 0 ? minX : maxX;
+      float y = (corner & 2) == 0 ? minY : maxY;
+      float z = (corner & 4) == 0 ? minZ : maxZ;
+      float cx = clip.m00() * x + clip.m10() * y + clip.m20() * z + clip.m30();
+      float cy = clip.m01() * x + clip.m11() * y + clip.m21() * z + clip.m31();
+      float cz = clip.m02() * x + clip.m12() * y + clip.m22() * z + clip.m32();
+      float cw = clip.m03() * x + clip.m13() * y + clip.m23() * z + clip.m33();
+      int planes = 0;
+      planes |= cx < -cw ? 0b000001 : 0;
+      planes |= cx > cw ? 0b000010 : 0;
+      planes |= cy < -cw ? 0b000100 : 0;
+      planes |= cy > cw ? 0b001000 : 0;
+      planes |= cz < -cw ? 0b010000 : 0;
+      planes |= cz > cw ? 0b100000 : 0;
+      outside &= planes;
+    }
+    return outside != 0;
   }
 
-  private void growVerts() {
-    FloatBuffer grownVerts = BufferUtils.createFloatBuffer(vertices.capacity() * 2);
-    vertices.flip();
-    grownVerts.put(vertices);
-    vertices = grownVerts;
+  /**
+   * Adds shape geometry for rendering, tagging each vertex with the index of the current transform
+   * so that it can be applied in the vertex shader
+   *
+   * @param cs The shape to render
+   * @return The offset of the colour data for the first vertex of the shape
+   */
+  private int addTransformedGeometry(Shape cs) {
+    // this might provoke a flush, so do it before we touch the vertex buffers
+    float transformIndex = transformIndex();
+
+    ByteBuffer verts = batch.add(cs.triangles, cs.vertices());
 
-    growColours();
+    int colourOffset = verts.position() + 4 * Float.BYTES;
+    for (int i = 0; i < cs.vertices.length; i += 3) {
+      verts.putFloat(cs.vertices[i + 0]);
+      verts.putFloat(cs.vertices[i + 1]);
+      verts.putFloat(cs.vertices[i + 2]);
+      verts.putFloat(transformIndex);
+      verts.position(verts.position() + colourBytes);
+    }
+    return colourOffset;
   }
 
   /**
-   * Implement this to double the number of vertex colours that can be stored for rendering
+   * Finds the index of the current transform in the batch, adding it if necessary
+   *
+   * @return The index of the current transform
    */
-  protected abstract void growColours();
+  private int transformIndex() {
+    Matrix4f transform = transform();
+    if (transformCount > 0 && lastTransform.equals(transform, 0)) {
+      // consecutive draws under the same transform can share a matrix
+      return transformCount - 1;
+    }
+
+    if (transformCount == FlatColourProgram.TRANSFORM_BLOCK_SIZE) {
+      // the block is full, draw what we've got and start again
+      render();
+    }
 
-  private void growTris() {
-    IntBuffer grownTris = BufferUtils.createIntBuffer(triangles.capacity() * 2);
-    triangles.flip();
-    grownTris.put(triangles);
-    triangles = grownTris;
+    transform.get(16 * transformCount, transforms);
+    lastTransform.set(transform);
+    return transformCount++;
   }
 
   /**
@@ -134,25 +289,21 @@ public abstract class AbstractFlatColourRenderer<S extends AbstractFlatColourRen
 
     program().use();
 
-    // flip the buffers to be read from
-    vertices.flip();
-    triangles.flip();
-
-    // bind vertex data
-    glBindBuffer(GL_ARRAY_BUFFER, vertexBufferHandle());
-    glBufferData(GL_ARRAY_BUFFER, vertices, GL_DYNAMIC_DRAW);
-    glVertexAttribPointer(FlatColourProgram.VERTEX_ARRAY_ATTRIBUTE_INDEX,
-        3, GL_FLOAT, false, 0, 0);
-
-    bindColours();
+    if (transforms != null) {
+      transforms.limit(16 * transformCount);
+      GLState.bindBuffer(GL_UNIFORM_BUFFER, transformBufferHandle());
+      glBufferSubData(GL_UNIFORM_BUFFER, 0, transforms);
+      glBindBufferBase(GL_UNIFORM_BUFFER, FlatColourProgram.TRANSFORM_BLOCK_BINDING,
+          transformBufferHandle());
+    }
 
-    // draw the triangles
-    glDrawElements(GL_TRIANGLES, triangles);
+    batch.draw();
 
     // reset for the next frame
-    vertices.clear();
-    triangles.clear();
-    clearColours();
+    if (transforms != null) {
+      transforms.clear();
+      transformCount = 0;
+    }
     return self();
   }
 
@@ -161,21 +312,23 @@ public abstract class AbstractFlatColourRenderer<S extends AbstractFlatColourRen
    */
   public S destroy() {
     program().delete();
-    if (vertexBufferHandle != -1) {
-      glDeleteBuffers(vertexBufferHandle);
-      vertexBufferHandle = -1;
+    batch.destroy();
+    if (transformBufferHandle != -1) {
+      GLState.deleteBuffer(transformBufferHandle);
+      transformBufferHandle = -1;
     }
     return self();
   }
 
   /**
-   * Implement this to bind the vertex colours for rendering
-   */
-  protected abstract void bindColours();
-
-  /**
-   * Implement this to clear vertex colour storage
+   * Implement this to describe the layout of the vertex colour data, via
+   * {@link org.lwjgl.opengl.GL20#glVertexAttribPointer(int, int, int, boolean, int, long)
+   * glVertexAttribPointer} on {@link FlatColourProgram#COLOUR_ARRAY_ATTRIBUTE_INDEX}. This is
+   * called with the vertex array and buffer bound.
+   *
+   * @param stride The number of bytes between consecutive vertices
+   * @param offset The offset of the colour data within each vertex
    */
-  protected abstract void clearColours();
+  protected abstract void colourPointer(int stride, long offset);
 
 }
@@ -1,10 +1,17 @@
 package dev.flowty.gl.shader.flat;
 
+import dev.flowty.gl.shape.Combine;
+import dev.flowty.gl.shape.MeshFile;
+import dev.flowty.gl.shape.MeshOptimiser;
 import dev.flowty.gl.shape.Shape;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.List;
 import java.util.function.Consumer;
 import java.util.function.IntUnaryOperator;
 import org.joml.Matrix4f;
+import org.joml.Matrix4fc;
 import org.joml.Vector3f;
 
 /**
@@ -18,7 +25,9 @@ public class ColouredShape extends Shape {
   public final int[] colours;
 
   /**
-   * @param geometry The shape geometry
+   * @param geometry The shape geometry. The vertex and triangle arrays are shared rather than
+   *                 copied, so if the geometry is subsequently altered you'll need to
+   *                 {@link #markDirty()} this shape.
    * @param colour   The colour for all vertices
    */
   public ColouredShape(Shape geometry, int colour) {
@@ -27,6 +36,15 @@ public class ColouredShape extends Shape {
     Arrays.fill(colours, colour);
   }
 
+  /**
+   * @param geometry The shape geometry, shared as with {@link #ColouredShape(Shape, int)}
+   * @param colours  Per-vertex colours, shared rather than copied
+   */
+  ColouredShape(Shape geometry, int[] colours) {
+    super(geometry.vertices, geometry.triangles);
+    this.colours = colours;
+  }
+
   /**
    * Combines shapes into one geometry
    *
@@ -42,6 +60,50 @@ public class ColouredShape extends Shape {
     }
   }
 
+  /**
+   * Combines shapes into one geometry, copying the constituents concurrently
+   *
+   * @param constituents The shapes to combine. These must not be altered during the call.
+   * @return The combined shape
+   * @see Combine#shapes(List)
+   */
+  public static ColouredShape combine(List<ColouredShape> constituents) {
+    int count = 0;
+    for (ColouredShape c : constituents) {
+      count += c.colours.length;
+    }
+    int[] colours = new int[count];
+    Shape geometry = Combine.shapes(constituents,
+        (c, offset) -> System.arraycopy(c.colours, 0, colours, offset, c.colours.length));
+    return new ColouredShape(geometry, colours);
+  }
+
+  /**
+   * Reads a shape from a mesh file
+   *
+   * @param file   The mapped file
+   * @param colour The colour for all vertices, if the file does not hold colours
+   * @return The shape, copied onto the heap
+   */
+  public static ColouredShape read(MeshFile file, int colour) {
+    if (file.hasColours()) {
+      return new ColouredShape(file.shape(), file.colours());
+    }
+    return new ColouredShape(file.shape(), colour);
+  }
+
+  /**
+   * Writes this shape to a mesh file
+   *
+   * @param path     Where to write it
+   * @param quantise <code>true</code> to store positions in 16 bits per component
+   * @throws IOException If the file cannot be written
+   * @see MeshFile#write(Shape, int[], boolean, Path)
+   */
+  public void write(Path path, boolean quantise) throws IOException {
+    MeshFile.write(this, colours, quantise, path);
+  }
+
   /**
    * Updates a vertex colour
    *
@@ -54,6 +116,24 @@ public class ColouredShape extends Shape {
     return this;
   }
 
+  /**
+   * Builds an optimised copy of this shape. Vertices are only welded if they share a colour.
+   *
+   * @param weldTolerance The distance within which vertices are merged. Use zero to only merge
+   *                      exact duplicates, or a negative value to disable welding.
+   * @return The optimisation result
+   * @see MeshOptimiser#optimise(Shape, float)
+   */
+  public MeshOptimiser.Result<ColouredShape> optimise(float weldTolerance) {
+    return MeshOptimiser.optimise(this, weldTolerance, colours, (geometry, remap) -> {
+      int[] remapped = new int[geometry.vertices()];
+      for (int i = 0; i < remap.length; i++) {
+        remapped[remap[i]] = colours[i];
+      }
+      return new ColouredShape(geometry, remapped);
+    });
+  }
+
   @Override // for the return type
   public ColouredShape vertex(int idx, Consumer<Vector3f> update) {
     super.vertex(idx, update);
@@ -65,4 +145,40 @@ public class ColouredShape extends Shape {
     super.transform(tr);
     return this;
   }
+
+  @Override
+  public ColouredShape transform(int from, int count, Matrix4fc tr) {
+    super.transform(from, count, tr);
+    return this;
+  }
+
+  @Override
+  public ColouredShape translate(int from, int count, float x, float y, float z) {
+    super.translate(from, count, x, y, z);
+    return this;
+  }
+
+  @Override
+  public ColouredShape set(int idx, float x, float y, float z) {
+    super.set(idx, x, y, z);
+    return this;
+  }
+
+  @Override
+  public ColouredShape setXY(int idx, float x, float y) {
+    super.setXY(idx, x, y);
+    return this;
+  }
+
+  @Override
+  public ColouredShape setXY(float[] src) {
+    super.setXY(src);
+    return this;
+  }
+
+  @Override
+  public ColouredShape setXY(int from, float[] src, int srcOffset, int count) {
+    super.setXY(from, src, srcOffset, count);
+    return this;
+  }
 }
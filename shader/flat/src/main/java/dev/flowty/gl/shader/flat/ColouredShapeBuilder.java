@@ -0,0 +1,66 @@
+package dev.flowty.gl.shader.flat;
+
+import dev.flowty.gl.shape.Shape;
+import dev.flowty.gl.shape.ShapeBuilder;
+import java.util.Arrays;
+
+/**
+ * Accumulates coloured geometry into a single {@link ColouredShape}, without needing all of the
+ * constituents to exist at once
+ */
+public class ColouredShapeBuilder {
+
+  private final ShapeBuilder geometry = new ShapeBuilder();
+  private int[] colours = new int[64];
+
+  /**
+   * Appends a shape
+   *
+   * @param cs The shape
+   * @return <code>this</code>
+   */
+  public ColouredShapeBuilder add(ColouredShape cs) {
+    int offset = colours(cs.vertices());
+    geometry.add(cs);
+    System.arraycopy(cs.colours, 0, colours, offset, cs.colours.length);
+    return this;
+  }
+
+  /**
+   * Appends a shape in a single colour
+   *
+   * @param s      The shape
+   * @param colour The colour of all of its vertices
+   * @return <code>this</code>
+   */
+  public ColouredShapeBuilder add(Shape s, int colour) {
+    int offset = colours(s.vertices());
+    geometry.add(s);
+    Arrays.fill(colours, offset, offset + s.vertices(), colour);
+    return this;
+  }
+
+  /**
+   * Makes room for more colours
+   *
+   * @param count The number of vertices about to be added
+   * @return The index of the first of them
+   */
+  private int colours(int count) {
+    int offset = geometry.vertices();
+    if (offset + count > colours.length) {
+      colours = Arrays.copyOf(colours, Math.max(offset + count, colours.length * 2));
+    }
+    return offset;
+  }
+
+  /**
+   * Builds the shape. The builder can continue to be used afterwards.
+   *
+   * @return A shape holding all of the geometry added so far
+   */
+  public ColouredShape build() {
+    Shape s = geometry.build();
+    return new ColouredShape(s, Arrays.copyOf(colours, s.vertices()));
+  }
+}
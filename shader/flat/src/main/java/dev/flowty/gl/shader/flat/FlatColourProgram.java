@@ -1,10 +1,9 @@
 package dev.flowty.gl.shader.flat;
 
-import static org.lwjgl.opengl.GL20.glEnableVertexAttribArray;
-
 import dev.flowty.gl.shader.FragmentShader;
 import dev.flowty.gl.shader.Program;
 import dev.flowty.gl.shader.VertexShader;
+import dev.flowty.gl.shader.uniform.UniformBlock;
 import dev.flowty.gl.shader.uniform.UniformMatrix4f;
 
 /**
@@ -17,6 +16,13 @@ public class FlatColourProgram extends Program {
    */
   public UniformMatrix4f projection = new UniformMatrix4f(this, "projection_matrix");
 
+  /**
+   * The block of per-draw transform matrices. Only active when the program applies transforms on
+   * the GPU
+   */
+  public final UniformBlock transforms = new UniformBlock(this, "transforms",
+      TRANSFORM_BLOCK_BINDING);
+
   /**
    * The vertex array attribute index for vertex position data
    */
@@ -26,43 +32,90 @@ public class FlatColourProgram extends Program {
    */
   public static final int COLOUR_ARRAY_ATTRIBUTE_INDEX = 1;
 
-  /***/
+  /**
+   * The uniform buffer binding point for the transform matrix block
+   */
+  public static final int TRANSFORM_BLOCK_BINDING = 0;
+  /**
+   * The number of matrices in the transform block
+   */
+  public static final int TRANSFORM_BLOCK_SIZE = 256;
+
+  private static final String CPU_TRANSFORM_VERTEX = """
+      #version 330 core
+      layout (location = 0) in vec4 vertex;
+      layout (location = 1) in vec4 in_colour;
+
+      uniform mat4 projection_matrix;
+
+      smooth out vec4 colour;
+
+      void main() {
+          gl_Position = projection_matrix * vertex;
+          colour = in_colour;
+      }
+      """;
+
+  private static final String GPU_TRANSFORM_VERTEX = """
+      #version 330 core
+      layout (location = 0) in vec4 vertex;
+      layout (location = 1) in vec4 in_colour;
+
+      uniform mat4 projection_matrix;
+      layout (std140) uniform transforms {
+          mat4 transform[%s];
+      };
+
+      smooth out vec4 colour;
+
+      void main() {
+          // the w component holds the index of the vertex's transform
+          gl_Position = projection_matrix
+              * (transform[int(vertex.w)] * vec4(vertex.xyz, 1.0));
+          colour = in_colour;
+      }
+      """.formatted(TRANSFORM_BLOCK_SIZE);
+
+  private final boolean gpuTransform;
+
+  /**
+   * Builds a program that expects vertex positions to be already transformed
+   */
   public FlatColourProgram() {
+    this(false);
+  }
+
+  /**
+   * @param gpuTransform <code>true</code> to have vertex positions transformed in the shader. The
+   *                     position attribute's <code>w</code> component is then the index into the
+   *                     {@link #transforms} block of the matrix to apply.
+   */
+  public FlatColourProgram(boolean gpuTransform) {
     super(
-        new VertexShader("""
-            #version 330 core
-            layout (location = 0) in vec4 vertex;
-            layout (location = 1) in vec4 in_colour;
-            
-            uniform mat4 projection_matrix;
-            
-            smooth out vec4 colour;
-            
-            void main() {
-                gl_Position = projection_matrix * vertex;
-                colour = in_colour;
-            }
-            """),
+        new VertexShader(gpuTransform ? GPU_TRANSFORM_VERTEX : CPU_TRANSFORM_VERTEX),
         new FragmentShader("""
             #version 330 core
             smooth in vec4 colour;
-            
+
             out vec4 frag_colour;
-            
+
             void main() {
                 frag_colour = colour;
             }
             """));
+    this.gpuTransform = gpuTransform;
 
-    uniforms(projection);
+    if (gpuTransform) {
+      uniforms(projection, transforms);
+    } else {
+      uniforms(projection);
+    }
   }
 
-  @Override
-  public FlatColourProgram use() {
-    super.use();
-    glEnableVertexAttribArray(VERTEX_ARRAY_ATTRIBUTE_INDEX);
-    glEnableVertexAttribArray(COLOUR_ARRAY_ATTRIBUTE_INDEX);
-    return this;
+  /**
+   * @return <code>true</code> if vertex positions are transformed in the shader
+   */
+  public boolean gpuTransform() {
+    return gpuTransform;
   }
-
 }
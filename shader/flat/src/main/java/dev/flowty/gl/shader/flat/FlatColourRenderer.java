@@ -1,38 +1,30 @@
 package dev.flowty.gl.shader.flat;
 
 import static org.lwjgl.opengl.GL11.GL_UNSIGNED_BYTE;
-import static org.lwjgl.opengl.GL15.GL_ARRAY_BUFFER;
-import static org.lwjgl.opengl.GL15.GL_DYNAMIC_DRAW;
-import static org.lwjgl.opengl.GL15.glBindBuffer;
-import static org.lwjgl.opengl.GL15.glBufferData;
-import static org.lwjgl.opengl.GL15.glGenBuffers;
 import static org.lwjgl.opengl.GL20.glVertexAttribPointer;
 
 import dev.flowty.gl.shape.Shape;
-import java.nio.IntBuffer;
-import org.lwjgl.BufferUtils;
+import java.nio.ByteBuffer;
 
 /**
  * Draws geometry coloured by bytes-packed-into-an-int RGBA colours
  */
 public class FlatColourRenderer extends AbstractFlatColourRenderer<FlatColourRenderer> {
 
-  private IntBuffer colours;
-  private int colourBufferHandle = -1;
-
   /**
    * @param stackDepth The size of the matrix stack
    */
   public FlatColourRenderer(int stackDepth) {
-    super(stackDepth);
-    colours = BufferUtils.createIntBuffer(DEFAULT_VERTEX_COUNT);
+    this(stackDepth, false);
   }
 
-  private int colourBufferHandle() {
-    if (colourBufferHandle == -1) {
-      colourBufferHandle = glGenBuffers();
-    }
-    return colourBufferHandle;
+  /**
+   * @param stackDepth   The size of the matrix stack
+   * @param gpuTransform <code>true</code> to apply transforms in the vertex shader rather than on
+   *                     the CPU
+   */
+  public FlatColourRenderer(int stackDepth, boolean gpuTransform) {
+    super(stackDepth, gpuTransform, Integer.BYTES);
   }
 
   /**
@@ -42,8 +34,16 @@ public class FlatColourRenderer extends AbstractFlatColourRenderer<FlatColourRen
    * @return <code>this</code>
    */
   public FlatColourRenderer draw(ColouredShape cs) {
-    addGeometry(cs);
-    colours.put(cs.colours);
+    int offset = addGeometry(cs);
+    if (offset < 0) {
+      // culled
+      return this;
+    }
+    ByteBuffer data = vertexData();
+    for (int colour : cs.colours) {
+      data.putInt(offset, colour);
+      offset += stride();
+    }
     return this;
   }
 
@@ -55,33 +55,22 @@ public class FlatColourRenderer extends AbstractFlatColourRenderer<FlatColourRen
    * @return <code>this</code>
    */
   public FlatColourRenderer draw(Shape s, int colour) {
-    addGeometry(s);
+    int offset = addGeometry(s);
+    if (offset < 0) {
+      // culled
+      return this;
+    }
+    ByteBuffer data = vertexData();
     for (int i = 0; i < s.vertices(); i++) {
-      colours.put(colour);
+      data.putInt(offset, colour);
+      offset += stride();
     }
     return this;
   }
 
   @Override
-  protected void growColours() {
-    IntBuffer grownColours = BufferUtils.createIntBuffer(colours.capacity() * 2);
-    colours.flip();
-    grownColours.put(colours);
-    colours = grownColours;
-  }
-
-  @Override
-  protected void bindColours() {
-    colours.flip();
-    glBindBuffer(GL_ARRAY_BUFFER, colourBufferHandle());
-    glBufferData(GL_ARRAY_BUFFER, colours, GL_DYNAMIC_DRAW);
+  protected void colourPointer(int stride, long offset) {
     glVertexAttribPointer(FlatColourProgram.COLOUR_ARRAY_ATTRIBUTE_INDEX,
-        4, GL_UNSIGNED_BYTE, true, 0, 0);
+        4, GL_UNSIGNED_BYTE, true, stride, offset);
   }
-
-  @Override
-  protected void clearColours() {
-    colours.clear();
-  }
-
 }
@@ -0,0 +1,124 @@
+package dev.flowty.gl.shader.flat;
+
+import static org.lwjgl.opengl.GL11.GL_FLOAT;
+import static org.lwjgl.opengl.GL11.GL_UNSIGNED_BYTE;
+import static org.lwjgl.opengl.GL20.glEnableVertexAttribArray;
+import static org.lwjgl.opengl.GL20.glVertexAttribPointer;
+
+import dev.flowty.gl.shape.Shape;
+import java.nio.ByteBuffer;
+import java.util.function.IntUnaryOperator;
+import org.joml.Matrix3x2f;
+
+/**
+ * Draws planar geometry coloured by bytes-packed-into-an-int RGBA colours. Vertex positions are
+ * batched as x,y pairs - the z coordinates of shapes are ignored, so overlapping geometry is
+ * ordered purely by the order in which it is drawn.
+ * <p>
+ * This uses the same {@link FlatColourProgram} as {@link FlatColourRenderer}: the shader's missing
+ * <code>z</code> and <code>w</code> position components default to <code>0</code> and
+ * <code>1</code>.
+ * </p>
+ */
+public class FlatColourRenderer2D extends Renderer2D<FlatColourRenderer2D, FlatColourProgram> {
+
+  /**
+   * The number of vertices that can be batched immediately after construction
+   */
+  private static final int DEFAULT_VERTEX_COUNT = 100;
+
+  /**
+   * The number of bytes in each vertex: x,y position and packed colour
+   */
+  private static final int STRIDE = 2 * Float.BYTES + Integer.BYTES;
+
+  private final TriangleBatch batch = new TriangleBatch(STRIDE, DEFAULT_VERTEX_COUNT, () -> {
+    glEnableVertexAttribArray(FlatColourProgram.VERTEX_ARRAY_ATTRIBUTE_INDEX);
+    glVertexAttribPointer(FlatColourProgram.VERTEX_ARRAY_ATTRIBUTE_INDEX,
+        2, GL_FLOAT, false, STRIDE, 0);
+    glEnableVertexAttribArray(FlatColourProgram.COLOUR_ARRAY_ATTRIBUTE_INDEX);
+    glVertexAttribPointer(FlatColourProgram.COLOUR_ARRAY_ATTRIBUTE_INDEX,
+        4, GL_UNSIGNED_BYTE, true, STRIDE, 2 * Float.BYTES);
+  });
+
+  /**
+   * @param stackDepth The size of the matrix stack
+   */
+  public FlatColourRenderer2D(int stackDepth) {
+    super(new FlatColourProgram(), stackDepth);
+  }
+
+  /**
+   * Adds geometry to be rendered
+   *
+   * @param cs The shape that we want to be drawn
+   * @return <code>this</code>
+   */
+  public FlatColourRenderer2D draw(ColouredShape cs) {
+    return add(cs, i -> cs.colours[i]);
+  }
+
+  /**
+   * Adds geometry to be rendered
+   *
+   * @param s      The shape that we want to be drawn
+   * @param colour The colour for all vertices
+   * @return <code>this</code>
+   */
+  public FlatColourRenderer2D draw(Shape s, int colour) {
+    return add(s, i -> colour);
+  }
+
+  private FlatColourRenderer2D add(Shape s, IntUnaryOperator colour) {
+    if (!batch.accepts(s.vertices())) {
+      // too many vertices for the index width, draw what we've got and start again
+      render();
+    }
+    ByteBuffer verts = batch.add(s.triangles, s.vertices());
+    Matrix3x2f m = transform();
+    if (isIdentity(m)) {
+      for (int i = 0; i < s.vertices(); i++) {
+        verts.putFloat(s.vertices[3 * i + 0]);
+        verts.putFloat(s.vertices[3 * i + 1]);
+        verts.putInt(colour.applyAsInt(i));
+      }
+    } else {
+      for (int i = 0; i < s.vertices(); i++) {
+        float x = s.vertices[3 * i + 0];
+        float y = s.vertices[3 * i + 1];
+        verts.putFloat(m.m00() * x + m.m10() * y + m.m20());
+        verts.putFloat(m.m01() * x + m.m11() * y + m.m21());
+        verts.putInt(colour.applyAsInt(i));
+      }
+    }
+    return this;
+  }
+
+  private static boolean isIdentity(Matrix3x2f m) {
+    return m.m00() == 1 && m.m01() == 0
+        && m.m10() == 0 && m.m11() == 1
+        && m.m20() == 0 && m.m21() == 0;
+  }
+
+  /**
+   * Renders batched geometry
+   *
+   * @return <code>this</code>
+   */
+  public FlatColourRenderer2D render() {
+    program().use();
+    batch.draw();
+    return this;
+  }
+
+  /**
+   * Destroys the GL state used by this renderer
+   *
+   * @return <code>this</code>
+   */
+  public FlatColourRenderer2D destroy() {
+    program().delete();
+    batch.destroy();
+    return this;
+  }
+}
@@ -0,0 +1,189 @@
+package dev.flowty.gl.shader.flat;
+
+import static org.lwjgl.opengl.GL11.GL_FLOAT;
+import static org.lwjgl.opengl.GL11.GL_UNSIGNED_BYTE;
+import static org.lwjgl.opengl.GL15.GL_ARRAY_BUFFER;
+import static org.lwjgl.opengl.GL20.glDisableVertexAttribArray;
+import static org.lwjgl.opengl.GL20.glEnableVertexAttribArray;
+import static org.lwjgl.opengl.GL20.glVertexAttribPointer;
+import static org.lwjgl.opengl.GL33.glVertexAttribDivisor;
+
+import dev.flowty.gl.shader.GLState;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import org.joml.Matrix4f;
+
+/**
+ * Draws many copies of a {@link StaticMesh}, each with its own transform and colour. The mesh
+ * geometry is uploaded once, so the only data that streams to the GPU each frame is a 68-byte
+ * record per instance: a 4x4 matrix and a packed RGBA colour.
+ * <p>
+ * As with the batching renderers, draws are accumulated and then issued on {@link #render()}
+ * </p>
+ * <p>
+ * The per-instance attributes are set on the mesh's own vertex array for the duration of each
+ * draw, and disabled afterwards, so the same mesh can still be drawn by a {@link MeshRenderer}.
+ * </p>
+ */
+public class InstancedMeshRenderer extends Renderer<InstancedMeshRenderer, MeshProgram> {
+
+  /**
+   * The number of bytes in each instance transform
+   */
+  private static final int TRANSFORM_BYTES = 16 * Float.BYTES;
+
+  /**
+   * The number of instances that can be batched immediately after construction
+   */
+  private static final int DEFAULT_INSTANCE_COUNT = 256;
+
+  private StreamBuffer instances;
+
+  /**
+   * The batched draws. These are reused from frame to frame, with only the first
+   * {@link #drawCount} being live.
+   */
+  private final List<Draw> draws = new ArrayList<>();
+  private int drawCount = 0;
+
+  /**
+   * @param stackDepth The size of the matrix stack
+   */
+  public InstancedMeshRenderer(int stackDepth) {
+    super(new MeshProgram(true), stackDepth);
+  }
+
+  private StreamBuffer instances() {
+    if (instances == null) {
+      instances = StreamBuffer.create(GL_ARRAY_BUFFER,
+          (TRANSFORM_BYTES + Integer.BYTES) * DEFAULT_INSTANCE_COUNT);
+    }
+    return instances;
+  }
+
+  /**
+   * Adds instances to be rendered. Each instance is transformed by its own matrix and then by the
+   * current transform.
+   *
+   * @param mesh       The mesh to draw
+   * @param transforms Per-instance transform matrices, 16 column-major values each. The remaining
+   *                   values are consumed.
+   * @param colours    Per-instance packed RGBA colours, which multiply the mesh's vertex colours.
+   *                   The remaining values are consumed.
+   * @return <code>this</code>
+   */
+  public InstancedMeshRenderer draw(StaticMesh mesh, FloatBuffer transforms, IntBuffer colours) {
+    int count = colours.remaining();
+    if (transforms.remaining() != 16 * count) {
+      throw new IllegalArgumentException(String.format(
+          "%s transform values supplied for %s instances",
+          transforms.remaining(), count));
+    }
+    if (count == 0) {
+      return this;
+    }
+
+    ByteBuffer data = instances().reserve(count * (TRANSFORM_BYTES + Integer.BYTES));
+    int offset = data.position();
+
+    // transforms first, then colours, each copied in bulk
+    data.asFloatBuffer().put(transforms);
+    data.position(offset + count * TRANSFORM_BYTES);
+    data.asIntBuffer().put(colours);
+    data.position(offset + count * (TRANSFORM_BYTES + Integer.BYTES));
+
+    if (drawCount == draws.size()) {
+      draws.add(new Draw());
+    }
+    draws.get(drawCount++).set(mesh, offset, count, transform());
+    return this;
+  }
+
+  /**
+   * Renders batched instances
+   *
+   * @return <code>this</code>
+   */
+  public InstancedMeshRenderer render() {
+    if (drawCount == 0) {
+      return this;
+    }
+
+    long base = instances().upload();
+    for (int i = 0; i < drawCount; i++) {
+      Draw draw = draws.get(i);
+      program().model.update(m -> m.set(draw.model));
+      program().use();
+
+      // resolving the vertex array might upload the mesh, which disturbs the array buffer binding
+      GLState.bindVertexArray(draw.mesh.vertexArrayHandle());
+      GLState.bindBuffer(GL_ARRAY_BUFFER, instances().handle());
+      // the instance data lives at a different offset for each draw, so the pointers have to be
+      // updated every time
+      long transformOffset = base + draw.offset;
+      for (int column = 0; column < 4; column++) {
+        int index = MeshProgram.INSTANCE_TRANSFORM_ATTRIBUTE_INDEX + column;
+        glEnableVertexAttribArray(index);
+        glVertexAttribPointer(index, 4, GL_FLOAT, false, TRANSFORM_BYTES,
+            transformOffset + column * 4 * Float.BYTES);
+        glVertexAttribDivisor(index, 1);
+      }
+      glEnableVertexAttribArray(MeshProgram.INSTANCE_COLOUR_ARRAY_ATTRIBUTE_INDEX);
+      glVertexAttribPointer(MeshProgram.INSTANCE_COLOUR_ARRAY_ATTRIBUTE_INDEX,
+          4, GL_UNSIGNED_BYTE, true, Integer.BYTES,
+          transformOffset + (long) draw.count * TRANSFORM_BYTES);
+      glVertexAttribDivisor(MeshProgram.INSTANCE_COLOUR_ARRAY_ATTRIBUTE_INDEX, 1);
+
+      draw.mesh.drawInstanced(draw.count);
+
+      // the vertex array belongs to the mesh, so leave it as we found it for MeshRenderer
+      for (int index = MeshProgram.INSTANCE_TRANSFORM_ATTRIBUTE_INDEX;
+          index <= MeshProgram.INSTANCE_COLOUR_ARRAY_ATTRIBUTE_INDEX; index++) {
+        glDisableVertexAttribArray(index);
+      }
+    }
+    GLState.bindVertexArray(0);
+
+    instances().finish();
+    for (int i = 0; i < drawCount; i++) {
+      draws.get(i).mesh = null;
+    }
+    drawCount = 0;
+    return this;
+  }
+
+  /**
+   * Destroys the GL state used by this renderer. Meshes must be destroyed separately.
+   *
+   * @return <code>this</code>
+   */
+  public InstancedMeshRenderer destroy() {
+    program().delete();
+    if (instances != null) {
+      instances.destroy();
+      instances = null;
+    }
+    return this;
+  }
+
+  /**
+   * A batched instanced draw
+   */
+  private static class Draw {
+
+    private StaticMesh mesh;
+    private int offset;
+    private int count;
+    private final Matrix4f model = new Matrix4f();
+
+    void set(StaticMesh mesh, int offset, int count, Matrix4f model) {
+      this.mesh = mesh;
+      this.offset = offset;
+      this.count = count;
+      this.model.set(model);
+    }
+  }
+}
@@ -0,0 +1,115 @@
+package dev.flowty.gl.shader.flat;
+
+import dev.flowty.gl.shader.FragmentShader;
+import dev.flowty.gl.shader.Program;
+import dev.flowty.gl.shader.VertexShader;
+import dev.flowty.gl.shader.uniform.UniformMatrix4f;
+
+/**
+ * A program that expands polylines into triangles. Each instance is one line segment, drawn as a
+ * four-vertex triangle strip. The instance attributes are four consecutive points of the polyline:
+ * the segment's two ends and their neighbours, which set the angle of the joins.
+ * <p>
+ * Each point is an <code>x,y</code> position and a width, followed by a packed colour. Points with
+ * negative widths only provide join angles: segments that start or end at them are not drawn.
+ * </p>
+ */
+public class LineProgram extends Program {
+
+  /**
+   * The projection matrix
+   */
+  public final UniformMatrix4f projection = new UniformMatrix4f(this, "projection_matrix");
+
+  /**
+   * The model matrix, applied to line positions before the projection
+   */
+  public final UniformMatrix4f model = new UniformMatrix4f(this, "model_matrix");
+
+  /**
+   * The vertex array attribute index for the point before the segment
+   */
+  public static final int PREVIOUS_ATTRIBUTE_INDEX = 0;
+  /**
+   * The vertex array attribute index for the start of the segment
+   */
+  public static final int START_ATTRIBUTE_INDEX = 1;
+  /**
+   * The vertex array attribute index for the end of the segment
+   */
+  public static final int END_ATTRIBUTE_INDEX = 2;
+  /**
+   * The vertex array attribute index for the point after the segment
+   */
+  public static final int NEXT_ATTRIBUTE_INDEX = 3;
+  /**
+   * The vertex array attribute index for the colour at the start of the segment
+   */
+  public static final int START_COLOUR_ATTRIBUTE_INDEX = 4;
+  /**
+   * The vertex array attribute index for the colour at the end of the segment
+   */
+  public static final int END_COLOUR_ATTRIBUTE_INDEX = 5;
+
+  /***/
+  public LineProgram() {
+    super(
+        new VertexShader("""
+            #version 330 core
+            layout (location = 0) in vec3 previous;
+            layout (location = 1) in vec3 start;
+            layout (location = 2) in vec3 end;
+            layout (location = 3) in vec3 next;
+            layout (location = 4) in vec4 start_colour;
+            layout (location = 5) in vec4 end_colour;
+
+            uniform mat4 projection_matrix;
+            uniform mat4 model_matrix;
+
+            smooth out vec4 colour;
+
+            vec2 normal(vec2 from, vec2 to) {
+                vec2 d = normalize(to - from);
+                return vec2(d.y, -d.x);
+            }
+
+            void main() {
+                if (start.z < 0.0 || end.z < 0.0) {
+                    // not a real segment, collapse it to nothing
+                    gl_Position = vec4(0.0, 0.0, 0.0, 1.0);
+                    colour = vec4(0.0);
+                    return;
+                }
+
+                // vertices 0 and 1 are at the start, 2 and 3 at the end
+                bool atEnd = gl_VertexID >= 2;
+                vec3 point = atEnd ? end : start;
+                vec2 segment = normal(start.xy, end.xy);
+                vec2 join = segment;
+                // a neighbour that duplicates the point means that the line ends here
+                if (atEnd && next.xy != end.xy) {
+                    join = normal(end.xy, next.xy);
+                } else if (!atEnd && previous.xy != start.xy) {
+                    join = normal(previous.xy, start.xy);
+                }
+                vec2 offset = normalize(segment + join) * point.z * 0.5;
+                float side = (gl_VertexID & 1) == 0 ? 1.0 : -1.0;
+
+                gl_Position = projection_matrix * model_matrix
+                    * vec4(point.xy + side * offset, 0.0, 1.0);
+                colour = atEnd ? end_colour : start_colour;
+            }
+            """),
+        new FragmentShader("""
+            #version 330 core
+            smooth in vec4 colour;
+
+            out vec4 frag_colour;
+
+            void main() {
+                frag_colour = colour;
+            }
+            """));
+    uniforms(projection, model);
+  }
+}
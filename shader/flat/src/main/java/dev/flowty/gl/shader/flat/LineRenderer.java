@@ -0,0 +1,236 @@
+package dev.flowty.gl.shader.flat;
+
+import static org.lwjgl.opengl.GL11.GL_FLOAT;
+import static org.lwjgl.opengl.GL11.GL_TRIANGLE_STRIP;
+import static org.lwjgl.opengl.GL11.GL_UNSIGNED_BYTE;
+import static org.lwjgl.opengl.GL15.GL_ARRAY_BUFFER;
+import static org.lwjgl.opengl.GL20.glEnableVertexAttribArray;
+import static org.lwjgl.opengl.GL20.glVertexAttribPointer;
+import static org.lwjgl.opengl.GL30.glGenVertexArrays;
+import static org.lwjgl.opengl.GL31.glDrawArraysInstanced;
+import static org.lwjgl.opengl.GL33.glVertexAttribDivisor;
+
+import dev.flowty.gl.shader.GLState;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import org.joml.Matrix4f;
+
+/**
+ * Draws polylines, expanding them into triangles in the vertex shader. The geometry matches that
+ * produced by <code>Linear.strip()</code> and <code>Linear.loop()</code>, but the only data that
+ * streams to the GPU is a 16-byte record per point: position, width and colour.
+ * <p>
+ * Lines drawn under the same transform are drawn together in a single call, so many short trails
+ * cost little more than one long one.
+ * </p>
+ */
+public class LineRenderer extends Renderer<LineRenderer, LineProgram> {
+
+  /**
+   * The number of bytes in each point: x,y position, width and packed colour
+   */
+  private static final int STRIDE = 3 * Float.BYTES + Integer.BYTES;
+
+  /**
+   * The number of points that can be batched immediately after construction
+   */
+  private static final int DEFAULT_POINT_COUNT = 256;
+
+  private StreamBuffer points;
+  private int vertexArrayHandle = -1;
+
+  /**
+   * The batched draws. These are reused from frame to frame, with only the first
+   * {@link #drawCount} being live.
+   */
+  private final List<Draw> draws = new ArrayList<>();
+  private int drawCount = 0;
+
+  /**
+   * @param stackDepth The size of the matrix stack
+   */
+  public LineRenderer(int stackDepth) {
+    super(new LineProgram(), stackDepth);
+  }
+
+  private StreamBuffer points() {
+    if (points == null) {
+      points = StreamBuffer.create(GL_ARRAY_BUFFER, STRIDE * DEFAULT_POINT_COUNT);
+    }
+    return points;
+  }
+
+  private int vertexArrayHandle() {
+    if (vertexArrayHandle == -1) {
+      vertexArrayHandle = glGenVertexArrays();
+    }
+    return vertexArrayHandle;
+  }
+
+  /**
+   * Adds a line to be rendered
+   *
+   * @param width  Line width
+   * @param colour The packed RGBA colour
+   * @param points The <code>x,y</code> pairs of the line segments
+   * @return <code>this</code>
+   */
+  public LineRenderer strip(float width, int colour, float... points) {
+    return partialStrip(width, colour, points.length / 2, points);
+  }
+
+  /**
+   * Adds a line to be rendered
+   *
+   * @param width  Line width
+   * @param colour The packed RGBA colour
+   * @param count  The number of points to read from the array
+   * @param points The <code>x,y</code> pairs of the line segments
+   * @return <code>this</code>
+   */
+  public LineRenderer partialStrip(float width, int colour, int count, float... points) {
+    if (count < 2) {
+      return this;
+    }
+    // the ends are duplicated so that the shader can see that there's no join
+    ByteBuffer data = reserve(count + 2);
+    point(data, points[0], points[1], -1, colour);
+    for (int i = 0; i < count; i++) {
+      point(data, points[2 * i], points[2 * i + 1], width, colour);
+    }
+    point(data, points[2 * count - 2], points[2 * count - 1], -1, colour);
+    return this;
+  }
+
+  /**
+   * Adds a closed loop to be rendered
+   *
+   * @param width  Line width
+   * @param colour The packed RGBA colour
+   * @param points The <code>x,y</code> pairs of the loop segments
+   * @return <code>this</code>
+   */
+  public LineRenderer loop(float width, int colour, float... points) {
+    int count = points.length / 2;
+    if (count < 2) {
+      return this;
+    }
+    // the last point is repeated at the start and the first two at the end, so that every join
+    // can see its neighbours
+    ByteBuffer data = reserve(count + 3);
+    point(data, points[2 * count - 2], points[2 * count - 1], -1, colour);
+    for (int i = 0; i < count; i++) {
+      point(data, points[2 * i], points[2 * i + 1], width, colour);
+    }
+    point(data, points[0], points[1], width, colour);
+    point(data, points[2], points[3], -1, colour);
+    return this;
+  }
+
+  /**
+   * Makes space for a line's points
+   *
+   * @param count The number of points in the line
+   * @return The buffer to write the points into
+   */
+  private ByteBuffer reserve(int count) {
+    ByteBuffer data = points().reserve(count * STRIDE);
+    int first = data.position() / STRIDE;
+    Matrix4f transform = transform();
+    if (drawCount > 0 && draws.get(drawCount - 1).model.equals(transform, 0)) {
+      // the boundary between the lines collapses in the shader, so they can be drawn together
+      draws.get(drawCount - 1).count += count;
+    } else {
+      if (drawCount == draws.size()) {
+        draws.add(new Draw());
+      }
+      draws.get(drawCount++).set(first, count, transform);
+    }
+    return data;
+  }
+
+  private static void point(ByteBuffer data, float x, float y, float width, int colour) {
+    data.putFloat(x);
+    data.putFloat(y);
+    data.putFloat(width);
+    data.putInt(colour);
+  }
+
+  /**
+   * Renders batched lines
+   *
+   * @return <code>this</code>
+   */
+  public LineRenderer render() {
+    if (drawCount == 0) {
+      return this;
+    }
+
+    long base = points().upload();
+    GLState.bindVertexArray(vertexArrayHandle());
+    for (int i = 0; i < drawCount; i++) {
+      Draw draw = draws.get(i);
+      program().model.update(m -> m.set(draw.model));
+      program().use();
+
+      // each instance reads four consecutive points, so the same data is bound four times at
+      // successive offsets
+      long offset = base + (long) draw.first * STRIDE;
+      for (int p = 0; p < 4; p++) {
+        int index = LineProgram.PREVIOUS_ATTRIBUTE_INDEX + p;
+        glEnableVertexAttribArray(index);
+        glVertexAttribPointer(index, 3, GL_FLOAT, false, STRIDE, offset + (long) p * STRIDE);
+        glVertexAttribDivisor(index, 1);
+      }
+      for (int p = 0; p < 2; p++) {
+        int index = LineProgram.START_COLOUR_ATTRIBUTE_INDEX + p;
+        glEnableVertexAttribArray(index);
+        glVertexAttribPointer(index, 4, GL_UNSIGNED_BYTE, true, STRIDE,
+            offset + (long) (p + 1) * STRIDE + 3 * Float.BYTES);
+        glVertexAttribDivisor(index, 1);
+      }
+
+      glDrawArraysInstanced(GL_TRIANGLE_STRIP, 0, 4, draw.count - 3);
+    }
+    GLState.bindVertexArray(0);
+
+    points().finish();
+    drawCount = 0;
+    return this;
+  }
+
+  /**
+   * Destroys the GL state used by this renderer
+   *
+   * @return <code>this</code>
+   */
+  public LineRenderer destroy() {
+    program().delete();
+    if (points != null) {
+      points.destroy();
+      points = null;
+    }
+    if (vertexArrayHandle != -1) {
+      GLState.deleteVertexArray(vertexArrayHandle);
+      vertexArrayHandle = -1;
+    }
+    return this;
+  }
+
+  /**
+   * A batched run of lines under the same transform
+   */
+  private static class Draw {
+
+    private int first;
+    private int count;
+    private final Matrix4f model = new Matrix4f();
+
+    void set(int first, int count, Matrix4f model) {
+      this.first = first;
+      this.count = count;
+      this.model.set(model);
+    }
+  }
+}
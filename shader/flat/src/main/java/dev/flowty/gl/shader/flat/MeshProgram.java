@@ -0,0 +1,113 @@
+package dev.flowty.gl.shader.flat;
+
+import dev.flowty.gl.shader.FragmentShader;
+import dev.flowty.gl.shader.Program;
+import dev.flowty.gl.shader.VertexShader;
+import dev.flowty.gl.shader.uniform.Uniform4f;
+import dev.flowty.gl.shader.uniform.UniformMatrix4f;
+
+/**
+ * A program that draws per-vertex coloured {@link StaticMesh}es under a model transform and tint.
+ * The vertex attribute layout matches that of {@link FlatColourProgram}.
+ */
+public class MeshProgram extends Program {
+
+  /**
+   * The projection matrix
+   */
+  public final UniformMatrix4f projection = new UniformMatrix4f(this, "projection_matrix");
+
+  /**
+   * The model matrix, applied to vertex positions before the projection
+   */
+  public final UniformMatrix4f model = new UniformMatrix4f(this, "model_matrix");
+
+  /**
+   * The colour that vertex colours are multiplied by
+   */
+  public final Uniform4f tint = new Uniform4f(this, "tint");
+
+  /**
+   * The first of the four vertex array attribute indices for per-instance transform data, one for
+   * each column of the matrix
+   */
+  public static final int INSTANCE_TRANSFORM_ATTRIBUTE_INDEX = 2;
+  /**
+   * The vertex array attribute index for per-instance colour data
+   */
+  public static final int INSTANCE_COLOUR_ARRAY_ATTRIBUTE_INDEX = 6;
+
+  private static final String VERTEX = """
+      #version 330 core
+      layout (location = 0) in vec4 vertex;
+      layout (location = 1) in vec4 in_colour;
+
+      uniform mat4 projection_matrix;
+      uniform mat4 model_matrix;
+      uniform vec4 tint;
+
+      smooth out vec4 colour;
+
+      void main() {
+          gl_Position = projection_matrix * model_matrix * vertex;
+          colour = in_colour * tint;
+      }
+      """;
+
+  private static final String INSTANCED_VERTEX = """
+      #version 330 core
+      layout (location = 0) in vec4 vertex;
+      layout (location = 1) in vec4 in_colour;
+      layout (location = %s) in mat4 instance_transform;
+      layout (location = %s) in vec4 instance_colour;
+
+      uniform mat4 projection_matrix;
+      uniform mat4 model_matrix;
+      uniform vec4 tint;
+
+      smooth out vec4 colour;
+
+      void main() {
+          gl_Position = projection_matrix * model_matrix * instance_transform * vertex;
+          colour = in_colour * instance_colour * tint;
+      }
+      """.formatted(INSTANCE_TRANSFORM_ATTRIBUTE_INDEX, INSTANCE_COLOUR_ARRAY_ATTRIBUTE_INDEX);
+
+  private final boolean instanced;
+
+  /**
+   * Builds a program that draws a single copy of the mesh
+   */
+  public MeshProgram() {
+    this(false);
+  }
+
+  /**
+   * @param instanced <code>true</code> to draw many copies of the mesh in one call, each with a
+   *                  transform and colour taken from per-instance vertex attributes
+   */
+  public MeshProgram(boolean instanced) {
+    super(
+        new VertexShader(instanced ? INSTANCED_VERTEX : VERTEX),
+        new FragmentShader("""
+            #version 330 core
+            smooth in vec4 colour;
+
+            out vec4 frag_colour;
+
+            void main() {
+                frag_colour = colour;
+            }
+            """));
+    this.instanced = instanced;
+    tint.value.set(1);
+    uniforms(projection, model, tint);
+  }
+
+  /**
+   * @return <code>true</code> if this program draws instances
+   */
+  public boolean instanced() {
+    return instanced;
+  }
+}
@@ -0,0 +1,72 @@
+package dev.flowty.gl.shader.flat;
+
+import java.nio.ByteOrder;
+
+/**
+ * Draws {@link StaticMesh}es. Unlike the batching renderers, each mesh is drawn immediately under
+ * the current transform: the only per-draw data is the model matrix and tint.
+ */
+public class MeshRenderer extends Renderer<MeshRenderer, MeshProgram> {
+
+  private static final boolean BIG_ENDIAN = ByteOrder.nativeOrder() == ByteOrder.BIG_ENDIAN;
+
+  /**
+   * The packed RGBA value of opaque white, whatever the byte order
+   */
+  private static final int WHITE = 0xFFFFFFFF;
+
+  /**
+   * @param stackDepth The size of the matrix stack
+   */
+  public MeshRenderer(int stackDepth) {
+    super(new MeshProgram(), stackDepth);
+  }
+
+  /**
+   * Draws a mesh with its own colours
+   *
+   * @param mesh The mesh to draw
+   * @return <code>this</code>
+   */
+  public MeshRenderer draw(StaticMesh mesh) {
+    return draw(mesh, WHITE);
+  }
+
+  /**
+   * Draws a mesh
+   *
+   * @param mesh The mesh to draw
+   * @param tint The packed RGBA colour that the mesh's vertex colours are multiplied by
+   * @return <code>this</code>
+   */
+  public MeshRenderer draw(StaticMesh mesh, int tint) {
+    program().model.update(m -> m.set(transform()));
+    program().tint.value.set(
+        channel(tint, 0), channel(tint, 1), channel(tint, 2), channel(tint, 3));
+    program().use();
+    mesh.draw();
+    return this;
+  }
+
+  /**
+   * Destroys the GL state used by this renderer. Meshes must be destroyed separately.
+   *
+   * @return <code>this</code>
+   */
+  public MeshRenderer destroy() {
+    program().delete();
+    return this;
+  }
+
+  /**
+   * Extracts a colour component
+   *
+   * @param colour A natively-ordered packed RGBA colour
+   * @param index  The index of the component in RGBA order
+   * @return The component value in the range 0 to 1
+   */
+  private static float channel(int colour, int index) {
+    int shift = BIG_ENDIAN ? 24 - 8 * index : 8 * index;
+    return ((colour >>> shift) & 0xFF) / 255f;
+  }
+}
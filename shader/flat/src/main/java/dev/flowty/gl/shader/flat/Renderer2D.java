@@ -0,0 +1,86 @@
+package dev.flowty.gl.shader.flat;
+
+import dev.flowty.gl.shader.Program;
+import java.util.function.Consumer;
+import org.joml.Matrix3x2f;
+import org.joml.Matrix3x2fStack;
+
+/**
+ * Draws geometry in the plane. This is the 2D counterpart of {@link Renderer}: the transform stack
+ * holds 3x2 affine matrices rather than full 4x4 projective ones.
+ *
+ * @param <S> self type
+ * @param <T> program type
+ */
+public class Renderer2D<S extends Renderer2D<S, T>, T extends Program> {
+
+  private final T program;
+
+  private final Matrix3x2fStack matrixStack;
+
+  /**
+   * @param program          The shader program
+   * @param matrixStackDepth The maximum depth of the matrix stack
+   */
+  public Renderer2D(T program, int matrixStackDepth) {
+    this.program = program;
+    matrixStack = new Matrix3x2fStack(matrixStackDepth);
+  }
+
+  /**
+   * @return the shader program
+   */
+  public T program() {
+    return program;
+  }
+
+  /**
+   * @return The current matrix
+   */
+  public Matrix3x2f transform() {
+    return matrixStack;
+  }
+
+  /**
+   * Performs some rendering under a new transform
+   *
+   * @param transform How to update the current transform
+   * @param action    What to do under that new transform
+   * @return <code>this</code>
+   */
+  public S with(Consumer<Matrix3x2f> transform, Consumer<S> action) {
+    pushMatrix();
+    transform.accept(transform());
+    action.accept(self());
+    popMatrix();
+    return self();
+  }
+
+  /**
+   * @return <code>this</code>
+   */
+  @SuppressWarnings("unchecked")
+  protected S self() {
+    return (S) this;
+  }
+
+  /**
+   * Pushes a matrix onto the stack
+   *
+   * @return {@code this}
+   */
+  public S pushMatrix() {
+    matrixStack.pushMatrix();
+    return self();
+  }
+
+  /**
+   * Pops a matrix from the stack
+   *
+   * @return {@code this}
+   */
+  public S popMatrix() {
+    matrixStack.popMatrix();
+    return self();
+  }
+}
@@ -0,0 +1,91 @@
+package dev.flowty.gl.shader.flat;
+
+import dev.flowty.gl.shader.FragmentShader;
+import dev.flowty.gl.shader.Program;
+import dev.flowty.gl.shader.VertexShader;
+import dev.flowty.gl.shader.uniform.UniformMatrix4f;
+
+/**
+ * A program that draws circles, rings and rounded rectangles as signed distance fields. Each
+ * primitive is a single quad: the fragment shader finds the distance of each fragment from the
+ * primitive's edge and derives an anti-aliased coverage value from it.
+ */
+public class SdfProgram extends Program {
+
+  /**
+   * The projection matrix
+   */
+  public final UniformMatrix4f projection = new UniformMatrix4f(this, "projection_matrix");
+
+  /**
+   * The vertex array attribute index for vertex position data
+   */
+  public static final int VERTEX_ARRAY_ATTRIBUTE_INDEX = 0;
+  /**
+   * The vertex array attribute index for vertex colour data
+   */
+  public static final int COLOUR_ARRAY_ATTRIBUTE_INDEX = 1;
+  /**
+   * The vertex array attribute index for the vertex position relative to the centre of the
+   * primitive, in the primitive's own coordinate system
+   */
+  public static final int LOCAL_ARRAY_ATTRIBUTE_INDEX = 2;
+  /**
+   * The vertex array attribute index for the primitive's dimensions: half-width, half-height,
+   * corner radius and border width. A border width of zero gives a filled primitive.
+   */
+  public static final int SHAPE_ARRAY_ATTRIBUTE_INDEX = 3;
+
+  /***/
+  public SdfProgram() {
+    super(
+        new VertexShader("""
+            #version 330 core
+            layout (location = 0) in vec4 vertex;
+            layout (location = 1) in vec4 in_colour;
+            layout (location = 2) in vec2 in_local;
+            layout (location = 3) in vec4 in_shape;
+
+            uniform mat4 projection_matrix;
+
+            smooth out vec4 colour;
+            smooth out vec2 local;
+            flat out vec4 shape;
+
+            void main() {
+                gl_Position = projection_matrix * vertex;
+                colour = in_colour;
+                local = in_local;
+                shape = in_shape;
+            }
+            """),
+        new FragmentShader("""
+            #version 330 core
+            smooth in vec4 colour;
+            smooth in vec2 local;
+            flat in vec4 shape;
+
+            out vec4 frag_colour;
+
+            void main() {
+                // distance to the edge of a rounded box
+                float radius = shape.z;
+                vec2 q = abs(local) - shape.xy + radius;
+                float d = length(max(q, 0.0)) + min(max(q.x, q.y), 0.0) - radius;
+                if (shape.w > 0.0) {
+                    // hollow it out to a border inside the edge
+                    d = abs(d + shape.w * 0.5) - shape.w * 0.5;
+                }
+
+                // the rate of change of distance gives us the size of a pixel
+                float pixel = length(vec2(dFdx(d), dFdy(d)));
+                float coverage = clamp(0.5 - d / pixel, 0.0, 1.0);
+                if (coverage <= 0.0) {
+                    discard;
+                }
+                frag_colour = vec4(colour.rgb, colour.a * coverage);
+            }
+            """));
+    uniforms(projection);
+  }
+}
@@ -0,0 +1,200 @@
+package dev.flowty.gl.shader.flat;
+
+import static org.lwjgl.opengl.GL11.GL_FLOAT;
+import static org.lwjgl.opengl.GL11.GL_UNSIGNED_BYTE;
+import static org.lwjgl.opengl.GL20.glEnableVertexAttribArray;
+import static org.lwjgl.opengl.GL20.glVertexAttribPointer;
+
+import java.nio.ByteBuffer;
+import org.joml.Matrix4f;
+
+/**
+ * Draws circles, rings and rounded rectangles with a constant cost of four vertices each,
+ * regardless of their size. Edges are anti-aliased in the fragment shader, so this does not need
+ * multisampling to look smooth.
+ * <p>
+ * Each primitive's quad is enlarged by a {@link #margin(float) margin} so that there's room for
+ * the anti-aliased edge. The margin is in the primitive's coordinate system, so should be adjusted
+ * if the transform is scaled such that one unit no longer covers roughly one pixel.
+ * </p>
+ */
+public class SdfRenderer extends Renderer<SdfRenderer, SdfProgram> {
+
+  /**
+   * The number of vertices that can be batched immediately after construction
+   */
+  private static final int DEFAULT_VERTEX_COUNT = 100;
+
+  /**
+   * The number of bytes in each vertex: x,y,z position, x,y local position, four shape values and
+   * packed colour
+   */
+  private static final int STRIDE = 9 * Float.BYTES + Integer.BYTES;
+
+  /**
+   * Index order:
+   *
+   * <pre>
+   * 1─3
+   * │╲│
+   * 0─2
+   * </pre>
+   */
+  private static final int[] QUAD = {
+      0, 1, 2,
+      1, 3, 2,
+  };
+
+  private final TriangleBatch batch = new TriangleBatch(STRIDE, DEFAULT_VERTEX_COUNT, () -> {
+    glEnableVertexAttribArray(SdfProgram.VERTEX_ARRAY_ATTRIBUTE_INDEX);
+    glVertexAttribPointer(SdfProgram.VERTEX_ARRAY_ATTRIBUTE_INDEX,
+        3, GL_FLOAT, false, STRIDE, 0);
+    glEnableVertexAttribArray(SdfProgram.LOCAL_ARRAY_ATTRIBUTE_INDEX);
+    glVertexAttribPointer(SdfProgram.LOCAL_ARRAY_ATTRIBUTE_INDEX,
+        2, GL_FLOAT, false, STRIDE, 3 * Float.BYTES);
+    glEnableVertexAttribArray(SdfProgram.SHAPE_ARRAY_ATTRIBUTE_INDEX);
+    glVertexAttribPointer(SdfProgram.SHAPE_ARRAY_ATTRIBUTE_INDEX,
+        4, GL_FLOAT, false, STRIDE, 5 * Float.BYTES);
+    glEnableVertexAttribArray(SdfProgram.COLOUR_ARRAY_ATTRIBUTE_INDEX);
+    glVertexAttribPointer(SdfProgram.COLOUR_ARRAY_ATTRIBUTE_INDEX,
+        4, GL_UNSIGNED_BYTE, true, STRIDE, 9 * Float.BYTES);
+  });
+
+  private float margin = 1;
+
+  /**
+   * @param stackDepth The size of the matrix stack
+   */
+  public SdfRenderer(int stackDepth) {
+    super(new SdfProgram(), stackDepth);
+  }
+
+  /**
+   * Sets how far each primitive's quad extends beyond its edge
+   *
+   * @param m The margin, which should be at least one pixel once transformed
+   * @return <code>this</code>
+   */
+  public SdfRenderer margin(float m) {
+    margin = m;
+    return this;
+  }
+
+  /**
+   * Adds a filled circle
+   *
+   * @param x      The x coordinate of the circle centre
+   * @param y      The y coordinate of the circle centre
+   * @param radius The circle radius
+   * @param colour The packed RGBA colour
+   * @return <code>this</code>
+   */
+  public SdfRenderer circle(float x, float y, float radius, int colour) {
+    return add(x, y, radius, radius, radius, 0, colour);
+  }
+
+  /**
+   * Adds a ring, centred on the circumference as with
+   * <code>Circular.border(float, float)</code>
+   *
+   * @param x      The x coordinate of the ring centre
+   * @param y      The y coordinate of the ring centre
+   * @param radius The ring radius
+   * @param width  The ring width
+   * @param colour The packed RGBA colour
+   * @return <code>this</code>
+   */
+  public SdfRenderer ring(float x, float y, float radius, float width, int colour) {
+    float outer = radius + width / 2;
+    return add(x, y, outer, outer, outer, width, colour);
+  }
+
+  /**
+   * Adds a filled rectangle with rounded corners
+   *
+   * @param minx   The rectangle edge closest to negative infinity on the x-axis
+   * @param miny   The rectangle edge closest to negative infinity on the y-axis
+   * @param maxx   The rectangle edge closest to positive infinity on the x-axis
+   * @param maxy   The rectangle edge closest to positive infinity on the y-axis
+   * @param corner The corner radius
+   * @param colour The packed RGBA colour
+   * @return <code>this</code>
+   */
+  public SdfRenderer roundedRect(float minx, float miny, float maxx, float maxy, float corner,
+      int colour) {
+    return add((minx + maxx) / 2, (miny + maxy) / 2,
+        (maxx - minx) / 2, (maxy - miny) / 2, corner, 0, colour);
+  }
+
+  /**
+   * Adds the border of a rectangle with rounded corners, centred on the rectangle edge as with
+   * <code>Rectangular.border(float, float, float, float, float)</code>
+   *
+   * @param minx   The rectangle edge closest to negative infinity on the x-axis
+   * @param miny   The rectangle edge closest to negative infinity on the y-axis
+   * @param maxx   The rectangle edge closest to positive infinity on the x-axis
+   * @param maxy   The rectangle edge closest to positive infinity on the y-axis
+   * @param corner The corner radius
+   * @param width  The width of the border
+   * @param colour The packed RGBA colour
+   * @return <code>this</code>
+   */
+  public SdfRenderer roundedBorder(float minx, float miny, float maxx, float maxy, float corner,
+      float width, int colour) {
+    float hw = width / 2;
+    return add((minx + maxx) / 2, (miny + maxy) / 2,
+        (maxx - minx) / 2 + hw, (maxy - miny) / 2 + hw, corner + hw, width, colour);
+  }
+
+  private SdfRenderer add(float x, float y, float halfWidth, float halfHeight, float corner,
+      float border, int colour) {
+    if (!batch.accepts(4)) {
+      // too many vertices for the index width, draw what we've got and start again
+      render();
+    }
+    ByteBuffer verts = batch.add(QUAD, 4);
+    Matrix4f m = transform();
+
+    // the corner radius can't exceed the box
+    float radius = Math.min(corner, Math.min(halfWidth, halfHeight));
+    float lx = halfWidth + margin;
+    float ly = halfHeight + margin;
+    for (int i = 0; i < 4; i++) {
+      float px = (i & 2) == 0 ? -lx : lx;
+      float py = (i & 1) == 0 ? -ly : ly;
+      verts.putFloat(m.m00() * (x + px) + m.m10() * (y + py) + m.m30());
+      verts.putFloat(m.m01() * (x + px) + m.m11() * (y + py) + m.m31());
+      verts.putFloat(m.m02() * (x + px) + m.m12() * (y + py) + m.m32());
+      verts.putFloat(px);
+      verts.putFloat(py);
+      verts.putFloat(halfWidth);
+      verts.putFloat(halfHeight);
+      verts.putFloat(radius);
+      verts.putFloat(border);
+      verts.putInt(colour);
+    }
+    return this;
+  }
+
+  /**
+   * Renders batched primitives
+   *
+   * @return <code>this</code>
+   */
+  public SdfRenderer render() {
+    program().use();
+    batch.draw();
+    return this;
+  }
+
+  /**
+   * Destroys the GL state used by this renderer
+   *
+   * @return <code>this</code>
+   */
+  public SdfRenderer destroy() {
+    program().delete();
+    batch.destroy();
+    return this;
+  }
+}
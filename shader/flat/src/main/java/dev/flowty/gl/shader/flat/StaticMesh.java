@@ -0,0 +1,234 @@
+package dev.flowty.gl.shader.flat;
+
+import static org.lwjgl.opengl.GL11.GL_FLOAT;
+import static org.lwjgl.opengl.GL11.GL_TRIANGLES;
+import static org.lwjgl.opengl.GL11.GL_UNSIGNED_BYTE;
+import static org.lwjgl.opengl.GL11.GL_UNSIGNED_INT;
+import static org.lwjgl.opengl.GL11.GL_UNSIGNED_SHORT;
+import static org.lwjgl.opengl.GL11.glDrawElements;
+import static org.lwjgl.opengl.GL15.GL_ARRAY_BUFFER;
+import static org.lwjgl.opengl.GL15.GL_ELEMENT_ARRAY_BUFFER;
+import static org.lwjgl.opengl.GL15.GL_STATIC_DRAW;
+import static org.lwjgl.opengl.GL15.glBufferData;
+import static org.lwjgl.opengl.GL15.glGenBuffers;
+import static org.lwjgl.opengl.GL20.glEnableVertexAttribArray;
+import static org.lwjgl.opengl.GL20.glVertexAttribPointer;
+import static org.lwjgl.opengl.GL30.glGenVertexArrays;
+import static org.lwjgl.opengl.GL31.glDrawElementsInstanced;
+
+import dev.flowty.gl.shader.GLState;
+import dev.flowty.gl.shape.NativeShape;
+import dev.flowty.gl.shape.Shape;
+import java.nio.ByteBuffer;
+import java.util.function.IntUnaryOperator;
+import org.lwjgl.BufferUtils;
+
+/**
+ * Shape geometry that lives on the GPU. Unlike shapes passed to a {@link FlatColourRenderer}, the
+ * geometry is uploaded once and can then be drawn any number of times via a {@link MeshRenderer}
+ * without further copying.
+ * <p>
+ * The mesh is a snapshot of the shape at construction time: later changes to the shape are not
+ * reflected in the mesh. GL storage is created on first use and must be released with
+ * {@link #destroy()}.
+ * </p>
+ */
+public class StaticMesh {
+
+  /**
+   * The number of bytes in each vertex: x,y,z position and packed colour
+   */
+  private static final int STRIDE = 3 * Float.BYTES + Integer.BYTES;
+
+  /**
+   * Vertex data awaiting upload, <code>null</code> once it has been uploaded. This holds either
+   * interleaved positions and colours, or just the positions if {@link #colourData} is present.
+   */
+  private ByteBuffer vertexData;
+  /**
+   * Separate colour data awaiting upload, if the colours are not interleaved with the positions
+   */
+  private ByteBuffer colourData;
+  /**
+   * Index data awaiting upload, <code>null</code> once it has been uploaded
+   */
+  private ByteBuffer indexData;
+  private final int vertexCount;
+  private final int indexCount;
+  /**
+   * The type of the index data: 16-bit where the vertex count allows it
+   */
+  private final int indexType;
+
+  private int vertexArrayHandle = -1;
+  private int vertexBufferHandle = -1;
+  private int colourBufferHandle = -1;
+  private int indexBufferHandle = -1;
+
+  /**
+   * @param shape The shape to upload
+   */
+  public StaticMesh(ColouredShape shape) {
+    this(shape, i -> shape.colours[i]);
+  }
+
+  /**
+   * @param shape  The shape to upload
+   * @param colour The colour for all vertices
+   */
+  public StaticMesh(Shape shape, int colour) {
+    this(shape, i -> colour);
+  }
+
+  private StaticMesh(Shape shape, IntUnaryOperator colour) {
+    vertexCount = shape.vertices();
+    indexCount = shape.triangles.length;
+
+    vertexData = BufferUtils.createByteBuffer(vertexCount * STRIDE);
+    for (int i = 0; i < vertexCount; i++) {
+      vertexData.putFloat(shape.vertices[3 * i + 0]);
+      vertexData.putFloat(shape.vertices[3 * i + 1]);
+      vertexData.putFloat(shape.vertices[3 * i + 2]);
+      vertexData.putInt(colour.applyAsInt(i));
+    }
+    vertexData.flip();
+
+    if (vertexCount <= TriangleBatch.SHORT_INDEX_LIMIT) {
+      indexType = GL_UNSIGNED_SHORT;
+      indexData = BufferUtils.createByteBuffer(indexCount * Short.BYTES);
+      for (int index : shape.triangles) {
+        indexData.putShort((short) index);
+      }
+      indexData.flip();
+    } else {
+      indexType = GL_UNSIGNED_INT;
+      indexData = BufferUtils.createByteBuffer(indexCount * Integer.BYTES);
+      indexData.asIntBuffer().put(shape.triangles);
+    }
+  }
+
+  /**
+   * Uploads an off-heap shape. The vertex and index data are passed to GL directly from the shape's
+   * memory, so this must be called with a current GL context. The shape's arena can be closed as
+   * soon as this returns.
+   *
+   * @param shape  The shape to upload
+   * @param colour The colour for all vertices
+   */
+  public StaticMesh(NativeShape shape, int colour) {
+    vertexCount = shape.vertices();
+    indexCount = shape.indices();
+
+    vertexData = shape.vertexData();
+    colourData = BufferUtils.createByteBuffer(vertexCount * Integer.BYTES);
+    for (int i = 0; i < vertexCount; i++) {
+      colourData.putInt(colour);
+    }
+    colourData.flip();
+    indexData = shape.indexData();
+    indexType = shape.indexBytes() == Short.BYTES ? GL_UNSIGNED_SHORT : GL_UNSIGNED_INT;
+
+    vertexArrayHandle();
+  }
+
+  /**
+   * @return The number of vertices in the mesh
+   */
+  public int vertices() {
+    return vertexCount;
+  }
+
+  /**
+   * @return The number of triangle indices in the mesh
+   */
+  public int indices() {
+    return indexCount;
+  }
+
+  /**
+   * @return The vertex array that describes the mesh, uploading the mesh data if necessary
+   */
+  int vertexArrayHandle() {
+    if (vertexArrayHandle == -1) {
+      if (vertexData == null) {
+        throw new IllegalStateException("Mesh has been destroyed");
+      }
+      vertexArrayHandle = glGenVertexArrays();
+      GLState.bindVertexArray(vertexArrayHandle);
+
+      vertexBufferHandle = glGenBuffers();
+      GLState.bindBuffer(GL_ARRAY_BUFFER, vertexBufferHandle);
+      glBufferData(GL_ARRAY_BUFFER, vertexData, GL_STATIC_DRAW);
+      glEnableVertexAttribArray(FlatColourProgram.VERTEX_ARRAY_ATTRIBUTE_INDEX);
+      glEnableVertexAttribArray(FlatColourProgram.COLOUR_ARRAY_ATTRIBUTE_INDEX);
+      if (colourData == null) {
+        glVertexAttribPointer(FlatColourProgram.VERTEX_ARRAY_ATTRIBUTE_INDEX,
+            3, GL_FLOAT, false, STRIDE, 0);
+        glVertexAttribPointer(FlatColourProgram.COLOUR_ARRAY_ATTRIBUTE_INDEX,
+            4, GL_UNSIGNED_BYTE, true, STRIDE, 3 * Float.BYTES);
+      } else {
+        glVertexAttribPointer(FlatColourProgram.VERTEX_ARRAY_ATTRIBUTE_INDEX,
+            3, GL_FLOAT, false, 0, 0);
+        colourBufferHandle = glGenBuffers();
+        GLState.bindBuffer(GL_ARRAY_BUFFER, colourBufferHandle);
+        glBufferData(GL_ARRAY_BUFFER, colourData, GL_STATIC_DRAW);
+        glVertexAttribPointer(FlatColourProgram.COLOUR_ARRAY_ATTRIBUTE_INDEX,
+            4, GL_UNSIGNED_BYTE, true, 0, 0);
+      }
+
+      // the element array binding is captured by the vertex array
+      indexBufferHandle = glGenBuffers();
+      GLState.bindBuffer(GL_ELEMENT_ARRAY_BUFFER, indexBufferHandle);
+      glBufferData(GL_ELEMENT_ARRAY_BUFFER, indexData, GL_STATIC_DRAW);
+
+      GLState.bindVertexArray(0);
+
+      // the data is on the GPU now, we don't need our copy
+      vertexData = null;
+      colourData = null;
+      indexData = null;
+    }
+    return vertexArrayHandle;
+  }
+
+  /**
+   * Issues the draw call for the mesh. The program that consumes the vertex data is expected to be
+   * in use.
+   */
+  void draw() {
+    GLState.bindVertexArray(vertexArrayHandle());
+    glDrawElements(GL_TRIANGLES, indexCount, indexType, 0);
+    GLState.bindVertexArray(0);
+  }
+
+  /**
+   * Issues the draw call for many copies of the mesh. The mesh's vertex array is expected to be
+   * bound, with the per-instance attributes already set up.
+   *
+   * @param instances The number of instances to draw
+   */
+  void drawInstanced(int instances) {
+    glDrawElementsInstanced(GL_TRIANGLES, indexCount, indexType, 0, instances);
+  }
+
+  /**
+   * Deletes the GL state of this mesh. It cannot be drawn thereafter.
+   */
+  public void destroy() {
+    if (vertexArrayHandle != -1) {
+      GLState.deleteVertexArray(vertexArrayHandle);
+      GLState.deleteBuffer(vertexBufferHandle);
+      if (colourBufferHandle != -1) {
+        GLState.deleteBuffer(colourBufferHandle);
+      }
+      GLState.deleteBuffer(indexBufferHandle);
+      vertexArrayHandle = -1;
+      vertexBufferHandle = -1;
+      colourBufferHandle = -1;
+      indexBufferHandle = -1;
+    }
+    vertexData = null;
+    colourData = null;
+    indexData = null;
+  }
+}
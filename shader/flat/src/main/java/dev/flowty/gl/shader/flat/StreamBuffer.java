@@ -0,0 +1,374 @@
+package dev.flowty.gl.shader.flat;
+
+import static org.lwjgl.opengl.GL15.GL_DYNAMIC_DRAW;
+import static org.lwjgl.opengl.GL15.glBufferData;
+import static org.lwjgl.opengl.GL15.glGenBuffers;
+import static org.lwjgl.opengl.GL30.GL_MAP_WRITE_BIT;
+import static org.lwjgl.opengl.GL32.GL_SYNC_FLUSH_COMMANDS_BIT;
+import static org.lwjgl.opengl.GL32.GL_SYNC_GPU_COMMANDS_COMPLETE;
+import static org.lwjgl.opengl.GL32.GL_TIMEOUT_EXPIRED;
+import static org.lwjgl.opengl.GL32.GL_WAIT_FAILED;
+import static org.lwjgl.opengl.GL32.glClientWaitSync;
+import static org.lwjgl.opengl.GL32.glDeleteSync;
+import static org.lwjgl.opengl.GL32.glFenceSync;
+import static org.lwjgl.opengl.GL44.GL_MAP_COHERENT_BIT;
+import static org.lwjgl.opengl.GL44.GL_MAP_PERSISTENT_BIT;
+import static org.lwjgl.opengl.GL45.glCreateBuffers;
+import static org.lwjgl.opengl.GL45.glMapNamedBufferRange;
+import static org.lwjgl.opengl.GL45.glNamedBufferStorage;
+import static org.lwjgl.opengl.GL45.glUnmapNamedBuffer;
+
+import dev.flowty.gl.shader.GLState;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import org.lwjgl.BufferUtils;
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GLCapabilities;
+
+/**
+ * A buffer object that is filled with fresh data every frame. The usage cycle is:
+ * <ol>
+ *   <li>{@link #reserve(int)} space and write data into the returned buffer</li>
+ *   <li>{@link #upload()} the data, which also binds the buffer object</li>
+ *   <li>Issue the GL commands that consume the data</li>
+ *   <li>{@link #finish()} the frame</li>
+ * </ol>
+ * Where the context supports <code>ARB_buffer_storage</code> and
+ * <code>ARB_direct_state_access</code> the data is written directly into persistently-mapped
+ * memory, otherwise it is staged on the client and respecified with <code>glBufferData</code> on
+ * upload.
+ * <p>
+ * The buffer object is only bound to its target by {@link #upload()}. This matters for
+ * {@link org.lwjgl.opengl.GL15#GL_ELEMENT_ARRAY_BUFFER GL_ELEMENT_ARRAY_BUFFER}, as that binding
+ * is captured by whichever vertex array is current: data can be reserved at any time, but upload
+ * only once the consuming vertex array is bound.
+ * </p>
+ * <p>
+ * Capacity only ever grows by doubling, so the offsets returned from {@link #upload()} are always a
+ * multiple of the initial capacity.
+ * </p>
+ * <p>
+ * Growth can move the data into a new buffer object, and the driver is free to reuse the name of
+ * the old one for it. Anything that captures the buffer binding, e.g.: vertex attribute pointers,
+ * should check the {@link #generation()} rather than the {@link #handle()} to find out when it
+ * has to be refreshed.
+ * </p>
+ */
+public abstract class StreamBuffer {
+
+  /**
+   * The buffer binding target
+   */
+  protected final int target;
+
+  /**
+   * The buffer object name, or <code>-1</code> if it has not been created yet
+   */
+  protected int handle = -1;
+
+  /**
+   * Incremented whenever new buffer storage is created
+   */
+  protected int generation = 0;
+
+  /**
+   * @param target The buffer binding target, e.g.:
+   *               {@link org.lwjgl.opengl.GL15#GL_ARRAY_BUFFER GL_ARRAY_BUFFER}
+   */
+  protected StreamBuffer(int target) {
+    this.target = target;
+  }
+
+  /**
+   * Creates a buffer of the best type supported by the current context
+   *
+   * @param target       The buffer binding target
+   * @param initialBytes The initial capacity
+   * @return The new buffer
+   */
+  public static StreamBuffer create(int target, int initialBytes) {
+    GLCapabilities caps = GL.getCapabilities();
+    if (caps.OpenGL45 || caps.GL_ARB_buffer_storage && caps.GL_ARB_direct_state_access) {
+      return new Persistent(target, initialBytes);
+    }
+    return new Respecified(target, initialBytes);
+  }
+
+  /**
+   * Ensures that there is space for more data
+   *
+   * @param bytes The number of bytes that are about to be written
+   * @return The buffer to write data into. It is in native byte order, positioned after the data
+   * that has already been written this frame, and has at least the requested number of bytes
+   * remaining.
+   */
+  public abstract ByteBuffer reserve(int bytes);
+
+  /**
+   * @return The number of bytes written this frame
+   */
+  public int size() {
+    return reserve(0).position();
+  }
+
+  /**
+   * @return The buffer object name, or <code>-1</code> if it has not been created yet. This can
+   * change as the buffer grows.
+   */
+  public int handle() {
+    return handle;
+  }
+
+  /**
+   * @return A number that changes whenever the buffer object is replaced, even if the new one has
+   * the same name as the old
+   */
+  public int generation() {
+    return generation;
+  }
+
+  /**
+   * Makes the data written this frame available to GL and binds the buffer object to its target.
+   * This is the only time that the buffer object is bound.
+   *
+   * @return The byte offset of this frame's data in the buffer object
+   */
+  public abstract long upload();
+
+  /**
+   * Call this once the GL commands that consume the uploaded data have been issued. The buffer is
+   * then emptied for the next frame.
+   * <p>
+   * Where the data is persistently mapped each call consumes a region of the storage, and the
+   * number of regions grows to cover the number of calls per frame. Flushing several times per
+   * frame thus costs more memory than flushing once, but does not stall.
+   * </p>
+   */
+  public abstract void finish();
+
+  /**
+   * Deletes the GL state of this buffer
+   */
+  public abstract void destroy();
+
+  /**
+   * Computes a grown capacity
+   *
+   * @param current  The current capacity
+   * @param required The minimum acceptable capacity
+   * @return The new capacity
+   */
+  static int grow(int current, int required) {
+    int capacity = Math.max(current, 1);
+    while (capacity < required) {
+      capacity *= 2;
+    }
+    return capacity;
+  }
+
+  /**
+   * Stages data in client memory and respecifies the buffer object storage on every upload
+   */
+  private static class Respecified extends StreamBuffer {
+
+    private ByteBuffer data;
+
+    Respecified(int target, int initialBytes) {
+      super(target);
+      data = BufferUtils.createByteBuffer(initialBytes);
+    }
+
+    @Override
+    public ByteBuffer reserve(int bytes) {
+      if (data.remaining() < bytes) {
+        ByteBuffer grown = BufferUtils.createByteBuffer(
+            grow(data.capacity(), data.position() + bytes));
+        data.flip();
+        grown.put(data);
+        data = grown;
+      }
+      return data;
+    }
+
+    @Override
+    public long upload() {
+      if (handle == -1) {
+        handle = glGenBuffers();
+        generation++;
+      }
+      GLState.bindBuffer(target, handle);
+      data.flip();
+      glBufferData(target, data, GL_DYNAMIC_DRAW);
+      return 0;
+    }
+
+    @Override
+    public void finish() {
+      data.clear();
+    }
+
+    @Override
+    public void destroy() {
+      if (handle != -1) {
+        GLState.deleteBuffer(handle);
+        handle = -1;
+      }
+    }
+  }
+
+  /**
+   * Writes data directly into persistently-mapped buffer storage. The storage is divided into
+   * regions, one per {@link #finish()}, and each region is guarded by a fence so that we don't
+   * overwrite data that the GPU has yet to read.
+   * <p>
+   * We start with enough regions for a single flush per frame with a few frames in flight. If the
+   * buffer is flushed more often than that then the next region will still be in use when we come
+   * to write to it, so rather than stalling on its fence the number of regions is doubled, up to
+   * {@link #MAX_REGIONS}. A buffer that is flushed <i>n</i> times per frame thus settles at about
+   * <i>3n</i> regions.
+   * </p>
+   */
+  private static class Persistent extends StreamBuffer {
+
+    private static final int INITIAL_REGIONS = 3;
+    private static final int MAX_REGIONS = 48;
+    private static final int FLAGS = GL_MAP_WRITE_BIT | GL_MAP_PERSISTENT_BIT
+        | GL_MAP_COHERENT_BIT;
+    private static final long WAIT_NANOS = 1_000_000;
+
+    private int regionBytes;
+    private int regions = INITIAL_REGIONS;
+    private ByteBuffer mapped;
+
+    private long[] fences = new long[INITIAL_REGIONS];
+    private int regionIndex = 0;
+    private ByteBuffer region;
+
+    Persistent(int target, int initialBytes) {
+      super(target);
+      regionBytes = initialBytes;
+    }
+
+    @Override
+    public ByteBuffer reserve(int bytes) {
+      if (handle == -1) {
+        allocate(grow(regionBytes, bytes));
+      }
+      if (region == null) {
+        if (busy(regionIndex) && regions < MAX_REGIONS) {
+          // we're being flushed faster than the GPU is consuming the data
+          release();
+          regions *= 2;
+          allocate(regionBytes);
+          regionIndex = 0;
+        }
+        region = region(regionIndex);
+      }
+      if (region.remaining() < bytes) {
+        reallocate(grow(regionBytes, region.position() + bytes));
+      }
+      return region;
+    }
+
+    @Override
+    public long upload() {
+      reserve(0);
+      GLState.bindBuffer(target, handle);
+      return (long) regionIndex * regionBytes;
+    }
+
+    @Override
+    public void finish() {
+      if (region != null) {
+        fences[regionIndex] = glFenceSync(GL_SYNC_GPU_COMMANDS_COMPLETE, 0);
+        regionIndex = (regionIndex + 1) % regions;
+        region = null;
+      }
+    }
+
+    @Override
+    public void destroy() {
+      release();
+      region = null;
+      regionIndex = 0;
+    }
+
+    private void allocate(int bytes) {
+      regionBytes = bytes;
+      fences = new long[regions];
+      // direct state access, so that allocation doesn't disturb the current bindings
+      handle = glCreateBuffers();
+      generation++;
+      glNamedBufferStorage(handle, (long) regions * regionBytes, FLAGS);
+      mapped = glMapNamedBufferRange(handle, 0, (long) regions * regionBytes, FLAGS);
+    }
+
+    /**
+     * Moves to bigger storage, preserving the data written so far this frame
+     *
+     * @param bytes The new region size
+     */
+    private void reallocate(int bytes) {
+      // the old mapping will not survive the release, so take a copy
+      region.flip();
+      ByteBuffer pending = BufferUtils.createByteBuffer(region.remaining());
+      pending.put(region).flip();
+
+      // Deleting the old buffer is safe: GL will keep its storage alive until the commands
+      // that use it have completed
+      release();
+      allocate(bytes);
+      regionIndex = 0;
+      region = region(regionIndex);
+      region.put(pending);
+    }
+
+    /**
+     * @param index The region index
+     * @return <code>true</code> if the GPU has yet to read the data that was last written to the
+     * region
+     */
+    private boolean busy(int index) {
+      return fences[index] != 0
+          && glClientWaitSync(fences[index], 0, 0) == GL_TIMEOUT_EXPIRED;
+    }
+
+    /**
+     * Waits for the GPU to be done with a region
+     *
+     * @param index The region index
+     * @return The region, ready to be written
+     */
+    private ByteBuffer region(int index) {
+      if (fences[index] != 0) {
+        int status;
+        do {
+          status = glClientWaitSync(fences[index], GL_SYNC_FLUSH_COMMANDS_BIT, WAIT_NANOS);
+        }
+        while (status == GL_TIMEOUT_EXPIRED);
+        glDeleteSync(fences[index]);
+        fences[index] = 0;
+        if (status == GL_WAIT_FAILED) {
+          throw new IllegalStateException("Failed to wait on buffer fence");
+        }
+      }
+      return mapped.slice(index * regionBytes, regionBytes)
+          .order(ByteOrder.nativeOrder());
+    }
+
+    private void release() {
+      for (int i = 0; i < fences.length; i++) {
+        if (fences[i] != 0) {
+          glDeleteSync(fences[i]);
+          fences[i] = 0;
+        }
+      }
+      if (handle != -1) {
+        glUnmapNamedBuffer(handle);
+        GLState.deleteBuffer(handle);
+        handle = -1;
+        mapped = null;
+      }
+    }
+  }
+}
@@ -0,0 +1,201 @@
+package dev.flowty.gl.shader.flat;
+
+import static org.lwjgl.opengl.GL11.GL_TRIANGLES;
+import static org.lwjgl.opengl.GL11.GL_UNSIGNED_INT;
+import static org.lwjgl.opengl.GL11.GL_UNSIGNED_SHORT;
+import static org.lwjgl.opengl.GL15.GL_ARRAY_BUFFER;
+import static org.lwjgl.opengl.GL15.GL_ELEMENT_ARRAY_BUFFER;
+import static org.lwjgl.opengl.GL30.glGenVertexArrays;
+import static org.lwjgl.opengl.GL32.glDrawElementsBaseVertex;
+
+import dev.flowty.gl.shader.GLState;
+import java.nio.ByteBuffer;
+
+/**
+ * Accumulates interleaved vertex data and triangle indices, then draws them in a single call.
+ * This is the storage behind the batching renderers: they decide what goes into each vertex, this
+ * takes care of streaming it to the GPU.
+ * <p>
+ * Indices are 16 bits wide unless a single piece of geometry has too many vertices for that. Use
+ * {@link #accepts(int)} to find out when the batch has to be drawn before more geometry can be
+ * added.
+ * </p>
+ */
+class TriangleBatch {
+
+  /**
+   * The number of vertices that can be addressed by 16-bit indices
+   */
+  static final int SHORT_INDEX_LIMIT = 1 << 16;
+
+  private final int stride;
+  private final int initialVertices;
+  private final Runnable pointers;
+
+  private StreamBuffer vertices;
+  private StreamBuffer triangles;
+
+  /**
+   * <code>true</code> if the current batch has 32-bit indices
+   */
+  private boolean wide = false;
+
+  private int vertexArrayHandle = -1;
+  /**
+   * The {@link StreamBuffer#generation()} of the vertex buffer that the vertex array's attribute
+   * pointers refer to
+   */
+  private int vertexArrayGeneration = -1;
+
+  /**
+   * @param stride          The number of bytes in each vertex
+   * @param initialVertices The number of vertices that can be batched before the storage has to
+   *                        grow
+   * @param pointers        Enables and describes the vertex attributes. This is called with the
+   *                        vertex array and vertex buffer bound, whenever the vertex buffer
+   *                        changes.
+   */
+  TriangleBatch(int stride, int initialVertices, Runnable pointers) {
+    this.stride = stride;
+    this.initialVertices = initialVertices;
+    this.pointers = pointers;
+  }
+
+  private StreamBuffer vertices() {
+    if (vertices == null) {
+      // the initial capacity must be a multiple of the stride so that region offsets can be
+      // expressed as a whole number of vertices
+      vertices = StreamBuffer.create(GL_ARRAY_BUFFER, stride * initialVertices);
+    }
+    return vertices;
+  }
+
+  private StreamBuffer triangles() {
+    if (triangles == null) {
+      triangles = StreamBuffer.create(GL_ELEMENT_ARRAY_BUFFER,
+          3 * 512 * Integer.BYTES);
+    }
+    return triangles;
+  }
+
+  private int vertexArrayHandle() {
+    if (vertexArrayHandle == -1) {
+      vertexArrayHandle = glGenVertexArrays();
+    }
+    return vertexArrayHandle;
+  }
+
+  /**
+   * @return The number of bytes between the starts of consecutive vertices
+   */
+  int stride() {
+    return stride;
+  }
+
+  /**
+   * @return The batched vertex data, positioned after the last vertex
+   */
+  ByteBuffer vertexData() {
+    return vertices().reserve(0);
+  }
+
+  /**
+   * @param vertexCount The number of vertices in some geometry
+   * @return <code>true</code> if the geometry can be added to the batch. If not then the batch
+   * must be drawn first.
+   */
+  boolean accepts(int vertexCount) {
+    int existingVertexCount = vertexData().position() / stride;
+    return existingVertexCount == 0
+        || wide
+        || existingVertexCount + vertexCount <= SHORT_INDEX_LIMIT;
+  }
+
+  /**
+   * Adds geometry to the batch
+   *
+   * @param indices     The triangle indices of the geometry
+   * @param vertexCount The number of vertices in the geometry
+   * @return The batched vertex data, positioned at the first vertex of the new geometry, with space
+   * for all of its vertices
+   * @throws IllegalStateException if the batch does not {@link #accepts(int) accept} the geometry
+   */
+  ByteBuffer add(int[] indices, int vertexCount) {
+    if (!accepts(vertexCount)) {
+      throw new IllegalStateException(String.format(
+          "Batch of %s vertices cannot accept %s more",
+          vertexData().position() / stride, vertexCount));
+    }
+    int existingVertexCount = vertexData().position() / stride;
+    if (existingVertexCount == 0) {
+      wide = vertexCount > SHORT_INDEX_LIMIT;
+    }
+
+    ByteBuffer tris = triangles().reserve(indices.length * indexBytes());
+    ByteBuffer verts = vertices().reserve(vertexCount * stride);
+
+    if (wide) {
+      for (int index : indices) {
+        tris.putInt(index + existingVertexCount);
+      }
+    } else {
+      for (int index : indices) {
+        tris.putShort((short) (index + existingVertexCount));
+      }
+    }
+    return verts;
+  }
+
+  private int indexBytes() {
+    return wide ? Integer.BYTES : Short.BYTES;
+  }
+
+  /**
+   * Draws the batched geometry and empties the batch. The program that consumes the vertex data is
+   * expected to be in use.
+   */
+  void draw() {
+    GLState.bindVertexArray(vertexArrayHandle());
+
+    long vertexOffset = vertices().upload();
+    if (vertexArrayGeneration != vertices().generation()) {
+      // the vertex buffer has changed, so the vertex array needs to be pointed at it
+      pointers.run();
+      vertexArrayGeneration = vertices().generation();
+    }
+
+    int indexCount = triangles().size() / indexBytes();
+    // the index buffer binding is part of the vertex array state, so this must come after the
+    // vertex array is bound
+    long indexOffset = triangles().upload();
+    glDrawElementsBaseVertex(GL_TRIANGLES, indexCount,
+        wide ? GL_UNSIGNED_INT : GL_UNSIGNED_SHORT, indexOffset,
+        (int) (vertexOffset / stride));
+    GLState.bindVertexArray(0);
+
+    // reset for the next frame
+    vertices().finish();
+    triangles().finish();
+    wide = false;
+  }
+
+  /**
+   * Deletes the GL state of this batch
+   */
+  void destroy() {
+    if (vertices != null) {
+      vertices.destroy();
+      vertices = null;
+      vertexArrayGeneration = -1;
+    }
+    if (triangles != null) {
+      triangles.destroy();
+      triangles = null;
+    }
+    if (vertexArrayHandle != -1) {
+      GLState.deleteVertexArray(vertexArrayHandle);
+      vertexArrayHandle = -1;
+      vertexArrayGeneration = -1;
+    }
+  }
+}
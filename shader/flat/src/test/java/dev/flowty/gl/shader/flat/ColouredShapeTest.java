@@ -0,0 +1,91 @@
+package dev.flowty.gl.shader.flat;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import dev.flowty.gl.shape.Shape;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Exercises {@link ColouredShape} combination and {@link ColouredShapeBuilder}
+ */
+@SuppressWarnings("static-method")
+class ColouredShapeTest {
+
+  /**
+   * @param count The number of shapes
+   * @param rng   Source of randomness
+   * @return Shapes of random geometry, with a different colour on every vertex
+   */
+  private static List<ColouredShape> shapes(int count, Random rng) {
+    List<ColouredShape> shapes = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      Shape geometry = geometry(rng);
+      int[] colours = new int[geometry.vertices()];
+      for (int j = 0; j < colours.length; j++) {
+        colours[j] = rng.nextInt();
+      }
+      shapes.add(new ColouredShape(geometry, colours));
+    }
+    return shapes;
+  }
+
+  private static Shape geometry(Random rng) {
+    int vc = 3 + rng.nextInt(6);
+    float[] vertices = new float[3 * vc];
+    for (int j = 0; j < vertices.length; j++) {
+      vertices[j] = rng.nextFloat();
+    }
+    int[] triangles = new int[3 * rng.nextInt(5)];
+    for (int j = 0; j < triangles.length; j++) {
+      triangles[j] = rng.nextInt(vc);
+    }
+    return new Shape(vertices, triangles);
+  }
+
+  /**
+   * Parallel combination matches the sequential constructor, including the colours. The largest
+   * case is big enough to take the parallel path.
+   */
+  @Test
+  void combine() {
+    for (int count : new int[]{0, 1, 10, 5000}) {
+      List<ColouredShape> shapes = shapes(count, new Random(count));
+      ColouredShape expected = new ColouredShape(shapes.toArray(ColouredShape[]::new));
+      ColouredShape actual = ColouredShape.combine(shapes);
+
+      assertArrayEquals(expected.vertices, actual.vertices, "vertices of " + count);
+      assertArrayEquals(expected.triangles, actual.triangles, "triangles of " + count);
+      assertArrayEquals(expected.colours, actual.colours, "colours of " + count);
+    }
+  }
+
+  /**
+   * Streamed building matches the sequential constructor, for both multi-coloured and
+   * single-coloured shapes
+   */
+  @Test
+  void builder() {
+    Random rng = new Random(0);
+    List<ColouredShape> shapes = new ArrayList<>();
+    ColouredShapeBuilder builder = new ColouredShapeBuilder();
+    for (ColouredShape cs : shapes(2000, rng)) {
+      if (rng.nextBoolean()) {
+        shapes.add(cs);
+        builder.add(cs);
+      } else {
+        int colour = rng.nextInt();
+        shapes.add(new ColouredShape(cs, colour));
+        builder.add(cs, colour);
+      }
+    }
+    ColouredShape expected = new ColouredShape(shapes.toArray(ColouredShape[]::new));
+    ColouredShape actual = builder.build();
+
+    assertArrayEquals(expected.vertices, actual.vertices);
+    assertArrayEquals(expected.triangles, actual.triangles);
+    assertArrayEquals(expected.colours, actual.colours);
+  }
+}
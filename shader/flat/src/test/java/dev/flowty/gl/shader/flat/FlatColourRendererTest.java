@@ -1,11 +1,21 @@
 package dev.flowty.gl.shader.flat;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import dev.flowty.gl.framework.display.Display;
 import dev.flowty.gl.shader.test.RenderTest;
+import dev.flowty.gl.shape.NativeShape;
+import dev.flowty.gl.shape.Shape;
 import dev.flowty.gl.shape.topology.Quad;
 import dev.flowty.gl.shape.topology.Triangle;
 import dev.flowty.gl.util.Colour;
+import java.lang.foreign.Arena;
+import java.nio.FloatBuffer;
+import java.util.function.Consumer;
+import org.joml.Matrix4f;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.condition.DisabledIfSystemProperty;
+import org.lwjgl.BufferUtils;
 
 /**
  * Exercises {@link FlatColourRenderer}
@@ -25,57 +35,250 @@ class FlatColourRendererTest {
       new Quad(), Colour.withAlphai(Colour.WHITE, 128));
 
   private FlatColourRenderer alt;
+  private FlatColourRenderer2D fcr2d;
+  private MeshRenderer mr;
+  private InstancedMeshRenderer imr;
+  private StaticMesh unitTriangle;
 
   /**
    * Draws a few polygons and then checks the rendered result
    */
   @Test
   void flat() {
-    new RenderTest(display -> {
+    flat(false, false);
+  }
+
+  /**
+   * As with {@link #flat()}, but with transforms applied in the vertex shader. This is checked
+   * against the same expected image as {@link #flat()}.
+   */
+  @Test
+  void gpuTransform() {
+    flat(true, false);
+  }
+
+  /**
+   * As with {@link #flat()}, but with culling enabled and an extra off-screen shape that should be
+   * rejected
+   */
+  @Test
+  void culling() {
+    flat(false, true);
+  }
+
+  /**
+   * As with {@link #flat()}, but in 2D. Without depth information we rely on draw order to get
+   * green above white.
+   */
+  @Test
+  void flat2D() {
+    flat(display -> {
+      if (fcr2d == null) {
+        fcr2d = new FlatColourRenderer2D(2);
+        fcr2d.program().projection.update(m -> m
+            .setOrtho2DLH(
+                0, display.logicalDimensions().x(),
+                0, display.logicalDimensions().y()));
+      }
+      arrange(display);
+
+      fcr2d.draw(RED)
+          .with(m -> m.translate(
+                  display.logicalDimensions().x() / 2,
+                  display.logicalDimensions().y() / 2),
+              r -> r.draw(BLUE))
+          .render()
+          .draw(WHITE)
+          .render()
+          .draw(GREEN)
+          .render();
+    });
+  }
+
+  /**
+   * As with {@link #flat()}, but drawing the same scene from {@link StaticMesh}es. The red
+   * triangle is uploaded in white and tinted at draw time, the blue triangle is uploaded from
+   * off-heap memory.
+   */
+  @Test
+  void staticMesh() {
+    flat(display -> {
+      if (mr == null) {
+        mr = new MeshRenderer(2);
+        mr.program().projection.update(m -> m
+            .setOrtho2DLH(
+                0, display.logicalDimensions().x(),
+                0, display.logicalDimensions().y()));
+      }
+      arrange(display);
+
+      // meshes are snapshots, so we need fresh ones once the shapes are in place
+      StaticMesh red = new StaticMesh(RED, Colour.WHITE);
+      StaticMesh green = new StaticMesh(GREEN);
+      StaticMesh blue;
+      try (Arena arena = Arena.ofConfined()) {
+        blue = new StaticMesh(new NativeShape(arena, BLUE), Colour.BLUE);
+      }
+      StaticMesh white = new StaticMesh(WHITE);
+
+      mr.draw(red, Colour.RED)
+          .draw(green)
+          .with(m -> m.translate(
+                  display.logicalDimensions().x() / 2,
+                  display.logicalDimensions().y() / 2, 0),
+              r -> r.draw(blue))
+          .draw(white);
+
+      red.destroy();
+      green.destroy();
+      blue.destroy();
+      white.destroy();
+    });
+  }
+
+  /**
+   * As with {@link #flat()}, but drawing the triangles as instances of a single mesh, each
+   * transformed from the unit triangle to its place in the scene.
+   */
+  @Test
+  void instanced() {
+    flat(display -> {
+      if (imr == null) {
+        imr = new InstancedMeshRenderer(2);
+        imr.program().projection.update(m -> m
+            .setOrtho2DLH(
+                0, display.logicalDimensions().x(),
+                0, display.logicalDimensions().y()));
+        Triangle unit = new Triangle();
+        unit.vertex(1, v -> v.set(0, 1, 0));
+        unit.vertex(2, v -> v.set(1, 0, 0));
+        unitTriangle = new StaticMesh(unit, Colour.WHITE);
+      }
+      arrange(display);
+      StaticMesh white = new StaticMesh(WHITE);
+
+      FloatBuffer transforms = BufferUtils.createFloatBuffer(2 * 16);
+      unitTo(RED, transforms, 0);
+      unitTo(GREEN, transforms, 16);
+      imr.draw(unitTriangle, transforms,
+          BufferUtils.createIntBuffer(2).put(Colour.RED).put(Colour.GREEN).flip());
+
+      FloatBuffer blue = BufferUtils.createFloatBuffer(16);
+      unitTo(BLUE, blue, 0);
+      imr.with(m -> m.translate(
+              display.logicalDimensions().x() / 2,
+              display.logicalDimensions().y() / 2, 0),
+          r -> r.draw(unitTriangle, blue,
+              BufferUtils.createIntBuffer(1).put(Colour.BLUE).flip()));
+
+      imr.draw(white, new Matrix4f().get(BufferUtils.createFloatBuffer(16)),
+          BufferUtils.createIntBuffer(1).put(Colour.WHITE).flip());
+
+      imr.render();
+      white.destroy();
+    });
+  }
+
+  /**
+   * Computes the transform that maps the unit triangle onto a triangle
+   *
+   * @param triangle The target triangle
+   * @param dst      The buffer to write the transform to
+   * @param index    The index in the buffer at which to write
+   */
+  private static void unitTo(Shape triangle, FloatBuffer dst, int index) {
+    float[] v = triangle.vertices;
+    new Matrix4f(
+        v[6] - v[0], v[7] - v[1], 0, 0,
+        v[3] - v[0], v[4] - v[1], 0, 0,
+        0, 0, 1, 0,
+        v[0], v[1], v[2], 1)
+        .get(index, dst);
+  }
+
+  /**
+   * @param gpuTransform Where vertex transforms should be applied
+   * @param cull         Whether to enable culling
+   */
+  private void flat(boolean gpuTransform, boolean cull) {
+    flat(display -> {
       if (fcr == null) {
-        fcr = new FlatColourRenderer(1);
+        fcr = new FlatColourRenderer(2, gpuTransform)
+            .culling(cull);
         fcr.program().projection.update(m -> m
             .setOrtho2DLH(
                 0, display.logicalDimensions().x(),
                 0, display.logicalDimensions().y()));
-        alt = new FlatColourRenderer(1);
+        alt = new FlatColourRenderer(1, gpuTransform)
+            .culling(cull);
         alt.program().projection.update(m -> m
             .setOrtho2DLH(
                 0, display.logicalDimensions().x(),
                 0, display.logicalDimensions().y()));
       }
+      arrange(display);
+      fcr.resetCounts();
 
-      float fh = display.logicalDimensions().y();
-      float hh = fh / 2;
-      float fw = display.logicalDimensions().x();
-      float hw = fw / 2;
-
-      RED.vertex(0, v -> v.set(10, 10, 0));
-      RED.vertex(1, v -> v.set(10, hh - 10, 0));
-      RED.vertex(2, v -> v.set(hw - 10, 10, 0));
       fcr.draw(RED);
-
-      // pull green towards us so it's above white
-      float z = -1;
-      GREEN.vertex(0, v -> v.set(10, hh + 10, z));
-      GREEN.vertex(1, v -> v.set(10, fh - 10, z));
-      GREEN.vertex(2, v -> v.set(hw - 10, fh - 10, z));
       fcr.draw(GREEN);
-
-      BLUE.vertex(0, v -> v.set(hw + 10, fh - 10, 0));
-      BLUE.vertex(1, v -> v.set(fw - 10, fh - 10, 0));
-      BLUE.vertex(2, v -> v.set(fw - 10, hh + 10, 0));
-      fcr.draw(BLUE);
-
-      WHITE.vertex(0, v -> v.set(1 * fw / 8, 1 * fh / 8, 0));
-      WHITE.vertex(1, v -> v.set(1 * fw / 8, 7 * fh / 8, 0));
-      WHITE.vertex(2, v -> v.set(7 * fw / 8, 1 * fh / 8, 0));
-      WHITE.vertex(3, v -> v.set(7 * fw / 8, 7 * fh / 8, 0));
+      fcr.with(m -> m.translate(
+              display.logicalDimensions().x() / 2,
+              display.logicalDimensions().y() / 2, 0),
+          r -> r.draw(BLUE));
+      if (cull) {
+        // the blue triangle, but moved out beyond the right-hand edge of the display
+        fcr.with(m -> m.translate(display.logicalDimensions().x(), 0, 0),
+            r -> r.draw(BLUE));
+      }
       alt.draw(WHITE);
 
       fcr.render();
       alt.render();
-    })
+
+      assertEquals(cull ? 1 : 0, fcr.culled(), "culled");
+      assertEquals(3, fcr.drawn(), "drawn");
+    });
+  }
+
+  /**
+   * Note that the expected image is named for this method, so all modes must render identically
+   *
+   * @param render How to draw the scene
+   */
+  private static void flat(Consumer<Display> render) {
+    new RenderTest(render)
         .assertRenderResults();
   }
+
+  /**
+   * Positions the shapes in the scene
+   *
+   * @param display The display we're drawing to
+   */
+  private static void arrange(Display display) {
+    float fh = display.logicalDimensions().y();
+    float hh = fh / 2;
+    float fw = display.logicalDimensions().x();
+    float hw = fw / 2;
+
+    RED.vertex(0, v -> v.set(10, 10, 0));
+    RED.vertex(1, v -> v.set(10, hh - 10, 0));
+    RED.vertex(2, v -> v.set(hw - 10, 10, 0));
+
+    // pull green towards us so it's above white
+    float z = -1;
+    GREEN.vertex(0, v -> v.set(10, hh + 10, z));
+    GREEN.vertex(1, v -> v.set(10, fh - 10, z));
+    GREEN.vertex(2, v -> v.set(hw - 10, fh - 10, z));
+
+    // blue is defined relative to the top-right quadrant
+    BLUE.vertex(0, v -> v.set(10, hh - 10, 0));
+    BLUE.vertex(1, v -> v.set(hw - 10, hh - 10, 0));
+    BLUE.vertex(2, v -> v.set(hw - 10, 10, 0));
+
+    WHITE.vertex(0, v -> v.set(1 * fw / 8, 1 * fh / 8, 0));
+    WHITE.vertex(1, v -> v.set(1 * fw / 8, 7 * fh / 8, 0));
+    WHITE.vertex(2, v -> v.set(7 * fw / 8, 1 * fh / 8, 0));
+    WHITE.vertex(3, v -> v.set(7 * fw / 8, 7 * fh / 8, 0));
+  }
 }
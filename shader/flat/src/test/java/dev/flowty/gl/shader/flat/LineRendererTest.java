@@ -0,0 +1,174 @@
+package dev.flowty.gl.shader.flat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.lwjgl.opengl.GL11.GL_COLOR_BUFFER_BIT;
+import static org.lwjgl.opengl.GL11.glClear;
+
+import dev.flowty.gl.framework.display.Display;
+import dev.flowty.gl.framework.display.ScreenShot;
+import dev.flowty.gl.shader.test.RenderTest;
+import dev.flowty.gl.shape.Shape;
+import dev.flowty.gl.shape.geometry.Linear;
+import dev.flowty.gl.shape.topology.Loop;
+import dev.flowty.gl.shape.topology.Strip;
+import dev.flowty.gl.util.Colour;
+import java.awt.image.BufferedImage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledIfSystemProperty;
+
+/**
+ * Exercises {@link LineRenderer}
+ */
+@DisabledIfSystemProperty(named = "ci", matches = "true",
+    disabledReason = "no gfx support")
+class LineRendererTest {
+
+  private FlatColourRenderer fcr;
+  private LineRenderer lr;
+
+  /**
+   * Draws the same scene twice: once from {@link Linear} geometry and once with the lines expanded
+   * in the vertex shader. The first three lines share a transform and so are merged into a single
+   * instanced draw call, the last is drawn separately. The two results should match.
+   */
+  @Test
+  void lines() {
+    BufferedImage[] images = new BufferedImage[2];
+
+    new RenderTest(display -> {
+      if (fcr == null) {
+        fcr = new FlatColourRenderer(2);
+        fcr.program().projection.update(m -> m
+            .setOrtho2DLH(
+                0, display.logicalDimensions().x(),
+                0, display.logicalDimensions().y()));
+        lr = new LineRenderer(2);
+        lr.program().projection.update(m -> m
+            .setOrtho2DLH(
+                0, display.logicalDimensions().x(),
+                0, display.logicalDimensions().y()));
+      }
+      Scene scene = new Scene(display);
+
+      glClear(GL_COLOR_BUFFER_BIT);
+      fcr.draw(strip(Scene.WIDE, scene.corner), Colour.RED)
+          .draw(loop(Scene.MEDIUM, scene.square), Colour.GREEN)
+          .draw(strip(Scene.NARROW, scene.diagonal), Colour.BLUE)
+          .with(m -> m.translate(scene.offset, 0, 0),
+              r -> r.draw(strip(Scene.NARROW, scene.diagonal), Colour.BLUE))
+          .render();
+      images[0] = ScreenShot.image();
+
+      glClear(GL_COLOR_BUFFER_BIT);
+      lr.strip(Scene.WIDE, Colour.RED, scene.corner)
+          .loop(Scene.MEDIUM, Colour.GREEN, scene.square)
+          .strip(Scene.NARROW, Colour.BLUE, scene.diagonal)
+          .with(m -> m.translate(scene.offset, 0, 0),
+              r -> r.strip(Scene.NARROW, Colour.BLUE, scene.diagonal))
+          .render();
+      images[1] = ScreenShot.image();
+    }).run();
+
+    assertMatching(images[0], images[1]);
+  }
+
+  private static Shape strip(float width, float[] points) {
+    return new Strip(points.length / 2 - 1).with(Linear.strip(width, points));
+  }
+
+  private static Shape loop(float width, float[] points) {
+    return new Loop(points.length / 2).with(Linear.loop(width, points));
+  }
+
+  /**
+   * Compares two renderings of the same lines. The vertex positions are calculated on the CPU for
+   * one and on the GPU for the other, so rounding differences can flip pixels whose centres lie on
+   * a triangle edge. Pixels in the interior of a line or of the background must match exactly.
+   *
+   * @param expected The geometry rendering
+   * @param actual   The instanced rendering
+   */
+  private static void assertMatching(BufferedImage expected, BufferedImage actual) {
+    assertEquals(expected.getWidth(), actual.getWidth(), "width");
+    assertEquals(expected.getHeight(), actual.getHeight(), "height");
+    int drawn = 0;
+    for (int x = 0; x < expected.getWidth(); x++) {
+      for (int y = 0; y < expected.getHeight(); y++) {
+        int rgb = expected.getRGB(x, y);
+        if (rgb != expected.getRGB(0, 0)) {
+          drawn++;
+        }
+        if (rgb != actual.getRGB(x, y)) {
+          assertTrue(onEdge(expected, x, y), String.format(
+              "pixel %s,%s differs: expected %s, actual %s",
+              x, y, Integer.toHexString(rgb), Integer.toHexString(actual.getRGB(x, y))));
+        }
+      }
+    }
+    assertTrue(drawn > 0, "nothing was drawn");
+  }
+
+  /**
+   * @return <code>true</code> if a neighbouring pixel has a different colour
+   */
+  private static boolean onEdge(BufferedImage image, int x, int y) {
+    int rgb = image.getRGB(x, y);
+    for (int dx = -1; dx <= 1; dx++) {
+      for (int dy = -1; dy <= 1; dy++) {
+        int nx = x + dx;
+        int ny = y + dy;
+        if (nx >= 0 && nx < image.getWidth() && ny >= 0 && ny < image.getHeight()
+            && image.getRGB(nx, ny) != rgb) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * The lines in the scene, positioned relative to the display
+   */
+  private static class Scene {
+
+    static final float WIDE = 20;
+    static final float MEDIUM = 10;
+    static final float NARROW = 6;
+
+    /**
+     * Two segments with a sharp join
+     */
+    final float[] corner;
+    /**
+     * A closed loop
+     */
+    final float[] square;
+    /**
+     * A single segment
+     */
+    final float[] diagonal;
+    /**
+     * The translation applied to the second copy of {@link #diagonal}
+     */
+    final float offset;
+
+    Scene(Display display) {
+      float w = display.logicalDimensions().x();
+      float h = display.logicalDimensions().y();
+      corner = new float[]{
+          w * 0.1f, h * 0.2f,
+          w * 0.3f, h * 0.4f,
+          w * 0.5f, h * 0.2f};
+      square = new float[]{
+          w * 0.6f, h * 0.6f,
+          w * 0.9f, h * 0.6f,
+          w * 0.9f, h * 0.9f,
+          w * 0.6f, h * 0.9f};
+      diagonal = new float[]{
+          w * 0.1f, h * 0.6f,
+          w * 0.2f, h * 0.9f};
+      offset = w * 0.2f;
+    }
+  }
+}
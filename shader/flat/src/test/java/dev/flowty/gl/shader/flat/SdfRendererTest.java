@@ -0,0 +1,122 @@
+package dev.flowty.gl.shader.flat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dev.flowty.gl.framework.display.ScreenShot;
+import dev.flowty.gl.shader.test.RenderTest;
+import dev.flowty.gl.util.Colour;
+import java.awt.image.BufferedImage;
+import org.joml.Vector2f;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledIfSystemProperty;
+
+/**
+ * Exercises {@link SdfRenderer}
+ */
+@DisabledIfSystemProperty(named = "ci", matches = "true",
+    disabledReason = "no gfx support")
+class SdfRendererTest {
+
+  private SdfRenderer sdf;
+
+  /**
+   * Draws one of each primitive in its own quadrant of the display, with the rectangles under a
+   * transform, and a translucent circle in the middle. The edges are anti-aliased, so the
+   * results are checked by sampling well inside and outside of each shape.
+   */
+  @Test
+  void primitives() {
+    BufferedImage[] image = new BufferedImage[1];
+    Vector2f size = new Vector2f();
+    int[] background = new int[1];
+
+    new RenderTest(display -> {
+      float w = display.logicalDimensions().x();
+      float h = display.logicalDimensions().y();
+      if (sdf == null) {
+        sdf = new SdfRenderer(2);
+        sdf.program().projection.update(m -> m
+            .setOrtho2DLH(0, w, 0, h));
+      }
+      float r = Math.min(w, h) / 6;
+
+      sdf.circle(w / 4, h / 4, r, Colour.RED)
+          .ring(w / 4, 3 * h / 4, r, r / 4, Colour.GREEN)
+          .with(m -> m.translate(w / 2, 0, 0),
+              s -> s
+                  .roundedRect(w / 8, h / 8, 3 * w / 8, 3 * h / 8, r / 3, Colour.BLUE)
+                  .roundedBorder(w / 8, 5 * h / 8, 3 * w / 8, 7 * h / 8, r / 3, r / 4,
+                      Colour.YELLOW))
+          .circle(w / 2, h / 2, r, Colour.withAlphai(Colour.WHITE, 128))
+          .render();
+
+      image[0] = ScreenShot.image();
+      size.set(w, h);
+      background[0] = display.clearColour();
+    }).run();
+
+    Sampler at = new Sampler(image[0], size);
+    float w = size.x;
+    float h = size.y;
+    float r = Math.min(w, h) / 6;
+
+    assertEquals(rgb(background[0]), at.pixel(w / 2, h / 16), "clear");
+
+    assertEquals(rgb(Colour.RED), at.pixel(w / 4, h / 4), "circle");
+
+    assertEquals(rgb(Colour.GREEN), at.pixel(w / 4 + r, 3 * h / 4), "ring");
+    assertEquals(rgb(background[0]), at.pixel(w / 4, 3 * h / 4), "inside ring");
+
+    assertEquals(rgb(Colour.BLUE), at.pixel(3 * w / 4, h / 4), "rounded rect");
+    // within the rectangle's bounds, but outside the circle of the rounded corner
+    assertEquals(rgb(background[0]), at.pixel(w / 2 + w / 8 + r / 24, h / 8 + r / 24),
+        "rounded-off rect corner");
+
+    assertEquals(rgb(Colour.YELLOW), at.pixel(w / 2 + w / 8, 3 * h / 4), "border");
+    assertEquals(rgb(background[0]), at.pixel(3 * w / 4, 3 * h / 4), "inside border");
+
+    int blended = at.pixel(w / 2, h / 2);
+    for (int shift = 0; shift < 24; shift += 8) {
+      int bg = rgb(background[0]) >> shift & 0xFF;
+      int expected = bg + (255 - bg) * 128 / 255;
+      int actual = blended >> shift & 0xFF;
+      assertTrue(Math.abs(expected - actual) <= 2, String.format(
+          "translucent circle: expected ~%s, got %s", Integer.toHexString(expected),
+          Integer.toHexString(actual)));
+    }
+  }
+
+  /**
+   * @param rgba A packed colour
+   * @return The colour in the format of {@link BufferedImage#getRGB(int, int)}, without alpha
+   */
+  private static int rgb(int rgba) {
+    return Colour.redi(rgba) << 16 | Colour.greeni(rgba) << 8 | Colour.bluei(rgba);
+  }
+
+  /**
+   * Reads pixels from a capture at logical coordinates
+   */
+  private static class Sampler {
+
+    private final BufferedImage image;
+    private final Vector2f logical;
+
+    Sampler(BufferedImage image, Vector2f logical) {
+      this.image = image;
+      this.logical = logical;
+    }
+
+    /**
+     * @param x The logical x coordinate
+     * @param y The logical y coordinate, increasing upwards
+     * @return The colour of the pixel, without alpha
+     */
+    int pixel(float x, float y) {
+      int px = (int) (x / logical.x * image.getWidth());
+      int py = image.getHeight() - 1 - (int) (y / logical.y * image.getHeight());
+      return image.getRGB(px, py) & 0xFFFFFF;
+    }
+  }
+}
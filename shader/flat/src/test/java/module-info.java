@@ -0,0 +1,15 @@
+module dev.flowty.gl.shader.flat {
+  requires java.desktop;
+  requires org.lwjgl;
+  requires org.lwjgl.opengl;
+  requires org.joml;
+  requires org.junit.jupiter.api;
+
+  requires dev.flowty.gl.shape;
+  requires dev.flowty.gl.shape.geometry;
+  requires dev.flowty.gl.shape.topology;
+  requires dev.flowty.gl.shader;
+  requires dev.flowty.gl.shader.test;
+  requires dev.flowty.gl.framework;
+  requires dev.flowty.gl.util;
+}
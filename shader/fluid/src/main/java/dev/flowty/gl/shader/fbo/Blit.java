@@ -1,40 +1,43 @@
 package dev.flowty.gl.shader.fbo;
 
-import static org.lwjgl.opengl.GL11.GL_FLOAT;
 import static org.lwjgl.opengl.GL11.GL_TRIANGLES;
-import static org.lwjgl.opengl.GL11.glDrawElements;
-import static org.lwjgl.opengl.GL11.glViewport;
-import static org.lwjgl.opengl.GL15.GL_ARRAY_BUFFER;
-import static org.lwjgl.opengl.GL15.GL_STATIC_DRAW;
-import static org.lwjgl.opengl.GL15.glBindBuffer;
-import static org.lwjgl.opengl.GL15.glBufferData;
-import static org.lwjgl.opengl.GL15.glDeleteBuffers;
-import static org.lwjgl.opengl.GL20.glEnableVertexAttribArray;
-import static org.lwjgl.opengl.GL20.glVertexAttribPointer;
-import static org.lwjgl.opengl.GL45.glCreateBuffers;
+import static org.lwjgl.opengl.GL11.glDrawArrays;
+import static org.lwjgl.opengl.GL30.glGenVertexArrays;
 
-import java.nio.IntBuffer;
+import dev.flowty.gl.shader.GLState;
 import org.joml.Vector2ic;
-import org.lwjgl.BufferUtils;
 
 /**
- * Draws a single screen-sized quad to a {@link TextureFBO} target
+ * Covers a {@link TextureFBO} target, or the display, with a single triangle that is big enough to
+ * contain the whole viewport:
+ *
+ * <pre>
+ * 2
+ * │ ╲
+ * │   ╲
+ * ├───┐ ╲
+ * │   │   ╲
+ * 0───┴─────1
+ * </pre>
+ * <p>
+ * There is no vertex data: the vertex shader of the program in use is expected to derive the
+ * clip-space position from <code>gl_VertexID</code>, e.g.:
+ * </p>
+ * <pre>
+ * vec2 vertex = vec2((gl_VertexID &amp; 1) &lt;&lt; 2, (gl_VertexID &amp; 2) &lt;&lt; 1) - 1.0;
+ * </pre>
+ * <p>
+ * This gives vertices at <code>(-1,-1)</code>, <code>(3,-1)</code> and <code>(-1,3)</code>, so
+ * <code>vertex * 0.5 + 0.5</code> yields texture coordinates that span 0 to 1 over the viewport.
+ * As there is no diagonal seam between two triangles, every fragment is shaded exactly once.
+ * </p>
  */
 public class Blit {
 
-  private static final float[] VERTICES = {
-      -1, -1,
-      -1, 1,
-      1, 1,
-      1, -1};
-
-  private int vertexBuffer = 0;
-
-  private static final IntBuffer INDICES = BufferUtils.createIntBuffer(6);
-
-  static {
-    INDICES.put(0, new int[]{0, 1, 2, 0, 2, 3});
-  }
+  /**
+   * An empty vertex array, as drawing requires one to be bound
+   */
+  private int vertexArrayHandle = -1;
 
   /**
    * Draws to a target FBO
@@ -53,28 +56,26 @@ public class Blit {
    */
   public void toDisplay(Vector2ic resolution) {
     TextureFBO.unbind();
-    glViewport(0, 0, resolution.x(), resolution.y());
+    GLState.viewport(0, 0, resolution.x(), resolution.y());
     render();
   }
 
   private void render() {
-    if (vertexBuffer == 0) {
-      vertexBuffer = glCreateBuffers();
+    if (vertexArrayHandle == -1) {
+      vertexArrayHandle = glGenVertexArrays();
     }
-    glBindBuffer(GL_ARRAY_BUFFER, vertexBuffer);
-    glBufferData(GL_ARRAY_BUFFER, VERTICES, GL_STATIC_DRAW);
-    glEnableVertexAttribArray(CopyProgram.VERTEX_ARRAY_ATTRIBUTE_INDEX);
-    glVertexAttribPointer(CopyProgram.VERTEX_ARRAY_ATTRIBUTE_INDEX,
-        2, GL_FLOAT, false, 0, 0);
-
-    glDrawElements(GL_TRIANGLES, INDICES);
+    GLState.bindVertexArray(vertexArrayHandle);
+    glDrawArrays(GL_TRIANGLES, 0, 3);
+    GLState.bindVertexArray(0);
   }
 
   /**
-   * Deletes our geometry buffers
+   * Deletes our vertex array
    */
   public void destroy() {
-    glDeleteBuffers(vertexBuffer);
-    vertexBuffer = 0;
+    if (vertexArrayHandle != -1) {
+      GLState.deleteVertexArray(vertexArrayHandle);
+      vertexArrayHandle = -1;
+    }
   }
 }
@@ -14,10 +14,6 @@ public class CopyProgram extends Program {
    * The texture unit to copy from
    */
   public final TextureUnitId source = new TextureUnitId(this, "uTexture");
-  /**
-   * The vertex array attribute index for vertex position data
-   */
-  public static final int VERTEX_ARRAY_ATTRIBUTE_INDEX = 0;
 
   /***/
   public CopyProgram() {
@@ -26,11 +22,11 @@ public class CopyProgram extends Program {
             #version 330 core
             precision highp float;
             
-            layout (location = 0) in vec2 vertex;
-            
             smooth out vec2 vUv;
             
             void main () {
+              // one oversized triangle that covers the viewport, see Blit
+              vec2 vertex = vec2((gl_VertexID & 1) << 2, (gl_VertexID & 2) << 1) - 1.0;
               vUv = vertex * 0.5 + 0.5;
               gl_Position = vec4(vertex, 0.0, 1.0);
             }"""),
@@ -1,41 +1,31 @@
 package dev.flowty.gl.shader.fbo;
 
 import static org.lwjgl.opengl.GL11.GL_COLOR_BUFFER_BIT;
-import static org.lwjgl.opengl.GL11.GL_FLOAT;
 import static org.lwjgl.opengl.GL11.GL_LINEAR;
 import static org.lwjgl.opengl.GL11.GL_NEAREST;
-import static org.lwjgl.opengl.GL11.GL_RED;
-import static org.lwjgl.opengl.GL11.GL_RGBA;
 import static org.lwjgl.opengl.GL11.GL_TEXTURE_2D;
 import static org.lwjgl.opengl.GL11.GL_TEXTURE_MAG_FILTER;
 import static org.lwjgl.opengl.GL11.GL_TEXTURE_MIN_FILTER;
 import static org.lwjgl.opengl.GL11.GL_TEXTURE_WRAP_S;
 import static org.lwjgl.opengl.GL11.GL_TEXTURE_WRAP_T;
-import static org.lwjgl.opengl.GL11.glBindTexture;
 import static org.lwjgl.opengl.GL11.glClear;
-import static org.lwjgl.opengl.GL11.glDeleteTextures;
-import static org.lwjgl.opengl.GL11.glTexImage2D;
-import static org.lwjgl.opengl.GL11.glTexParameterf;
-import static org.lwjgl.opengl.GL11.glViewport;
 import static org.lwjgl.opengl.GL12.GL_CLAMP_TO_EDGE;
 import static org.lwjgl.opengl.GL13.GL_TEXTURE0;
-import static org.lwjgl.opengl.GL13.glActiveTexture;
 import static org.lwjgl.opengl.GL30.GL_COLOR_ATTACHMENT0;
 import static org.lwjgl.opengl.GL30.GL_FRAMEBUFFER;
 import static org.lwjgl.opengl.GL30.GL_R16F;
-import static org.lwjgl.opengl.GL30.GL_RG;
 import static org.lwjgl.opengl.GL30.GL_RG16F;
 import static org.lwjgl.opengl.GL30.GL_RGBA16F;
-import static org.lwjgl.opengl.GL30.glBindFramebuffer;
-import static org.lwjgl.opengl.GL30.glDeleteFramebuffers;
 import static org.lwjgl.opengl.GL30.glFramebufferTexture2D;
 import static org.lwjgl.opengl.GL45.glCreateFramebuffers;
+import static org.lwjgl.opengl.GL45.glCreateTextures;
+import static org.lwjgl.opengl.GL45.glTextureParameteri;
+import static org.lwjgl.opengl.GL45.glTextureStorage2D;
 
-import java.nio.ByteBuffer;
+import dev.flowty.gl.shader.GLState;
 import org.joml.Vector2i;
 import org.joml.Vector2ic;
 import org.lwjgl.opengl.GL13;
-import org.lwjgl.opengl.GL45;
 
 /**
  * Represents a
@@ -51,23 +41,21 @@ public class TextureFBO {
     /**
      * 4 float channels
      */
-    RGBA(GL_RGBA16F, GL_RGBA),
+    RGBA(GL_RGBA16F),
     /**
      * 2 float channels
      */
-    RG(GL_RG16F, GL_RG),
+    RG(GL_RG16F),
     /**
      * 1 float channel
      */
-    R(GL_R16F, GL_RED),
+    R(GL_R16F),
     ;
 
     private final int internalFormat;
-    private final int format;
 
-    Format(int internalFormat, int format) {
+    Format(int internalFormat) {
       this.internalFormat = internalFormat;
-      this.format = format;
     }
   }
 
@@ -137,9 +125,9 @@ public class TextureFBO {
    * Deletes the framebuffer and texture
    */
   public void destroy() {
-    glDeleteFramebuffers(fbo);
+    GLState.deleteFramebuffer(fbo);
     fbo = 0;
-    glDeleteTextures(texture);
+    GLState.deleteTexture(texture);
     texture = 0;
   }
 
@@ -151,8 +139,7 @@ public class TextureFBO {
    * @see GL13#GL_TEXTURE0
    */
   public int attach(int textureUnit) {
-    glActiveTexture(textureUnit);
-    glBindTexture(GL_TEXTURE_2D, texture());
+    GLState.bindTexture(textureUnit, texture());
     return textureUnit;
   }
 
@@ -160,27 +147,26 @@ public class TextureFBO {
    * Sets this FBO as the render target
    */
   public void bind() {
-    glViewport(0, 0, size.x(), size.y());
-    glBindFramebuffer(GL_FRAMEBUFFER, fbo());
+    GLState.viewport(0, 0, size.x(), size.y());
+    GLState.bindFramebuffer(fbo());
   }
 
   /**
    * Unsets all FBO render targets
    */
   public static void unbind() {
-    glBindFramebuffer(GL_FRAMEBUFFER, 0);
+    GLState.bindFramebuffer(0);
   }
 
   private int texture() {
     if (texture == 0) {
-      texture = GL45.glCreateTextures(GL_TEXTURE_2D);
-      glBindTexture(GL_TEXTURE_2D, texture);
-      glTexParameterf(GL_TEXTURE_2D, GL_TEXTURE_MIN_FILTER, filter.filter);
-      glTexParameterf(GL_TEXTURE_2D, GL_TEXTURE_MAG_FILTER, filter.filter);
-      glTexParameterf(GL_TEXTURE_2D, GL_TEXTURE_WRAP_S, GL_CLAMP_TO_EDGE);
-      glTexParameterf(GL_TEXTURE_2D, GL_TEXTURE_WRAP_T, GL_CLAMP_TO_EDGE);
-      glTexImage2D(GL_TEXTURE_2D, 0, format.internalFormat, size.x(), size.y(), 0, format.format,
-          GL_FLOAT, (ByteBuffer) null);
+      // direct state access, so creation doesn't disturb any texture unit bindings
+      texture = glCreateTextures(GL_TEXTURE_2D);
+      glTextureParameteri(texture, GL_TEXTURE_MIN_FILTER, filter.filter);
+      glTextureParameteri(texture, GL_TEXTURE_MAG_FILTER, filter.filter);
+      glTextureParameteri(texture, GL_TEXTURE_WRAP_S, GL_CLAMP_TO_EDGE);
+      glTextureParameteri(texture, GL_TEXTURE_WRAP_T, GL_CLAMP_TO_EDGE);
+      glTextureStorage2D(texture, 1, format.internalFormat, size.x(), size.y());
     }
     return texture;
   }
@@ -188,9 +174,9 @@ public class TextureFBO {
   private int fbo() {
     if (fbo == 0) {
       fbo = glCreateFramebuffers();
-      glBindFramebuffer(GL_FRAMEBUFFER, fbo);
+      GLState.bindFramebuffer(fbo);
       glFramebufferTexture2D(GL_FRAMEBUFFER, GL_COLOR_ATTACHMENT0, GL_TEXTURE_2D, texture(), 0);
-      glViewport(0, 0, size.x(), size.y());
+      GLState.viewport(0, 0, size.x(), size.y());
       glClear(GL_COLOR_BUFFER_BIT);
     }
     return fbo;
@@ -5,12 +5,11 @@ import static org.lwjgl.opengl.GL11.GL_BLEND;
 import static org.lwjgl.opengl.GL11.GL_ONE;
 import static org.lwjgl.opengl.GL11.GL_ONE_MINUS_SRC_ALPHA;
 import static org.lwjgl.opengl.GL11.GL_SRC_ALPHA;
-import static org.lwjgl.opengl.GL11.glBlendFunc;
-import static org.lwjgl.opengl.GL11.glDisable;
-import static org.lwjgl.opengl.GL11.glEnable;
 import static org.lwjgl.opengl.GL13.GL_TEXTURE0;
 import static org.lwjgl.opengl.GL13.GL_TEXTURE1;
 
+import dev.flowty.gl.shader.GLState;
+import dev.flowty.gl.shader.Program;
 import dev.flowty.gl.shader.fbo.Blit;
 import dev.flowty.gl.shader.fbo.BufferedTextureFBO;
 import dev.flowty.gl.shader.fbo.CopyProgram;
@@ -18,6 +17,7 @@ import dev.flowty.gl.shader.fbo.TextureFBO;
 import dev.flowty.gl.shader.fbo.TextureFBO.Filter;
 import dev.flowty.gl.shader.fbo.TextureFBO.Format;
 import dev.flowty.gl.shader.flat.FlatColourRenderer;
+import java.util.List;
 import org.joml.Vector2fc;
 import org.joml.Vector2i;
 import org.joml.Vector2ic;
@@ -78,6 +78,17 @@ public class FluidSimulation {
   private final VelocityRenderer velocityRenderer = new VelocityRenderer(8);
   private final FloatRenderer pressureRenderer = new FloatRenderer(8);
 
+  /**
+   * @return The programs used by the simulation, e.g.: to be compiled up-front via a
+   * {@link dev.flowty.gl.shader.ProgramBatch}
+   */
+  public List<Program> programs() {
+    return List.of(
+        copyProgram, clearProgram, advectionProgram, divergenceProgram, curlProgram,
+        vorticityProgram, pressureProgram, gradientSubtractProgram, splatProgram, displayProgram,
+        dyeRenderer.program(), velocityRenderer.program(), pressureRenderer.program());
+  }
+
   /**
    * Call this to update the screen resolution
    *
@@ -179,7 +190,7 @@ public class FluidSimulation {
     pressureRenderer.render();
 
     // then we get into the meat of the simulation...
-    glDisable(GL_BLEND);
+    GLState.disable(GL_BLEND);
 
     // curl data updated from velocity
     curlProgram.velocity.set(velocity.read().attach(GL_TEXTURE0));
@@ -252,12 +263,12 @@ public class FluidSimulation {
    * @param resolution in pixels
    */
   public void render(Vector2ic resolution) {
-    glEnable(GL_BLEND);
-    glBlendFunc(GL_ONE, GL_ONE_MINUS_SRC_ALPHA);
+    GLState.enable(GL_BLEND);
+    GLState.blendFunc(GL_ONE, GL_ONE_MINUS_SRC_ALPHA);
     displayProgram.source.set(dye.read().attach(GL_TEXTURE0));
     displayProgram.use();
     blit.toDisplay(resolution);
-    glBlendFunc(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA);
+    GLState.blendFunc(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA);
   }
 
   private void setRes(Vector2i res, int min) {
@@ -32,8 +32,6 @@ class GradientSubtractProgram extends Program {
             #version 330 core
             precision highp float;
             
-            layout (location = 0) in vec2 vertex;
-            
             smooth out vec2 vUv;
             smooth out vec2 vL;
             smooth out vec2 vR;
@@ -43,6 +41,8 @@ class GradientSubtractProgram extends Program {
             uniform vec2 texelSize;
             
             void main () {
+              // one oversized triangle that covers the viewport, see Blit
+              vec2 vertex = vec2((gl_VertexID & 1) << 2, (gl_VertexID & 2) << 1) - 1.0;
               vUv = vertex * 0.5 + 0.5;
               vL = vUv - vec2(texelSize.x, 0.0);
               vR = vUv + vec2(texelSize.x, 0.0);
@@ -1,19 +1,13 @@
 package dev.flowty.gl.shader.fluid;
 
 import static org.lwjgl.opengl.GL11.GL_FLOAT;
-import static org.lwjgl.opengl.GL15.GL_ARRAY_BUFFER;
-import static org.lwjgl.opengl.GL15.GL_DYNAMIC_DRAW;
-import static org.lwjgl.opengl.GL15.glBindBuffer;
-import static org.lwjgl.opengl.GL15.glBufferData;
-import static org.lwjgl.opengl.GL15.glGenBuffers;
 import static org.lwjgl.opengl.GL20.glVertexAttribPointer;
 
 import dev.flowty.gl.shader.flat.AbstractFlatColourRenderer;
 import dev.flowty.gl.shader.flat.FlatColourProgram;
 import dev.flowty.gl.shape.Shape;
-import java.nio.FloatBuffer;
+import java.nio.ByteBuffer;
 import org.joml.Vector2fc;
-import org.lwjgl.BufferUtils;
 
 /**
  * Used to draw <code>float (x,y)</code> vector data onto the fluid simulation's velocity data
@@ -21,15 +15,11 @@ import org.lwjgl.BufferUtils;
  */
 public class VelocityRenderer extends AbstractFlatColourRenderer<VelocityRenderer> {
 
-  private FloatBuffer components;
-  private int componentBufferHandle = -1;
-
   /**
    * @param stackdepth The size of the matrix stack
    */
   public VelocityRenderer(int stackdepth) {
-    super(stackdepth);
-    components = BufferUtils.createFloatBuffer(DEFAULT_VERTEX_COUNT * 2);
+    super(stackdepth, 2 * Float.BYTES);
   }
 
   /**
@@ -40,41 +30,23 @@ public class VelocityRenderer extends AbstractFlatColourRenderer<VelocityRendere
    * @return <code>this</code>
    */
   public VelocityRenderer draw(Shape s, Vector2fc velocity) {
-    addGeometry(s);
+    int offset = addGeometry(s);
+    if (offset < 0) {
+      // culled
+      return this;
+    }
+    ByteBuffer data = vertexData();
     for (int i = 0; i < s.vertices(); i++) {
-      components.put(velocity.x());
-      components.put(velocity.y());
+      data.putFloat(offset, velocity.x());
+      data.putFloat(offset + Float.BYTES, velocity.y());
+      offset += stride();
     }
     return this;
   }
 
-  private int componentBufferHandle() {
-    if (componentBufferHandle == -1) {
-      componentBufferHandle = glGenBuffers();
-    }
-    return componentBufferHandle;
-  }
-
-  @Override
-  protected void growColours() {
-    FloatBuffer grownComponents = BufferUtils.createFloatBuffer(components.capacity() * 2);
-    components.flip();
-    grownComponents.put(components);
-    components = grownComponents;
-  }
-
   @Override
-  protected void bindColours() {
-    components.flip();
-    glBindBuffer(GL_ARRAY_BUFFER, componentBufferHandle());
-    glBufferData(GL_ARRAY_BUFFER, components, GL_DYNAMIC_DRAW);
+  protected void colourPointer(int stride, long offset) {
     glVertexAttribPointer(FlatColourProgram.COLOUR_ARRAY_ATTRIBUTE_INDEX,
-        2, GL_FLOAT, false, 0, 0);
-  }
-
-  @Override
-  protected void clearColours() {
-    components.clear();
+        2, GL_FLOAT, false, stride, offset);
   }
-
 }
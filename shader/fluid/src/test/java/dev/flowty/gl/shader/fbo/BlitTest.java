@@ -0,0 +1,204 @@
+package dev.flowty.gl.shader.fbo;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.lwjgl.opengl.GL11.GL_COLOR_BUFFER_BIT;
+import static org.lwjgl.opengl.GL11.GL_FLOAT;
+import static org.lwjgl.opengl.GL11.GL_RGBA;
+import static org.lwjgl.opengl.GL11.GL_SCISSOR_TEST;
+import static org.lwjgl.opengl.GL11.GL_TRIANGLES;
+import static org.lwjgl.opengl.GL11.glClear;
+import static org.lwjgl.opengl.GL11.glClearColor;
+import static org.lwjgl.opengl.GL11.glDrawElements;
+import static org.lwjgl.opengl.GL11.glFinish;
+import static org.lwjgl.opengl.GL11.glReadPixels;
+import static org.lwjgl.opengl.GL11.glScissor;
+import static org.lwjgl.opengl.GL13.GL_TEXTURE0;
+import static org.lwjgl.opengl.GL15.GL_ARRAY_BUFFER;
+import static org.lwjgl.opengl.GL15.GL_STATIC_DRAW;
+import static org.lwjgl.opengl.GL15.glBufferData;
+import static org.lwjgl.opengl.GL20.glEnableVertexAttribArray;
+import static org.lwjgl.opengl.GL20.glVertexAttribPointer;
+import static org.lwjgl.opengl.GL45.glCreateBuffers;
+
+import dev.flowty.gl.shader.GLState;
+import dev.flowty.gl.shader.fbo.TextureFBO.Filter;
+import dev.flowty.gl.shader.fbo.TextureFBO.Format;
+import dev.flowty.gl.shader.test.RenderTest;
+import java.nio.IntBuffer;
+import org.joml.Vector2i;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledIfSystemProperty;
+import org.lwjgl.BufferUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Exercises {@link Blit}
+ */
+@DisabledIfSystemProperty(named = "ci", matches = "true",
+    disabledReason = "no gfx support")
+class BlitTest {
+
+  private static final Logger LOG = LoggerFactory.getLogger(BlitTest.class);
+
+  private static final int SIZE = 8;
+  private static final int PASSES = 2000;
+
+  /**
+   * Copying between equally-sized buffers should reproduce every pixel exactly, just as the
+   * two-triangle quad that it replaced did. A seam or an off-by-half-a-pixel error in the texture
+   * coordinates would show up as a mismatch.
+   */
+  @Test
+  void copy() {
+    float[] expected = pattern();
+    float[] actual = new float[expected.length];
+    boolean[] done = {false};
+
+    new RenderTest(display -> {
+      if (!done[0]) {
+        done[0] = true;
+        TextureFBO source = new TextureFBO(new Vector2i(SIZE, SIZE), Format.RGBA, Filter.NEAREST);
+        TextureFBO target = new TextureFBO(new Vector2i(SIZE, SIZE), Format.RGBA, Filter.NEAREST);
+        CopyProgram copy = new CopyProgram();
+        Blit blit = new Blit();
+
+        // paint the pattern into the source, one pixel at a time
+        source.bind();
+        GLState.enable(GL_SCISSOR_TEST);
+        for (int i = 0; i < expected.length; i += 4) {
+          int pixel = i / 4;
+          glScissor(pixel % SIZE, pixel / SIZE, 1, 1);
+          glClearColor(expected[i], expected[i + 1], expected[i + 2], expected[i + 3]);
+          glClear(GL_COLOR_BUFFER_BIT);
+        }
+        GLState.disable(GL_SCISSOR_TEST);
+
+        copy.from(source.attach(GL_TEXTURE0));
+        copy.use();
+        blit.to(target);
+        glReadPixels(0, 0, SIZE, SIZE, GL_RGBA, GL_FLOAT, actual);
+
+        TextureFBO.unbind();
+        blit.destroy();
+        copy.delete();
+        source.destroy();
+        target.destroy();
+      }
+    }).run();
+
+    assertArrayEquals(expected, actual);
+  }
+
+  /**
+   * @return RGBA values that differ for every pixel, and that are exactly representable in the
+   * half-float texture format
+   */
+  private static float[] pattern() {
+    float[] rgba = new float[SIZE * SIZE * 4];
+    for (int y = 0; y < SIZE; y++) {
+      for (int x = 0; x < SIZE; x++) {
+        int i = (y * SIZE + x) * 4;
+        rgba[i] = (float) x / SIZE;
+        rgba[i + 1] = (float) y / SIZE;
+        rgba[i + 2] = (float) (x + y) / (2 * SIZE);
+        rgba[i + 3] = 1;
+      }
+    }
+    return rgba;
+  }
+
+  /**
+   * Compares the CPU cost of issuing a pass via the previous implementation - which respecified a
+   * quad and drew it from client-side indices on every pass - against the current attributeless
+   * triangle. The GPU work is identical, so the difference is all in the driver calls.
+   */
+  @Test
+  void benchmark() {
+    long[] perPassNanos = new long[2];
+
+    new RenderTest(display -> {
+      if (perPassNanos[0] == 0) {
+        TextureFBO source = new TextureFBO(new Vector2i(256, 256), Format.RGBA, Filter.NEAREST);
+        TextureFBO target = new TextureFBO(new Vector2i(256, 256), Format.RGBA, Filter.NEAREST);
+        CopyProgram copy = new CopyProgram();
+        copy.from(source.attach(GL_TEXTURE0));
+        copy.use();
+        Blit blit = new Blit();
+        QuadBlit quad = new QuadBlit();
+
+        // warm up the driver and the JIT
+        time(() -> quad.to(target));
+        time(() -> blit.to(target));
+
+        perPassNanos[0] = time(() -> quad.to(target));
+        perPassNanos[1] = time(() -> blit.to(target));
+
+        TextureFBO.unbind();
+        quad.destroy();
+        blit.destroy();
+        copy.delete();
+        source.destroy();
+        target.destroy();
+      }
+    }).run();
+
+    LOG.info("Per-pass CPU time: {}ns with a respecified quad, {}ns with a triangle",
+        perPassNanos[0], perPassNanos[1]);
+    assertTrue(perPassNanos[0] > 0 && perPassNanos[1] > 0, "passes were not timed");
+  }
+
+  /**
+   * @param pass A blit pass
+   * @return The average CPU time taken to issue the pass, in nanoseconds
+   */
+  private static long time(Runnable pass) {
+    glFinish();
+    long start = System.nanoTime();
+    for (int i = 0; i < PASSES; i++) {
+      pass.run();
+    }
+    long end = System.nanoTime();
+    glFinish();
+    return (end - start) / PASSES;
+  }
+
+  /**
+   * How {@link Blit} used to work
+   */
+  private static class QuadBlit {
+
+    private static final float[] VERTICES = {
+        -1, -1,
+        -1, 1,
+        1, 1,
+        1, -1};
+    private static final IntBuffer INDICES = BufferUtils.createIntBuffer(6);
+
+    static {
+      INDICES.put(0, new int[]{0, 1, 2, 0, 2, 3});
+    }
+
+    private int vertexBuffer = 0;
+
+    void to(TextureFBO target) {
+      target.bind();
+      if (vertexBuffer == 0) {
+        vertexBuffer = glCreateBuffers();
+      }
+      // client-side indices need the default vertex array
+      GLState.bindVertexArray(0);
+      GLState.bindBuffer(GL_ARRAY_BUFFER, vertexBuffer);
+      glBufferData(GL_ARRAY_BUFFER, VERTICES, GL_STATIC_DRAW);
+      glEnableVertexAttribArray(0);
+      glVertexAttribPointer(0, 2, GL_FLOAT, false, 0, 0);
+      glDrawElements(GL_TRIANGLES, INDICES);
+    }
+
+    void destroy() {
+      GLState.deleteBuffer(vertexBuffer);
+      vertexBuffer = 0;
+    }
+  }
+}
@@ -1,10 +1,25 @@
 package dev.flowty.gl.shader.fluid;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import dev.flowty.gl.shader.Program;
+import dev.flowty.gl.shader.ProgramBatch;
+import dev.flowty.gl.shader.ProgramCache;
 import dev.flowty.gl.shader.test.RenderTest;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
 import org.joml.Vector2f;
 import org.joml.Vector3f;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.condition.DisabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
 
 /**
  * Exercises {@link FluidSimulation}
@@ -119,4 +134,87 @@ class FluidSimulationTest {
 
     }).assertRenderResults();
   }
+
+  /**
+   * Compiles the simulation's programs as a loading screen would: polling the batch once per
+   * frame, so the render loop is never blocked for more than one program at a time
+   */
+  @Test
+  void loading() {
+    List<Float> progress = new ArrayList<>();
+    ProgramBatch[] batch = {null};
+    boolean[] ready = {false, false};
+
+    new RenderTest(display -> {
+      if (batch[0] == null) {
+        fluid = new FluidSimulation();
+        batch[0] = new ProgramBatch(fluid.programs()).start();
+        progress.add(batch[0].progress());
+      }
+      if (!ready[0]) {
+        ready[0] = batch[0].poll() == 0;
+        progress.add(batch[0].progress());
+        if (ready[0]) {
+          ready[1] = fluid.programs().stream().allMatch(Program::ready);
+        }
+      }
+    })
+        .until(() -> ready[0])
+        .run();
+
+    assertEquals(0, progress.getFirst(), "initial progress " + progress);
+    assertEquals(1, progress.getLast(), "final progress " + progress);
+    for (int i = 1; i < progress.size(); i++) {
+      assertTrue(progress.get(i) >= progress.get(i - 1), "progress went backwards " + progress);
+    }
+    assertTrue(ready[1], "programs not ready");
+  }
+
+  /**
+   * Compiles the simulation's programs in two separate contexts with the binary cache enabled.
+   * The first build has to compile everything from source, the second should load it all from the
+   * cache.
+   *
+   * @param directory Where to store the program binaries
+   * @throws IOException if the cache directory can't be listed
+   */
+  @Test
+  void cached(@TempDir Path directory) throws IOException {
+    ProgramCache cache = new ProgramCache(directory);
+    Program.cache(cache);
+    try {
+      int programs = compile();
+      assertNotEquals(0, programs, "programs were not compiled");
+      assertEquals(0, cache.hits(), "first build: " + cache);
+      assertEquals(programs, cache.misses(), "first build: " + cache);
+
+      try (Stream<Path> files = Files.list(directory)) {
+        assumeTrue(files.findAny().isPresent(), "no program binary support");
+      }
+
+      compile();
+      assertEquals(programs, cache.hits(), "rebuild: " + cache);
+      assertEquals(programs, cache.misses(), "rebuild: " + cache);
+    } finally {
+      Program.cache(null);
+    }
+  }
+
+  /**
+   * Compiles the simulation's programs in a fresh context
+   *
+   * @return The number of programs
+   */
+  private static int compile() {
+    int[] programs = {0};
+    new RenderTest(display -> {
+      if (programs[0] == 0) {
+        FluidSimulation simulation = new FluidSimulation();
+        new ProgramBatch(simulation.programs()).finish();
+        programs[0] = simulation.programs().size();
+        simulation.destroy();
+      }
+    }).run();
+    return programs[0];
+  }
 }
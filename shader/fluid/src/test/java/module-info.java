@@ -4,6 +4,7 @@ module dev.flowty.gl.shader.fluid {
   requires org.lwjgl.glfw;
   requires org.joml;
   requires org.junit.jupiter.api;
+  requires org.slf4j;
 
   requires dev.flowty.gl.shape;
   requires dev.flowty.gl.shader;
@@ -12,6 +12,7 @@ import java.lang.StackWalker.StackFrame;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Optional;
+import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
 import java.util.function.IntUnaryOperator;
 import javax.imageio.ImageIO;
@@ -29,6 +30,7 @@ public class RenderTest {
   private final Consumer<Display> render;
   private Optional<Vector2i> trimTo = Optional.empty();
   private Optional<IntUnaryOperator> pixels = Optional.empty();
+  private BooleanSupplier finished = () -> true;
 
   /**
    * @param render The render behaviour to test
@@ -87,7 +89,7 @@ public class RenderTest {
 
     @Override
     public boolean advance(float delta) {
-      if (drawCount > 1) {
+      if (drawCount > 1 && finished.getAsBoolean()) {
         ScreenShot.capture(actual);
         return false;
       }
@@ -101,6 +103,18 @@ public class RenderTest {
     }
   };
 
+  /**
+   * By default two frames are drawn before the result is captured. Call this to keep drawing
+   * until some condition is met, e.g.: when the render behaviour completes work incrementally.
+   *
+   * @param condition Checked after each frame from the second onwards
+   * @return <code>this</code>
+   */
+  public RenderTest until(BooleanSupplier condition) {
+    finished = condition;
+    return this;
+  }
+
   public RenderTest trimmingTo(int width, int height) {
     trimTo = Optional.of(new Vector2i(width, height));
     return this;
@@ -111,11 +125,19 @@ public class RenderTest {
     return this;
   }
 
+  /**
+   * Call this to provoke the rendering without checking the results, e.g.: when the test makes
+   * its own assertions
+   */
+  public void run() {
+    new Runner(game).run();
+  }
+
   /**
    * Call this to provoke the rendering and result comparison
    */
   public void assertRenderResults() {
-    new Runner(game).run();
+    run();
 
     trimTo.ifPresent(size -> {
       try {
@@ -51,6 +51,42 @@ public class Bounds {
     return include(bounds.min).include(bounds.max);
   }
 
+  /**
+   * Sets the extent of the bounds
+   *
+   * @param minX The minimum x coordinate
+   * @param minY The minimum y coordinate
+   * @param minZ The minimum z coordinate
+   * @param maxX The maximum x coordinate
+   * @param maxY The maximum y coordinate
+   * @param maxZ The maximum z coordinate
+   * @return <code>this</code>
+   */
+  public Bounds set(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+    min.set(minX, minY, minZ);
+    max.set(maxX, maxY, maxZ);
+    return this;
+  }
+
+  /**
+   * Copies other bounds
+   *
+   * @param bounds The bounds to copy
+   * @return <code>this</code>
+   */
+  public Bounds set(Bounds bounds) {
+    min.set(bounds.min);
+    max.set(bounds.max);
+    return this;
+  }
+
+  /**
+   * @return <code>true</code> if the bounds encompass no space
+   */
+  public boolean isEmpty() {
+    return Float.isNaN(min.x) && Float.isNaN(min.y) && Float.isNaN(min.z);
+  }
+
   /**
    * Resets the {@link Bounds} to encompass no space
    *
@@ -0,0 +1,81 @@
+package dev.flowty.gl.shape;
+
+import java.util.List;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Combines many shapes into one, as with {@link Shape#Shape(Shape...)}, but copying the
+ * constituents concurrently. This is worthwhile when baking tens of thousands of shapes into a
+ * single mesh.
+ * <p>
+ * The vertex and index offsets of each constituent are found with a prefix sum, after which the
+ * constituents are independent and are copied and rebased on the common fork/join pool.
+ * </p>
+ */
+public final class Combine {
+
+  /**
+   * Below this number of constituents it's not worth going parallel
+   */
+  private static final int PARALLEL_THRESHOLD = 1 << 10;
+
+  private Combine() {
+    // no instances
+  }
+
+  /**
+   * Combines shapes into one geometry
+   *
+   * @param constituents The shapes to combine. These must not be altered during the call.
+   * @return The combined shape
+   */
+  public static Shape shapes(List<? extends Shape> constituents) {
+    return shapes(constituents, (s, o) -> {
+      // no extra data
+    });
+  }
+
+  /**
+   * Combines shapes into one geometry, along with any per-vertex data that they carry
+   *
+   * @param <S>          The shape type
+   * @param constituents The shapes to combine. These must not be altered during the call.
+   * @param extra        Called once per constituent, with the index of that constituent's first
+   *                     vertex in the combined shape, to copy other per-vertex data. This will be
+   *                     called concurrently.
+   * @return The combined shape
+   */
+  public static <S extends Shape> Shape shapes(List<S> constituents, ObjIntConsumer<S> extra) {
+    int n = constituents.size();
+
+    // prefix sums give each constituent its place in the output
+    int[] vertexOffsets = new int[n + 1];
+    int[] indexOffsets = new int[n + 1];
+    for (int i = 0; i < n; i++) {
+      Shape s = constituents.get(i);
+      vertexOffsets[i + 1] = Math.addExact(vertexOffsets[i], s.vertices.length);
+      indexOffsets[i + 1] = Math.addExact(indexOffsets[i], s.triangles.length);
+    }
+
+    float[] vertices = new float[vertexOffsets[n]];
+    int[] triangles = new int[indexOffsets[n]];
+
+    IntStream range = IntStream.range(0, n);
+    if (n >= PARALLEL_THRESHOLD) {
+      range = range.parallel();
+    }
+    range.forEach(i -> {
+      S s = constituents.get(i);
+      System.arraycopy(s.vertices, 0, vertices, vertexOffsets[i], s.vertices.length);
+      int base = vertexOffsets[i] / 3;
+      int ti = indexOffsets[i];
+      for (int triangle : s.triangles) {
+        triangles[ti++] = triangle + base;
+      }
+      extra.accept(s, base);
+    });
+
+    return new Shape(vertices, triangles);
+  }
+}
@@ -0,0 +1,335 @@
+package dev.flowty.gl.shape;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A compact binary file format for baked shapes, which can be memory-mapped and used without
+ * parsing. The layout, with multi-byte values in little-endian order, is:
+ * <ol>
+ *   <li>A 40-byte header:
+ *   <ul>
+ *     <li>the magic number {@value #MAGIC}</li>
+ *     <li>a 16-bit format version and 16 bits of flags</li>
+ *     <li>the vertex count</li>
+ *     <li>the triangle index count</li>
+ *     <li>the minimum corner and extent of the shape's bounding box, as six floats</li>
+ *   </ul></li>
+ *   <li>Vertex positions: either x,y,z floats, or x,y,z unsigned 16-bit values quantised across
+ *   the bounding box</li>
+ *   <li>Triangle indices: unsigned 16-bit if there are no more than
+ *   {@link NativeShape#SHORT_INDEX_LIMIT} vertices, 32-bit otherwise</li>
+ *   <li>Optionally, per-vertex colours as R,G,B,A bytes</li>
+ * </ol>
+ * Each block starts on a 4-byte boundary. Float positions and indices have the same layout as a
+ * {@link NativeShape}, so a mapped file can be {@link #nativeShape() wrapped} as one and handed
+ * directly to GL buffer uploads.
+ */
+public final class MeshFile {
+
+  /**
+   * Identifies the file format
+   */
+  public static final int MAGIC = 0x4D474446;
+  private static final int VERSION = 1;
+  private static final int FLAG_QUANTISED = 1;
+  private static final int FLAG_COLOURS = 2;
+  private static final int HEADER_BYTES = 40;
+
+  private static final ValueLayout.OfShort SHORT = ValueLayout.JAVA_SHORT_UNALIGNED
+      .withOrder(ByteOrder.LITTLE_ENDIAN);
+  private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED
+      .withOrder(ByteOrder.LITTLE_ENDIAN);
+  private static final ValueLayout.OfFloat FLOAT = ValueLayout.JAVA_FLOAT_UNALIGNED
+      .withOrder(ByteOrder.LITTLE_ENDIAN);
+
+  private final int flags;
+  private final int vertexCount;
+  private final int indexCount;
+  private final Bounds bounds = new Bounds();
+  private final MemorySegment positions;
+  private final MemorySegment indices;
+  private final MemorySegment colours;
+
+  private MeshFile(MemorySegment file) {
+    if (file.byteSize() < HEADER_BYTES || file.get(INT, 0) != MAGIC) {
+      throw new IllegalArgumentException("Not a mesh file");
+    }
+    int version = Short.toUnsignedInt(file.get(SHORT, 4));
+    if (version != VERSION) {
+      throw new IllegalArgumentException("Unsupported mesh file version " + version);
+    }
+    flags = Short.toUnsignedInt(file.get(SHORT, 6));
+    vertexCount = file.get(INT, 8);
+    indexCount = file.get(INT, 12);
+    bounds.set(
+        file.get(FLOAT, 16), file.get(FLOAT, 20), file.get(FLOAT, 24),
+        file.get(FLOAT, 16) + file.get(FLOAT, 28),
+        file.get(FLOAT, 20) + file.get(FLOAT, 32),
+        file.get(FLOAT, 24) + file.get(FLOAT, 36));
+
+    long offset = HEADER_BYTES;
+    long positionBytes = positionBytes(vertexCount, quantised());
+    positions = file.asSlice(offset, positionBytes);
+    offset = align(offset + positionBytes);
+    long indexBytes = (long) indexCount * indexBytes(vertexCount);
+    indices = file.asSlice(offset, indexBytes);
+    offset = align(offset + indexBytes);
+    colours = (flags & FLAG_COLOURS) != 0
+        ? file.asSlice(offset, (long) vertexCount * Integer.BYTES)
+        : null;
+  }
+
+  private static long positionBytes(int vertexCount, boolean quantised) {
+    return 3L * vertexCount * (quantised ? Short.BYTES : Float.BYTES);
+  }
+
+  private static int indexBytes(int vertexCount) {
+    return vertexCount <= NativeShape.SHORT_INDEX_LIMIT ? Short.BYTES : Integer.BYTES;
+  }
+
+  private static long align(long offset) {
+    return (offset + 3) & ~3L;
+  }
+
+  /**
+   * Writes a shape to a file
+   *
+   * @param shape The shape
+   * @param path  Where to write it
+   * @throws IOException If the file cannot be written
+   */
+  public static void write(Shape shape, Path path) throws IOException {
+    write(shape, null, false, path);
+  }
+
+  /**
+   * Writes a shape to a file
+   *
+   * @param shape    The shape
+   * @param colours  Per-vertex packed colours, or <code>null</code>
+   * @param quantise <code>true</code> to store positions in 16 bits per component, relative to the
+   *                 shape's bounding box. This halves the size of the position data, but the
+   *                 resulting file cannot be {@link #nativeShape() wrapped}.
+   * @param path     Where to write it
+   * @throws IOException If the file cannot be written
+   */
+  public static void write(Shape shape, int[] colours, boolean quantise, Path path)
+      throws IOException {
+    int vc = shape.vertices();
+    if (colours != null && colours.length != vc) {
+      throw new IllegalArgumentException(String.format(
+          "%s colours for %s vertices", colours.length, vc));
+    }
+    Bounds b = shape.bounds(new Bounds());
+    if (b.isEmpty()) {
+      b.set(0, 0, 0, 0, 0, 0);
+    }
+
+    long size = align(HEADER_BYTES + positionBytes(vc, quantise));
+    size = align(size + (long) shape.triangles.length * indexBytes(vc));
+    if (colours != null) {
+      size += (long) vc * Integer.BYTES;
+    }
+
+    try (Arena arena = Arena.ofConfined();
+        FileChannel channel = FileChannel.open(path,
+            StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      MemorySegment file = channel.map(FileChannel.MapMode.READ_WRITE, 0, size, arena);
+
+      float minX = b.min.x, minY = b.min.y, minZ = b.min.z;
+      float extX = b.max.x - minX, extY = b.max.y - minY, extZ = b.max.z - minZ;
+      file.set(INT, 0, MAGIC);
+      file.set(SHORT, 4, (short) VERSION);
+      file.set(SHORT, 6, (short) ((quantise ? FLAG_QUANTISED : 0)
+          | (colours != null ? FLAG_COLOURS : 0)));
+      file.set(INT, 8, vc);
+      file.set(INT, 12, shape.triangles.length);
+      file.set(FLOAT, 16, minX);
+      file.set(FLOAT, 20, minY);
+      file.set(FLOAT, 24, minZ);
+      file.set(FLOAT, 28, extX);
+      file.set(FLOAT, 32, extY);
+      file.set(FLOAT, 36, extZ);
+
+      long offset = HEADER_BYTES;
+      if (quantise) {
+        float[] min = {minX, minY, minZ};
+        float[] ext = {extX, extY, extZ};
+        for (int i = 0; i < shape.vertices.length; i++) {
+          float e = ext[i % 3];
+          float q = e == 0 ? 0 : (shape.vertices[i] - min[i % 3]) / e;
+          file.set(SHORT, offset, (short) Math.round(q * 0xFFFF));
+          offset += Short.BYTES;
+        }
+      } else {
+        MemorySegment.copy(shape.vertices, 0, file, FLOAT, offset, shape.vertices.length);
+        offset += (long) shape.vertices.length * Float.BYTES;
+      }
+
+      offset = align(offset);
+      if (indexBytes(vc) == Short.BYTES) {
+        for (int index : shape.triangles) {
+          file.set(SHORT, offset, (short) index);
+          offset += Short.BYTES;
+        }
+      } else {
+        MemorySegment.copy(shape.triangles, 0, file, INT, offset, shape.triangles.length);
+        offset += (long) shape.triangles.length * Integer.BYTES;
+      }
+
+      if (colours != null) {
+        offset = align(offset);
+        // colours are bytes in RGBA order, so are stored as they lie in memory
+        MemorySegment.copy(colours, 0, file, ValueLayout.JAVA_INT_UNALIGNED, offset,
+            colours.length);
+      }
+      file.force();
+    }
+  }
+
+  /**
+   * Maps a mesh file into memory
+   *
+   * @param path  The file
+   * @param arena Owns the mapping, which is released when the arena closes
+   * @return The mapped mesh
+   * @throws IOException If the file cannot be read
+   */
+  public static MeshFile map(Path path, Arena arena) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      return new MeshFile(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena));
+    }
+  }
+
+  /**
+   * @return The number of vertices
+   */
+  public int vertices() {
+    return vertexCount;
+  }
+
+  /**
+   * @return The number of triangle indices
+   */
+  public int indices() {
+    return indexCount;
+  }
+
+  /**
+   * @return <code>true</code> if the positions are quantised to 16 bits per component
+   */
+  public boolean quantised() {
+    return (flags & FLAG_QUANTISED) != 0;
+  }
+
+  /**
+   * @return <code>true</code> if the file holds per-vertex colours
+   */
+  public boolean hasColours() {
+    return colours != null;
+  }
+
+  /**
+   * @param b destination object
+   * @return The populated bounds of the shape, as stored in the header
+   */
+  public Bounds bounds(Bounds b) {
+    return b.set(bounds);
+  }
+
+  /**
+   * @return A view of the position data, suitable for passing to native APIs. If the positions are
+   * quantised this holds unsigned shorts, to be scaled by the bounds.
+   */
+  public ByteBuffer positionData() {
+    return positions.asByteBuffer().order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  /**
+   * @return A view of the index data, suitable for passing to native APIs. The index type is the
+   * same as that of a {@link NativeShape} of the same size.
+   */
+  public ByteBuffer indexData() {
+    return indices.asByteBuffer().order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  /**
+   * @return A view of the packed colour data, suitable for passing to native APIs, or
+   * <code>null</code> if the file has no colours
+   */
+  public ByteBuffer colourData() {
+    return colours == null ? null : colours.asByteBuffer().order(ByteOrder.nativeOrder());
+  }
+
+  /**
+   * Wraps the mapped data as a shape, without copying
+   *
+   * @return A shape backed by the file mapping
+   * @throws IllegalStateException if the positions are quantised, or if this platform is not
+   *                               little-endian
+   */
+  public NativeShape nativeShape() {
+    if (quantised()) {
+      throw new IllegalStateException("Quantised positions cannot be wrapped");
+    }
+    if (ByteOrder.nativeOrder() != ByteOrder.LITTLE_ENDIAN) {
+      throw new IllegalStateException("Mesh files are little-endian");
+    }
+    return new NativeShape(positions, indices);
+  }
+
+  /**
+   * Copies the mapped data onto the heap
+   *
+   * @return A new shape
+   */
+  public Shape shape() {
+    float[] vertices = new float[3 * vertexCount];
+    if (quantised()) {
+      float[] min = {bounds.min.x, bounds.min.y, bounds.min.z};
+      float[] ext = {
+          bounds.max.x - bounds.min.x,
+          bounds.max.y - bounds.min.y,
+          bounds.max.z - bounds.min.z};
+      for (int i = 0; i < vertices.length; i++) {
+        int q = Short.toUnsignedInt(positions.get(SHORT, (long) i * Short.BYTES));
+        vertices[i] = min[i % 3] + q * ext[i % 3] / 0xFFFF;
+      }
+    } else {
+      MemorySegment.copy(positions, FLOAT, 0, vertices, 0, vertices.length);
+    }
+
+    int[] triangles = new int[indexCount];
+    if (indexBytes(vertexCount) == Short.BYTES) {
+      for (int i = 0; i < triangles.length; i++) {
+        triangles[i] = Short.toUnsignedInt(indices.get(SHORT, (long) i * Short.BYTES));
+      }
+    } else {
+      MemorySegment.copy(indices, INT, 0, triangles, 0, triangles.length);
+    }
+    return new Shape(vertices, triangles);
+  }
+
+  /**
+   * Copies the colour data onto the heap
+   *
+   * @return Per-vertex packed colours, or <code>null</code> if the file has none
+   */
+  public int[] colours() {
+    if (colours == null) {
+      return null;
+    }
+    int[] c = new int[vertexCount];
+    MemorySegment.copy(colours, ValueLayout.JAVA_INT_UNALIGNED, 0, c, 0, c.length);
+    return c;
+  }
+}
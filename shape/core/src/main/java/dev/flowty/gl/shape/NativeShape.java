@@ -0,0 +1,257 @@
+package dev.flowty.gl.shape;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import org.joml.Matrix4fc;
+import org.joml.Vector3f;
+
+/**
+ * A geometric shape with the same layout as {@link Shape}, but held in off-heap memory. This can be
+ * handed to native APIs such as <code>glBufferData</code> without being copied first, which is
+ * useful for large generated meshes.
+ * <p>
+ * The memory belongs to the {@link Arena} that the shape is created in, and the shape must not be
+ * used once that arena has been closed. Use {@link Arena#ofAuto()} to leave the lifetime to the
+ * garbage collector, or a confined arena to release the memory deterministically.
+ * </p>
+ */
+public class NativeShape {
+
+  private static final ValueLayout.OfFloat FLOAT = ValueLayout.JAVA_FLOAT;
+  private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT;
+  private static final ValueLayout.OfShort SHORT = ValueLayout.JAVA_SHORT;
+
+  /**
+   * The number of vertices that can be addressed by 16-bit indices
+   */
+  public static final int SHORT_INDEX_LIMIT = 1 << 16;
+
+  /**
+   * The vertices of the shape, in x,y,z float triples in native byte order
+   */
+  public final MemorySegment vertices;
+  /**
+   * The triangle indices, in counter-clockwise a,b,c triples in native byte order. Shapes with no
+   * more than {@link #SHORT_INDEX_LIMIT} vertices store unsigned 16-bit indices, larger shapes
+   * store 32-bit indices: see {@link #indexBytes()}.
+   */
+  public final MemorySegment triangles;
+
+  private final boolean compact;
+
+  /**
+   * Allocates an empty shape. All vertices are at the origin and all indices are zero.
+   *
+   * @param arena       Owns the shape's memory
+   * @param vertexCount The number of vertices
+   * @param indexCount  The number of triangle indices
+   */
+  public NativeShape(Arena arena, int vertexCount, int indexCount) {
+    compact = vertexCount <= SHORT_INDEX_LIMIT;
+    vertices = arena.allocate(3L * vertexCount * Float.BYTES, Float.BYTES);
+    triangles = arena.allocate((long) indexCount * indexBytes(), indexBytes());
+  }
+
+  /**
+   * Wraps existing memory as a shape
+   *
+   * @param vertices  Vertex positions, as with {@link #vertices}
+   * @param triangles Triangle indices, as with {@link #triangles}
+   */
+  NativeShape(MemorySegment vertices, MemorySegment triangles) {
+    this.vertices = vertices;
+    this.triangles = triangles;
+    compact = vertices() <= SHORT_INDEX_LIMIT;
+    if (triangles.byteSize() % indexBytes() != 0) {
+      throw new IllegalArgumentException(String.format(
+          "%s bytes of index data for %s-byte indices", triangles.byteSize(), indexBytes()));
+    }
+  }
+
+  /**
+   * Copies a shape off-heap
+   *
+   * @param arena Owns the shape's memory
+   * @param shape The shape to copy
+   */
+  public NativeShape(Arena arena, Shape shape) {
+    this(arena, shape.vertices(), shape.triangles.length);
+    MemorySegment.copy(shape.vertices, 0, vertices, FLOAT, 0, shape.vertices.length);
+    if (compact) {
+      for (int i = 0; i < shape.triangles.length; i++) {
+        index(i, shape.triangles[i]);
+      }
+    } else {
+      MemorySegment.copy(shape.triangles, 0, triangles, INT, 0, shape.triangles.length);
+    }
+  }
+
+  /**
+   * Combines shapes into one geometry
+   *
+   * @param arena        Owns the shape's memory
+   * @param constituents The shapes to combine
+   */
+  public NativeShape(Arena arena, NativeShape... constituents) {
+    this(arena, vertexCount(constituents), indexCount(constituents));
+
+    long vo = 0;
+    int ti = 0;
+    int offset = 0;
+    for (NativeShape s : constituents) {
+      MemorySegment.copy(s.vertices, 0, vertices, vo, s.vertices.byteSize());
+      vo += s.vertices.byteSize();
+      for (int i = 0; i < s.indices(); i++) {
+        index(ti++, s.index(i) + offset);
+      }
+      offset += s.vertices();
+    }
+  }
+
+  private static int vertexCount(NativeShape... shapes) {
+    int count = 0;
+    for (NativeShape s : shapes) {
+      count += s.vertices();
+    }
+    return count;
+  }
+
+  private static int indexCount(NativeShape... shapes) {
+    int count = 0;
+    for (NativeShape s : shapes) {
+      count += s.indices();
+    }
+    return count;
+  }
+
+  /**
+   * @return The number of vertices
+   */
+  public int vertices() {
+    return (int) (vertices.byteSize() / (3 * Float.BYTES));
+  }
+
+  /**
+   * @return The number of triangles
+   */
+  public int triangles() {
+    return indices() / 3;
+  }
+
+  /**
+   * @return The number of triangle indices
+   */
+  public int indices() {
+    return (int) (triangles.byteSize() / indexBytes());
+  }
+
+  /**
+   * @return The size of each triangle index: 2 for unsigned shorts or 4 for ints
+   */
+  public int indexBytes() {
+    return compact ? Short.BYTES : Integer.BYTES;
+  }
+
+  /**
+   * Sets a vertex location
+   *
+   * @param idx The vertex index
+   * @param x   The x coordinate
+   * @param y   The y coordinate
+   * @param z   The z coordinate
+   * @return <code>this</code>
+   */
+  public NativeShape vertex(int idx, float x, float y, float z) {
+    vertices.setAtIndex(FLOAT, 3L * idx + 0, x);
+    vertices.setAtIndex(FLOAT, 3L * idx + 1, y);
+    vertices.setAtIndex(FLOAT, 3L * idx + 2, z);
+    return this;
+  }
+
+  /**
+   * Extracts a vertex location
+   *
+   * @param idx The vertex index
+   * @param v   The destination vector
+   * @return the populated destination vector
+   */
+  public Vector3f vertex(int idx, Vector3f v) {
+    return v.set(
+        vertices.getAtIndex(FLOAT, 3L * idx + 0),
+        vertices.getAtIndex(FLOAT, 3L * idx + 1),
+        vertices.getAtIndex(FLOAT, 3L * idx + 2));
+  }
+
+  /**
+   * Sets a triangle index
+   *
+   * @param i     The position in the index list
+   * @param index The vertex index
+   * @return <code>this</code>
+   */
+  public NativeShape index(int i, int index) {
+    if (compact) {
+      triangles.setAtIndex(SHORT, i, (short) index);
+    } else {
+      triangles.setAtIndex(INT, i, index);
+    }
+    return this;
+  }
+
+  /**
+   * Extracts a triangle index
+   *
+   * @param i The position in the index list
+   * @return The vertex index
+   */
+  public int index(int i) {
+    if (compact) {
+      return Short.toUnsignedInt(triangles.getAtIndex(SHORT, i));
+    }
+    return triangles.getAtIndex(INT, i);
+  }
+
+  /**
+   * Transforms the vertices of the shape. Projective transforms have the perspective divide
+   * applied.
+   *
+   * @param tr The transformation
+   * @return <code>this</code>
+   */
+  public NativeShape transform(Matrix4fc tr) {
+    Vertices.transform(tr, vertices, 0, vertices, 0, vertices());
+    return this;
+  }
+
+  /**
+   * Computes the bounding box of the shape
+   *
+   * @param b destination object
+   * @return The populated bounds
+   */
+  public Bounds bounds(Bounds b) {
+    b.clear();
+    Vector3f v = new Vector3f();
+    for (int i = 0; i < vertices(); i++) {
+      b.include(vertex(i, v));
+    }
+    return b;
+  }
+
+  /**
+   * @return A view of the vertex data, suitable for passing to native APIs
+   */
+  public ByteBuffer vertexData() {
+    return vertices.asByteBuffer().order(ByteOrder.nativeOrder());
+  }
+
+  /**
+   * @return A view of the triangle index data, suitable for passing to native APIs
+   */
+  public ByteBuffer indexData() {
+    return triangles.asByteBuffer().order(ByteOrder.nativeOrder());
+  }
+}
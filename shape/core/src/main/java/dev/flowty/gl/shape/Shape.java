@@ -2,6 +2,7 @@ package dev.flowty.gl.shape;
 
 import java.util.function.Consumer;
 import org.joml.Matrix4f;
+import org.joml.Matrix4fc;
 import org.joml.Vector3f;
 import org.joml.Vector4f;
 
@@ -19,6 +20,12 @@ public class Shape {
    */
   public final int[] triangles;
 
+  /**
+   * Cached bounding box, valid when {@link #boundsDirty} is <code>false</code>
+   */
+  private final Bounds bounds = new Bounds();
+  private boolean boundsDirty = true;
+
   /**
    * @param vertices  vertex positions
    * @param triangles triangle vertex indices
@@ -29,7 +36,8 @@ public class Shape {
   }
 
   /**
-   * Combines shapes into one geometry
+   * Combines shapes into one geometry. For very large numbers of constituents consider
+   * {@link Combine#shapes(java.util.List)} or a {@link ShapeBuilder} instead.
    *
    * @param constituents The shapes to combine
    */
@@ -56,6 +64,19 @@ public class Shape {
       }
       vo += s.vertices();
     }
+
+    // we can take our bounds from the constituents rather than rescanning
+    for (Shape s : constituents) {
+      if (s.vertices() > 0) {
+        Bounds b = s.cachedBounds();
+        if (bounds.isEmpty()) {
+          bounds.set(b);
+        } else {
+          bounds.include(b);
+        }
+      }
+    }
+    boundsDirty = false;
   }
 
   /**
@@ -66,24 +87,32 @@ public class Shape {
    */
   public Shape with(Consumer<Shape> update) {
     update.accept(this);
+    markDirty();
+    return this;
+  }
+
+  /**
+   * Call this after altering the {@link #vertices} array directly, so that derived data such as
+   * the {@link #bounds(Bounds) bounds} is recomputed. Changes made via the methods of this class
+   * take care of this automatically.
+   *
+   * @return <code>this</code>
+   */
+  public Shape markDirty() {
+    boundsDirty = true;
     return this;
   }
 
   /**
-   * Transforms the vertices of the {@link Shape}
+   * Transforms the vertices of the {@link Shape}. Projective transforms have the perspective divide
+   * applied.
    *
    * @param tr The transformation vector
    * @return <code>this</code>
    */
   public Shape transform(Matrix4f tr) {
-    Vector4f vertex = new Vector4f();
-    for (int i = 0; i < vertices(); i++) {
-      vertex(i, v -> {
-        vertex.set(v, 1);
-        vertex.mul(tr);
-        v.set(vertex);
-      });
-    }
+    Vertices.transform(tr, vertices, 0, vertices, 0, vertices());
+    markDirty();
     return this;
   }
 
@@ -102,7 +131,102 @@ public class Shape {
   }
 
   /**
-   * Updates a vertex location
+   * Transforms a range of vertices. Projective transforms have the perspective divide applied.
+   *
+   * @param from  The index of the first vertex to transform
+   * @param count The number of vertices to transform
+   * @param tr    The transformation
+   * @return <code>this</code>
+   */
+  public Shape transform(int from, int count, Matrix4fc tr) {
+    Vertices.transform(tr, vertices, 3 * from, vertices, 3 * from, count);
+    markDirty();
+    return this;
+  }
+
+  /**
+   * Moves a range of vertices
+   *
+   * @param from  The index of the first vertex to move
+   * @param count The number of vertices to move
+   * @param x     The x offset
+   * @param y     The y offset
+   * @param z     The z offset
+   * @return <code>this</code>
+   */
+  public Shape translate(int from, int count, float x, float y, float z) {
+    for (int i = 3 * from; i < 3 * (from + count); i += 3) {
+      vertices[i + 0] += x;
+      vertices[i + 1] += y;
+      vertices[i + 2] += z;
+    }
+    markDirty();
+    return this;
+  }
+
+  /**
+   * Sets a vertex location
+   *
+   * @param idx The vertex index
+   * @param x   The x coordinate
+   * @param y   The y coordinate
+   * @param z   The z coordinate
+   * @return <code>this</code>
+   */
+  public Shape set(int idx, float x, float y, float z) {
+    vertices[idx * 3 + 0] = x;
+    vertices[idx * 3 + 1] = y;
+    vertices[idx * 3 + 2] = z;
+    markDirty();
+    return this;
+  }
+
+  /**
+   * Sets a vertex location, leaving the z coordinate unchanged
+   *
+   * @param idx The vertex index
+   * @param x   The x coordinate
+   * @param y   The y coordinate
+   * @return <code>this</code>
+   */
+  public Shape setXY(int idx, float x, float y) {
+    vertices[idx * 3 + 0] = x;
+    vertices[idx * 3 + 1] = y;
+    markDirty();
+    return this;
+  }
+
+  /**
+   * Sets the locations of the first vertices, leaving their z coordinates unchanged
+   *
+   * @param src <code>x,y</code> pairs, one for each vertex to set
+   * @return <code>this</code>
+   */
+  public Shape setXY(float[] src) {
+    return setXY(0, src, 0, src.length / 2);
+  }
+
+  /**
+   * Sets the locations of a range of vertices, leaving their z coordinates unchanged
+   *
+   * @param from      The index of the first vertex to set
+   * @param src       <code>x,y</code> pairs
+   * @param srcOffset The index in the source array of the first pair
+   * @param count     The number of vertices to set
+   * @return <code>this</code>
+   */
+  public Shape setXY(int from, float[] src, int srcOffset, int count) {
+    for (int i = 0; i < count; i++) {
+      vertices[3 * (from + i) + 0] = src[srcOffset + 2 * i + 0];
+      vertices[3 * (from + i) + 1] = src[srcOffset + 2 * i + 1];
+    }
+    markDirty();
+    return this;
+  }
+
+  /**
+   * Updates a vertex location. This allocates, so prefer {@link #set(int, float, float, float)}
+   * for geometry that changes every frame.
    *
    * @param idx    The vertex index
    * @param update How to update the vertex
@@ -114,6 +238,7 @@ public class Shape {
     vertices[idx * 3 + 0] = v.x;
     vertices[idx * 3 + 1] = v.y;
     vertices[idx * 3 + 2] = v.z;
+    markDirty();
     return this;
   }
 
@@ -149,17 +274,21 @@ public class Shape {
   }
 
   /**
-   * Computes the bounding box of the shape
+   * Computes the bounding box of the shape. The result is cached until the shape changes.
    *
    * @param b destination object
    * @return The populated bounds
    */
   public Bounds bounds(Bounds b) {
-    b.clear();
-    for (int i = 0; i < vertices(); i++) {
-      vertex(i, v -> b.include(v));
+    return b.set(cachedBounds());
+  }
+
+  private Bounds cachedBounds() {
+    if (boundsDirty) {
+      Vertices.bounds(vertices, 0, vertices(), bounds);
+      boundsDirty = false;
     }
-    return b;
+    return bounds;
   }
 
 }
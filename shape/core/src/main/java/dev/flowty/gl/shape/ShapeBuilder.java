@@ -0,0 +1,96 @@
+package dev.flowty.gl.shape;
+
+import java.util.Arrays;
+
+/**
+ * Accumulates geometry into a single {@link Shape}, without needing all of the constituents to
+ * exist at once
+ */
+public class ShapeBuilder {
+
+  private float[] vertices;
+  private int[] triangles;
+  private int vertexLength = 0;
+  private int triangleLength = 0;
+
+  /***/
+  public ShapeBuilder() {
+    this(64, 64);
+  }
+
+  /**
+   * @param vertexCapacity   The number of vertices to make room for
+   * @param triangleCapacity The number of triangles to make room for
+   */
+  public ShapeBuilder(int vertexCapacity, int triangleCapacity) {
+    vertices = new float[3 * Math.max(1, vertexCapacity)];
+    triangles = new int[3 * Math.max(1, triangleCapacity)];
+  }
+
+  /**
+   * Appends a shape's geometry
+   *
+   * @param s The shape
+   * @return <code>this</code>
+   */
+  public ShapeBuilder add(Shape s) {
+    return add(s.vertices, s.triangles);
+  }
+
+  /**
+   * Appends geometry
+   *
+   * @param v Vertex positions, in x,y,z triples
+   * @param t Triangle indices, relative to the first of the supplied vertices
+   * @return <code>this</code>
+   */
+  public ShapeBuilder add(float[] v, int[] t) {
+    if (vertexLength + v.length > vertices.length) {
+      vertices = Arrays.copyOf(vertices, grow(vertices.length, vertexLength + v.length));
+    }
+    if (triangleLength + t.length > triangles.length) {
+      triangles = Arrays.copyOf(triangles, grow(triangles.length, triangleLength + t.length));
+    }
+
+    int base = vertexLength / 3;
+    System.arraycopy(v, 0, vertices, vertexLength, v.length);
+    vertexLength += v.length;
+    for (int triangle : t) {
+      triangles[triangleLength++] = triangle + base;
+    }
+    return this;
+  }
+
+  private static int grow(int current, int required) {
+    int capacity = current;
+    while (capacity < required) {
+      capacity = Math.addExact(capacity, capacity / 2 + 1);
+    }
+    return capacity;
+  }
+
+  /**
+   * @return The number of vertices added so far
+   */
+  public int vertices() {
+    return vertexLength / 3;
+  }
+
+  /**
+   * @return The number of triangles added so far
+   */
+  public int triangles() {
+    return triangleLength / 3;
+  }
+
+  /**
+   * Builds the shape. The builder can continue to be used afterwards.
+   *
+   * @return A shape holding all of the geometry added so far
+   */
+  public Shape build() {
+    return new Shape(
+        Arrays.copyOf(vertices, vertexLength),
+        Arrays.copyOf(triangles, triangleLength));
+  }
+}
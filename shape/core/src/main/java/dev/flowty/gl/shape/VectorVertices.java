@@ -0,0 +1,80 @@
+package dev.flowty.gl.shape;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorShuffle;
+import jdk.incubator.vector.VectorSpecies;
+import org.joml.Matrix4fc;
+
+/**
+ * The vectorised kernel behind {@link Vertices#transform(Matrix4fc, float[], int, float[], int,
+ * int)}. This class must only be loaded when the <code>jdk.incubator.vector</code> module is
+ * present.
+ * <p>
+ * Each vertex is transformed in a single four-lane vector: the matrix columns are scaled by the
+ * vertex's x, y and z and summed, which yields x, y, z and w at once. This is the same sequence of
+ * multiplies and adds as in the scalar loop, so the results are identical. Only the first three
+ * lanes are stored, so transforming in place is safe.
+ * </p>
+ */
+final class VectorVertices {
+
+  private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_128;
+  private static final VectorMask<Float> XYZ = VectorMask.fromLong(SPECIES, 0b0111);
+  private static final VectorShuffle<Float> WWWW = VectorShuffle.fromValues(SPECIES, 3, 3, 3, 3);
+  private static final FloatVector ONE = FloatVector.broadcast(SPECIES, 1);
+
+  /**
+   * The smallest number of vertices for which the vectorised kernel is used. Setting up the matrix
+   * columns costs more than it saves for a handful of vertices.
+   */
+  static final int MIN_VERTICES = 16;
+
+  private VectorVertices() {
+    // no instances
+  }
+
+  /**
+   * @return <code>true</code> if the hardware supports vectors of four floats. Otherwise the vector
+   * operations would be emulated and far slower than scalar code.
+   */
+  static boolean supported() {
+    return VectorShape.preferredShape().vectorBitSize() >= SPECIES.vectorBitSize();
+  }
+
+  /**
+   * Transforms vertex positions
+   *
+   * @param m         The transform
+   * @param affine    <code>true</code> to skip the perspective divide
+   * @param src       The source positions, in x,y,z triples
+   * @param srcOffset The index in the source array of the first position
+   * @param dst       The destination array. This may be the same array as the source, in which case
+   *                  the offsets should either be equal or the ranges should not overlap.
+   * @param dstOffset The index in the destination array of the first position
+   * @param count     The number of vertices to transform
+   */
+  static void transform(Matrix4fc m, boolean affine, float[] src, int srcOffset,
+      float[] dst, int dstOffset, int count) {
+    float[] columns = m.get(new float[16]);
+    FloatVector c0 = FloatVector.fromArray(SPECIES, columns, 0);
+    FloatVector c1 = FloatVector.fromArray(SPECIES, columns, 4);
+    FloatVector c2 = FloatVector.fromArray(SPECIES, columns, 8);
+    FloatVector c3 = FloatVector.fromArray(SPECIES, columns, 12);
+    int end = srcOffset + 3 * count;
+
+    if (affine) {
+      for (int s = srcOffset, d = dstOffset; s < end; s += 3, d += 3) {
+        c0.mul(src[s]).add(c1.mul(src[s + 1])).add(c2.mul(src[s + 2])).add(c3)
+            .intoArray(dst, d, XYZ);
+      }
+    } else {
+      for (int s = srcOffset, d = dstOffset; s < end; s += 3, d += 3) {
+        FloatVector v = c0.mul(src[s]).add(c1.mul(src[s + 1])).add(c2.mul(src[s + 2])).add(c3);
+        v.mul(ONE.div(v.rearrange(WWWW)))
+            .intoArray(dst, d, XYZ);
+      }
+    }
+  }
+}
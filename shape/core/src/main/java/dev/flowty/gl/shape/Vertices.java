@@ -0,0 +1,221 @@
+package dev.flowty.gl.shape;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import org.joml.Matrix4fc;
+
+/**
+ * Bulk operations on streams of x,y,z vertex positions. These avoid the per-vertex object churn of
+ * going through {@link org.joml.Vector4f} and friends, and hoist the matrix out of the loop.
+ * <p>
+ * Array-to-array transforms are vectorised when the <code>jdk.incubator.vector</code> module is
+ * available, i.e.: when the JVM is started with <code>--add-modules jdk.incubator.vector</code>.
+ * The vectorised results are identical to the scalar ones. Transforms into interleaved buffers and
+ * native memory are always scalar.
+ * </p>
+ */
+public class Vertices {
+
+  private static final ValueLayout.OfFloat FLOAT = ValueLayout.JAVA_FLOAT;
+
+  /**
+   * <code>true</code> if array transforms are vectorised. This needs the incubating vector module,
+   * and hardware support for vectors of four floats.
+   */
+  static final boolean VECTORISED = ModuleLayer.boot()
+      .findModule("jdk.incubator.vector").isPresent()
+      && VectorVertices.supported();
+
+  private Vertices() {
+    // no instances
+  }
+
+  /**
+   * Transforms vertex positions. Affine matrices are applied directly, projective matrices have the
+   * perspective divide applied.
+   *
+   * @param m         The transform
+   * @param src       The source positions, in x,y,z triples
+   * @param srcOffset The index in the source array of the first position
+   * @param dst       The destination array. This may be the same array as the source, in which case
+   *                  the offsets should either be equal or the ranges should not overlap.
+   * @param dstOffset The index in the destination array of the first position
+   * @param count     The number of vertices to transform
+   */
+  public static void transform(Matrix4fc m, float[] src, int srcOffset,
+      float[] dst, int dstOffset, int count) {
+    if ((m.properties() & Matrix4fc.PROPERTY_IDENTITY) != 0) {
+      System.arraycopy(src, srcOffset, dst, dstOffset, 3 * count);
+      return;
+    }
+
+    if (VECTORISED && count >= VectorVertices.MIN_VERTICES) {
+      VectorVertices.transform(m, isAffine(m), src, srcOffset, dst, dstOffset, count);
+    } else {
+      scalar(m, isAffine(m), src, srcOffset, dst, dstOffset, count);
+    }
+  }
+
+  /**
+   * The scalar implementation of {@link #transform(Matrix4fc, float[], int, float[], int, int)}
+   *
+   * @param m         The transform
+   * @param affine    <code>true</code> to skip the perspective divide
+   * @param src       The source positions, in x,y,z triples
+   * @param srcOffset The index in the source array of the first position
+   * @param dst       The destination array
+   * @param dstOffset The index in the destination array of the first position
+   * @param count     The number of vertices to transform
+   */
+  static void scalar(Matrix4fc m, boolean affine, float[] src, int srcOffset,
+      float[] dst, int dstOffset, int count) {
+    float m00 = m.m00(), m01 = m.m01(), m02 = m.m02(), m03 = m.m03();
+    float m10 = m.m10(), m11 = m.m11(), m12 = m.m12(), m13 = m.m13();
+    float m20 = m.m20(), m21 = m.m21(), m22 = m.m22(), m23 = m.m23();
+    float m30 = m.m30(), m31 = m.m31(), m32 = m.m32(), m33 = m.m33();
+    int end = srcOffset + 3 * count;
+
+    if (affine) {
+      for (int s = srcOffset, d = dstOffset; s < end; s += 3, d += 3) {
+        float x = src[s], y = src[s + 1], z = src[s + 2];
+        dst[d] = m00 * x + m10 * y + m20 * z + m30;
+        dst[d + 1] = m01 * x + m11 * y + m21 * z + m31;
+        dst[d + 2] = m02 * x + m12 * y + m22 * z + m32;
+      }
+    } else {
+      for (int s = srcOffset, d = dstOffset; s < end; s += 3, d += 3) {
+        float x = src[s], y = src[s + 1], z = src[s + 2];
+        float w = 1 / (m03 * x + m13 * y + m23 * z + m33);
+        dst[d] = (m00 * x + m10 * y + m20 * z + m30) * w;
+        dst[d + 1] = (m01 * x + m11 * y + m21 * z + m31) * w;
+        dst[d + 2] = (m02 * x + m12 * y + m22 * z + m32) * w;
+      }
+    }
+  }
+
+  /**
+   * Transforms vertex positions into a buffer of interleaved vertex data. Affine matrices are
+   * applied directly, projective matrices have the perspective divide applied.
+   *
+   * @param m         The transform
+   * @param src       The source positions, in x,y,z triples
+   * @param srcOffset The index in the source array of the first position
+   * @param dst       The destination buffer. Positions are written as three floats, in the
+   *                  buffer's byte order, without changing its position.
+   * @param dstOffset The byte offset in the destination buffer of the first position
+   * @param dstStride The number of bytes between consecutive positions in the destination buffer
+   * @param count     The number of vertices to transform
+   */
+  public static void transform(Matrix4fc m, float[] src, int srcOffset,
+      ByteBuffer dst, int dstOffset, int dstStride, int count) {
+    int end = srcOffset + 3 * count;
+
+    if ((m.properties() & Matrix4fc.PROPERTY_IDENTITY) != 0) {
+      for (int s = srcOffset, d = dstOffset; s < end; s += 3, d += dstStride) {
+        dst.putFloat(d, src[s]);
+        dst.putFloat(d + 4, src[s + 1]);
+        dst.putFloat(d + 8, src[s + 2]);
+      }
+      return;
+    }
+
+    float m00 = m.m00(), m01 = m.m01(), m02 = m.m02(), m03 = m.m03();
+    float m10 = m.m10(), m11 = m.m11(), m12 = m.m12(), m13 = m.m13();
+    float m20 = m.m20(), m21 = m.m21(), m22 = m.m22(), m23 = m.m23();
+    float m30 = m.m30(), m31 = m.m31(), m32 = m.m32(), m33 = m.m33();
+
+    if (isAffine(m)) {
+      for (int s = srcOffset, d = dstOffset; s < end; s += 3, d += dstStride) {
+        float x = src[s], y = src[s + 1], z = src[s + 2];
+        dst.putFloat(d, m00 * x + m10 * y + m20 * z + m30);
+        dst.putFloat(d + 4, m01 * x + m11 * y + m21 * z + m31);
+        dst.putFloat(d + 8, m02 * x + m12 * y + m22 * z + m32);
+      }
+    } else {
+      for (int s = srcOffset, d = dstOffset; s < end; s += 3, d += dstStride) {
+        float x = src[s], y = src[s + 1], z = src[s + 2];
+        float w = 1 / (m03 * x + m13 * y + m23 * z + m33);
+        dst.putFloat(d, (m00 * x + m10 * y + m20 * z + m30) * w);
+        dst.putFloat(d + 4, (m01 * x + m11 * y + m21 * z + m31) * w);
+        dst.putFloat(d + 8, (m02 * x + m12 * y + m22 * z + m32) * w);
+      }
+    }
+  }
+
+  /**
+   * Transforms vertex positions held in native memory. Affine matrices are applied directly,
+   * projective matrices have the perspective divide applied.
+   *
+   * @param m        The transform
+   * @param src      The source positions, in native-order x,y,z float triples
+   * @param srcIndex The index in the source segment of the first position's x coordinate
+   * @param dst      The destination segment. This may be the same segment as the source, in which
+   *                 case the indices should either be equal or the ranges should not overlap.
+   * @param dstIndex The index in the destination segment of the first position's x coordinate
+   * @param count    The number of vertices to transform
+   */
+  public static void transform(Matrix4fc m, MemorySegment src, long srcIndex,
+      MemorySegment dst, long dstIndex, int count) {
+    if ((m.properties() & Matrix4fc.PROPERTY_IDENTITY) != 0) {
+      MemorySegment.copy(src, FLOAT, srcIndex * Float.BYTES,
+          dst, FLOAT, dstIndex * Float.BYTES, 3L * count);
+      return;
+    }
+
+    float m00 = m.m00(), m01 = m.m01(), m02 = m.m02(), m03 = m.m03();
+    float m10 = m.m10(), m11 = m.m11(), m12 = m.m12(), m13 = m.m13();
+    float m20 = m.m20(), m21 = m.m21(), m22 = m.m22(), m23 = m.m23();
+    float m30 = m.m30(), m31 = m.m31(), m32 = m.m32(), m33 = m.m33();
+    boolean affine = isAffine(m);
+    long end = srcIndex + 3L * count;
+
+    for (long s = srcIndex, d = dstIndex; s < end; s += 3, d += 3) {
+      float x = src.getAtIndex(FLOAT, s);
+      float y = src.getAtIndex(FLOAT, s + 1);
+      float z = src.getAtIndex(FLOAT, s + 2);
+      float w = affine ? 1 : 1 / (m03 * x + m13 * y + m23 * z + m33);
+      dst.setAtIndex(FLOAT, d, (m00 * x + m10 * y + m20 * z + m30) * w);
+      dst.setAtIndex(FLOAT, d + 1, (m01 * x + m11 * y + m21 * z + m31) * w);
+      dst.setAtIndex(FLOAT, d + 2, (m02 * x + m12 * y + m22 * z + m32) * w);
+    }
+  }
+
+  /**
+   * Finds the bounding box of vertex positions
+   *
+   * @param src    The positions, in x,y,z triples
+   * @param offset The index in the array of the first position
+   * @param count  The number of vertices to include
+   * @param dst    The destination bounds. These will be cleared if there are no vertices.
+   * @return The destination bounds
+   */
+  public static Bounds bounds(float[] src, int offset, int count, Bounds dst) {
+    if (count == 0) {
+      return dst.clear();
+    }
+    float minX = src[offset], minY = src[offset + 1], minZ = src[offset + 2];
+    float maxX = minX, maxY = minY, maxZ = minZ;
+    int end = offset + 3 * count;
+    for (int i = offset + 3; i < end; i += 3) {
+      float x = src[i], y = src[i + 1], z = src[i + 2];
+      minX = Math.min(minX, x);
+      maxX = Math.max(maxX, x);
+      minY = Math.min(minY, y);
+      maxY = Math.max(maxY, y);
+      minZ = Math.min(minZ, z);
+      maxZ = Math.max(maxZ, z);
+    }
+    return dst.set(minX, minY, minZ, maxX, maxY, maxZ);
+  }
+
+  /**
+   * @param m A matrix
+   * @return <code>true</code> if the matrix has no projective component. Matrix properties are only
+   * reported when they've been determined, so we fall back to checking the bottom row.
+   */
+  static boolean isAffine(Matrix4fc m) {
+    return (m.properties() & Matrix4fc.PROPERTY_AFFINE) != 0
+        || m.m03() == 0 && m.m13() == 0 && m.m23() == 0 && m.m33() == 1;
+  }
+}
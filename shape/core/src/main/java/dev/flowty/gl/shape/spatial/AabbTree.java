@@ -0,0 +1,658 @@
+package dev.flowty.gl.shape.spatial;
+
+import dev.flowty.gl.shape.Bounds;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.joml.Vector3fc;
+
+/**
+ * A bounding volume hierarchy of axis-aligned boxes. Items can be inserted, removed and moved
+ * individually, with the tree kept balanced as it changes, or a static set can be built in one go
+ * with {@link #build(List, Function)} for better query performance.
+ * <p>
+ * Nodes are held in flat arrays rather than as objects, and each item is identified by the index
+ * of its leaf node. Queries reuse internal state, so a tree must not be queried from more than one
+ * thread at a time.
+ * </p>
+ *
+ * @param <T> item type
+ */
+public class AabbTree<T> {
+
+  private static final int NULL = -1;
+
+  /**
+   * The number of bins used to evaluate split candidates when building
+   */
+  private static final int BINS = 12;
+
+  /**
+   * Node boxes, in minX,minY,minZ,maxX,maxY,maxZ sextuples
+   */
+  private float[] box;
+  /**
+   * The parent of each node. Free nodes use this to link the free list.
+   */
+  private int[] parent;
+  private int[] left;
+  private int[] right;
+  /**
+   * Leaves have height 0, free nodes have height -1
+   */
+  private int[] height;
+  private Object[] items;
+
+  private int root = NULL;
+  private int free = NULL;
+  private int nodeCount = 0;
+  private int size = 0;
+
+  private int[] stack = new int[64];
+  private final float[] scratch = new float[6];
+
+  /**
+   * Creates an empty tree
+   */
+  public AabbTree() {
+    this(16);
+  }
+
+  private AabbTree(int capacity) {
+    box = new float[6 * capacity];
+    parent = new int[capacity];
+    left = new int[capacity];
+    right = new int[capacity];
+    height = new int[capacity];
+    items = new Object[capacity];
+  }
+
+  /**
+   * Builds a tree over a static set of items, using the surface area heuristic to choose where to
+   * split. The resulting tree can still be modified.
+   *
+   * @param <T>    item type
+   * @param items  The items to index. The id of each item in the tree is its index in this list.
+   * @param bounds How to find the bounds of an item
+   * @return The tree
+   */
+  public static <T> AabbTree<T> build(List<? extends T> items,
+      Function<? super T, Bounds> bounds) {
+    AabbTree<T> tree = new AabbTree<>(Math.max(1, 2 * items.size()));
+    if (items.isEmpty()) {
+      return tree;
+    }
+
+    int[] leaves = new int[items.size()];
+    for (int i = 0; i < items.size(); i++) {
+      T item = items.get(i);
+      leaves[i] = tree.allocate();
+      tree.set(leaves[i], bounds.apply(item));
+      tree.items[leaves[i]] = item;
+      tree.height[leaves[i]] = 0;
+      tree.left[leaves[i]] = NULL;
+      tree.right[leaves[i]] = NULL;
+    }
+    tree.size = items.size();
+
+    float[] centroids = new float[3 * leaves.length];
+    for (int i = 0; i < leaves.length; i++) {
+      for (int a = 0; a < 3; a++) {
+        centroids[3 * leaves[i] + a] =
+            (tree.box[6 * leaves[i] + a] + tree.box[6 * leaves[i] + 3 + a]) / 2;
+      }
+    }
+    tree.root = tree.build(leaves, centroids, 0, leaves.length);
+    tree.parent[tree.root] = NULL;
+    return tree;
+  }
+
+  /**
+   * Recursively builds a subtree
+   *
+   * @param leaves    The leaf nodes, reordered in place as they are partitioned
+   * @param centroids The box centre of each leaf node, indexed by node
+   * @param lo        The first leaf in the subtree
+   * @param hi        One past the last leaf in the subtree
+   * @return The root node of the subtree
+   */
+  private int build(int[] leaves, float[] centroids, int lo, int hi) {
+    if (hi - lo == 1) {
+      return leaves[lo];
+    }
+
+    // choose the axis along which the centroids are most spread
+    float[] cmin = {Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY};
+    float[] cmax = {Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY};
+    for (int i = lo; i < hi; i++) {
+      for (int a = 0; a < 3; a++) {
+        cmin[a] = Math.min(cmin[a], centroids[3 * leaves[i] + a]);
+        cmax[a] = Math.max(cmax[a], centroids[3 * leaves[i] + a]);
+      }
+    }
+    int axis = 0;
+    for (int a = 1; a < 3; a++) {
+      if (cmax[a] - cmin[a] > cmax[axis] - cmin[axis]) {
+        axis = a;
+      }
+    }
+    float extent = cmax[axis] - cmin[axis];
+
+    int mid = (lo + hi) / 2;
+    if (extent > 0) {
+      // bin the leaves by centroid and find the cheapest split between bins
+      int[] counts = new int[BINS];
+      float[] bins = new float[6 * BINS];
+      for (int b = 0; b < BINS; b++) {
+        empty(bins, b);
+      }
+      for (int i = lo; i < hi; i++) {
+        int b = bin(centroids[3 * leaves[i] + axis], cmin[axis], extent);
+        counts[b]++;
+        include(bins, b, box, leaves[i]);
+      }
+
+      float[] sweep = new float[6];
+      float[] leftCost = new float[BINS - 1];
+      empty(sweep, 0);
+      int count = 0;
+      for (int b = 0; b < BINS - 1; b++) {
+        include(sweep, 0, bins, b);
+        count += counts[b];
+        leftCost[b] = count == 0 ? 0 : area(sweep, 0) * count;
+      }
+      empty(sweep, 0);
+      count = 0;
+      float best = Float.POSITIVE_INFINITY;
+      int split = -1;
+      for (int b = BINS - 1; b > 0; b--) {
+        include(sweep, 0, bins, b);
+        count += counts[b];
+        float cost = leftCost[b - 1] + (count == 0 ? 0 : area(sweep, 0) * count);
+        if (cost < best && count > 0 && count < hi - lo) {
+          best = cost;
+          split = b;
+        }
+      }
+
+      if (split != -1) {
+        // partition the leaves around the chosen bin boundary
+        int i = lo;
+        int j = hi - 1;
+        while (i <= j) {
+          if (bin(centroids[3 * leaves[i] + axis], cmin[axis], extent) < split) {
+            i++;
+          } else {
+            int t = leaves[i];
+            leaves[i] = leaves[j];
+            leaves[j] = t;
+            j--;
+          }
+        }
+        mid = i;
+      }
+    }
+
+    int node = allocate();
+    int l = build(leaves, centroids, lo, mid);
+    int r = build(leaves, centroids, mid, hi);
+    link(node, l, r);
+    return node;
+  }
+
+  private static int bin(float centroid, float min, float extent) {
+    return Math.min(BINS - 1, (int) (BINS * (centroid - min) / extent));
+  }
+
+  /**
+   * Adds an item to the tree
+   *
+   * @param bounds The bounds of the item
+   * @param item   The item
+   * @return The id of the item in the tree
+   */
+  public int insert(Bounds bounds, T item) {
+    int leaf = allocate();
+    set(leaf, bounds);
+    items[leaf] = item;
+    left[leaf] = NULL;
+    right[leaf] = NULL;
+    height[leaf] = 0;
+    insertLeaf(leaf);
+    size++;
+    return leaf;
+  }
+
+  /**
+   * Removes an item from the tree
+   *
+   * @param id The id of the item
+   * @return The removed item
+   */
+  public T remove(int id) {
+    T item = item(id);
+    removeLeaf(id);
+    release(id);
+    size--;
+    return item;
+  }
+
+  /**
+   * Updates the bounds of an item, restructuring the tree as necessary. The id of the item does not
+   * change.
+   *
+   * @param id     The id of the item
+   * @param bounds The new bounds of the item
+   */
+  public void update(int id, Bounds bounds) {
+    item(id);
+    removeLeaf(id);
+    set(id, bounds);
+    insertLeaf(id);
+  }
+
+  /**
+   * @param id The id of an item
+   * @return The item
+   */
+  @SuppressWarnings("unchecked")
+  public T item(int id) {
+    if (id < 0 || id >= nodeCount || height[id] != 0) {
+      throw new IllegalArgumentException("No item with id " + id);
+    }
+    return (T) items[id];
+  }
+
+  /**
+   * @param id  The id of an item
+   * @param dst The destination bounds
+   * @return The bounds of the item
+   */
+  public Bounds bounds(int id, Bounds dst) {
+    item(id);
+    return dst.set(
+        box[6 * id], box[6 * id + 1], box[6 * id + 2],
+        box[6 * id + 3], box[6 * id + 4], box[6 * id + 5]);
+  }
+
+  /**
+   * @return The number of items in the tree
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return The height of the tree: 0 for a single item, -1 when empty
+   */
+  public int height() {
+    return root == NULL ? -1 : height[root];
+  }
+
+  /**
+   * Finds the items whose bounds contain a point
+   *
+   * @param x      The point's x coordinate
+   * @param y      The point's y coordinate
+   * @param z      The point's z coordinate
+   * @param action What to do with each item
+   */
+  public void query(float x, float y, float z, Consumer<? super T> action) {
+    query(x, y, z, x, y, z, action);
+  }
+
+  /**
+   * Finds the items whose bounds overlap a box
+   *
+   * @param bounds The box
+   * @param action What to do with each item
+   */
+  public void query(Bounds bounds, Consumer<? super T> action) {
+    query(bounds.min.x, bounds.min.y, bounds.min.z,
+        bounds.max.x, bounds.max.y, bounds.max.z, action);
+  }
+
+  /**
+   * Finds the items whose bounds overlap a box
+   *
+   * @param minX   The minimum x coordinate of the box
+   * @param minY   The minimum y coordinate of the box
+   * @param minZ   The minimum z coordinate of the box
+   * @param maxX   The maximum x coordinate of the box
+   * @param maxY   The maximum y coordinate of the box
+   * @param maxZ   The maximum z coordinate of the box
+   * @param action What to do with each item
+   */
+  @SuppressWarnings("unchecked")
+  public void query(float minX, float minY, float minZ, float maxX, float maxY, float maxZ,
+      Consumer<? super T> action) {
+    if (root == NULL) {
+      return;
+    }
+    int top = push(0, root);
+    while (top > 0) {
+      int node = stack[--top];
+      int b = 6 * node;
+      if (box[b] <= maxX && box[b + 3] >= minX
+          && box[b + 1] <= maxY && box[b + 4] >= minY
+          && box[b + 2] <= maxZ && box[b + 5] >= minZ) {
+        if (height[node] == 0) {
+          action.accept((T) items[node]);
+        } else {
+          top = push(top, left[node]);
+          top = push(top, right[node]);
+        }
+      }
+    }
+  }
+
+  /**
+   * Finds the items whose bounds are crossed by a ray
+   *
+   * @param origin    The start of the ray
+   * @param direction The direction of the ray
+   * @param limit     The maximum distance along the ray, in multiples of the direction vector
+   * @param visitor   Called for each item whose bounds are crossed by the remaining ray
+   */
+  @SuppressWarnings("unchecked")
+  public void raycast(Vector3fc origin, Vector3fc direction, float limit,
+      RayVisitor<? super T> visitor) {
+    if (root == NULL) {
+      return;
+    }
+    float ox = origin.x(), oy = origin.y(), oz = origin.z();
+    float ix = 1 / direction.x(), iy = 1 / direction.y(), iz = 1 / direction.z();
+
+    int top = push(0, root);
+    while (top > 0) {
+      int node = stack[--top];
+      int b = 6 * node;
+
+      // slab test
+      float t1 = (box[b] - ox) * ix;
+      float t2 = (box[b + 3] - ox) * ix;
+      float near = Math.min(t1, t2);
+      float far = Math.max(t1, t2);
+      t1 = (box[b + 1] - oy) * iy;
+      t2 = (box[b + 4] - oy) * iy;
+      near = Math.max(near, Math.min(t1, t2));
+      far = Math.min(far, Math.max(t1, t2));
+      t1 = (box[b + 2] - oz) * iz;
+      t2 = (box[b + 5] - oz) * iz;
+      near = Math.max(near, Math.min(t1, t2));
+      far = Math.min(far, Math.max(t1, t2));
+
+      // NaNs from axis-parallel rays on a slab boundary fail these comparisons, which is to say
+      // that they are treated as hits
+      if (!(far < Math.max(near, 0)) && !(near > limit)) {
+        if (height[node] == 0) {
+          limit = Math.min(limit, visitor.visit((T) items[node], limit));
+        } else {
+          top = push(top, left[node]);
+          top = push(top, right[node]);
+        }
+      }
+    }
+  }
+
+  /**
+   * Receives the items found by a {@link #raycast(Vector3fc, Vector3fc, float, RayVisitor)}
+   *
+   * @param <T> item type
+   */
+  @FunctionalInterface
+  public interface RayVisitor<T> {
+
+    /**
+     * Called for an item whose bounds are crossed by the ray
+     *
+     * @param item  The item
+     * @param limit The current extent of the ray
+     * @return The new extent of the ray. Return the distance to a hit on the item to only find
+     * nearer items from then on, or <code>limit</code> to carry on as before.
+     */
+    float visit(T item, float limit);
+  }
+
+  private int push(int top, int node) {
+    if (top == stack.length) {
+      stack = Arrays.copyOf(stack, 2 * stack.length);
+    }
+    stack[top] = node;
+    return top + 1;
+  }
+
+  private void insertLeaf(int leaf) {
+    if (root == NULL) {
+      root = leaf;
+      parent[leaf] = NULL;
+      return;
+    }
+
+    // descend to the sibling that minimises the increase in surface area
+    int index = root;
+    while (height[index] != 0) {
+      float area = area(box, index);
+      union(scratch, 0, box, index, box, leaf);
+      float combined = area(scratch, 0);
+
+      // the cost of making a new parent for this node and the leaf
+      float cost = 2 * combined;
+      // the minimum cost of pushing the leaf further down the tree
+      float inheritance = 2 * (combined - area);
+
+      float costLeft = descentCost(left[index], leaf) + inheritance;
+      float costRight = descentCost(right[index], leaf) + inheritance;
+
+      if (cost < costLeft && cost < costRight) {
+        break;
+      }
+      index = costLeft < costRight ? left[index] : right[index];
+    }
+
+    int sibling = index;
+    int oldParent = parent[sibling];
+    int newParent = allocate();
+    parent[newParent] = oldParent;
+    link(newParent, sibling, leaf);
+
+    if (oldParent != NULL) {
+      if (left[oldParent] == sibling) {
+        left[oldParent] = newParent;
+      } else {
+        right[oldParent] = newParent;
+      }
+    } else {
+      root = newParent;
+    }
+
+    refit(parent[leaf]);
+  }
+
+  private float descentCost(int child, int leaf) {
+    union(scratch, 0, box, child, box, leaf);
+    if (height[child] == 0) {
+      return area(scratch, 0);
+    }
+    return area(scratch, 0) - area(box, child);
+  }
+
+  private void removeLeaf(int leaf) {
+    if (leaf == root) {
+      root = NULL;
+      return;
+    }
+
+    int p = parent[leaf];
+    int grandparent = parent[p];
+    int sibling = left[p] == leaf ? right[p] : left[p];
+
+    if (grandparent != NULL) {
+      if (left[grandparent] == p) {
+        left[grandparent] = sibling;
+      } else {
+        right[grandparent] = sibling;
+      }
+      parent[sibling] = grandparent;
+      release(p);
+      refit(grandparent);
+    } else {
+      root = sibling;
+      parent[sibling] = NULL;
+      release(p);
+    }
+  }
+
+  /**
+   * Walks up the tree from a node, rebalancing and recomputing boxes and heights
+   *
+   * @param node The first node to refit
+   */
+  private void refit(int node) {
+    while (node != NULL) {
+      node = balance(node);
+      link(node, left[node], right[node]);
+      node = parent[node];
+    }
+  }
+
+  /**
+   * Performs a left or right rotation if the node's subtrees are unbalanced
+   *
+   * @param a A node
+   * @return The root of the rotated subtree
+   */
+  private int balance(int a) {
+    if (height[a] < 2) {
+      return a;
+    }
+
+    int b = left[a];
+    int c = right[a];
+    int balance = height[c] - height[b];
+
+    if (balance > 1) {
+      return rotate(a, c, b);
+    }
+    if (balance < -1) {
+      return rotate(a, b, c);
+    }
+    return a;
+  }
+
+  /**
+   * Promotes the taller child of a node
+   *
+   * @param a     The node
+   * @param tall  The taller child of <code>a</code>, which will replace it
+   * @param other The other child of <code>a</code>
+   * @return The new root of the subtree
+   */
+  private int rotate(int a, int tall, int other) {
+    int f = left[tall];
+    int g = right[tall];
+
+    // tall takes the place of a
+    parent[tall] = parent[a];
+    parent[a] = tall;
+    if (parent[tall] != NULL) {
+      if (left[parent[tall]] == a) {
+        left[parent[tall]] = tall;
+      } else {
+        right[parent[tall]] = tall;
+      }
+    } else {
+      root = tall;
+    }
+
+    // the taller grandchild stays with tall, the shorter one moves to a
+    int keep = height[f] > height[g] ? f : g;
+    int move = keep == f ? g : f;
+    if (left[a] == tall) {
+      link(a, move, other);
+    } else {
+      link(a, other, move);
+    }
+    link(tall, a, keep);
+    return tall;
+  }
+
+  /**
+   * Makes two nodes the children of another, and updates its box and height
+   *
+   * @param node The parent node
+   * @param l    The left child
+   * @param r    The right child
+   */
+  private void link(int node, int l, int r) {
+    left[node] = l;
+    right[node] = r;
+    parent[l] = node;
+    parent[r] = node;
+    union(box, node, box, l, box, r);
+    height[node] = 1 + Math.max(height[l], height[r]);
+  }
+
+  private int allocate() {
+    if (free != NULL) {
+      int node = free;
+      free = parent[node];
+      return node;
+    }
+    if (nodeCount == height.length) {
+      int capacity = 2 * height.length;
+      box = Arrays.copyOf(box, 6 * capacity);
+      parent = Arrays.copyOf(parent, capacity);
+      left = Arrays.copyOf(left, capacity);
+      right = Arrays.copyOf(right, capacity);
+      height = Arrays.copyOf(height, capacity);
+      items = Arrays.copyOf(items, capacity);
+    }
+    return nodeCount++;
+  }
+
+  private void release(int node) {
+    items[node] = null;
+    height[node] = -1;
+    parent[node] = free;
+    free = node;
+  }
+
+  private void set(int node, Bounds bounds) {
+    int b = 6 * node;
+    box[b] = bounds.min.x;
+    box[b + 1] = bounds.min.y;
+    box[b + 2] = bounds.min.z;
+    box[b + 3] = bounds.max.x;
+    box[b + 4] = bounds.max.y;
+    box[b + 5] = bounds.max.z;
+  }
+
+  private static void empty(float[] dst, int d) {
+    Arrays.fill(dst, 6 * d, 6 * d + 3, Float.POSITIVE_INFINITY);
+    Arrays.fill(dst, 6 * d + 3, 6 * d + 6, Float.NEGATIVE_INFINITY);
+  }
+
+  private static void include(float[] dst, int d, float[] src, int s) {
+    union(dst, d, dst, d, src, s);
+  }
+
+  private static void union(float[] dst, int d, float[] a, int ai, float[] b, int bi) {
+    for (int i = 0; i < 3; i++) {
+      dst[6 * d + i] = Math.min(a[6 * ai + i], b[6 * bi + i]);
+      dst[6 * d + 3 + i] = Math.max(a[6 * ai + 3 + i], b[6 * bi + 3 + i]);
+    }
+  }
+
+  /**
+   * @return The surface area of a box. Boxes that are flat on some axes, as 2D content will be,
+   * still have a meaningful area.
+   */
+  private static float area(float[] src, int s) {
+    float w = src[6 * s + 3] - src[6 * s];
+    float h = src[6 * s + 4] - src[6 * s + 1];
+    float d = src[6 * s + 5] - src[6 * s + 2];
+    return 2 * (w * h + h * d + d * w);
+  }
+}
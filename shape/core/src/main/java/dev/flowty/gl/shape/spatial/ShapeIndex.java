@@ -0,0 +1,142 @@
+package dev.flowty.gl.shape.spatial;
+
+import dev.flowty.gl.shape.Bounds;
+import dev.flowty.gl.shape.Shape;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import org.joml.Vector3fc;
+
+/**
+ * A spatial index of {@link Shape}s, for picking and region queries. Bounds queries go through an
+ * {@link AabbTree}, and picking follows up with exact tests against the shapes' triangles.
+ * <p>
+ * The index holds the shapes' bounds as they were when added: after altering a shape,
+ * {@link #refit(Shape)} it.
+ * </p>
+ *
+ * @param <S> shape type
+ */
+public class ShapeIndex<S extends Shape> {
+
+  private final AabbTree<S> tree;
+  private final Map<S, Integer> ids = new IdentityHashMap<>();
+  private final Bounds bounds = new Bounds();
+
+  private S hit;
+
+  /**
+   * Creates an empty index
+   */
+  public ShapeIndex() {
+    tree = new AabbTree<>();
+  }
+
+  /**
+   * Builds an index over a set of shapes. This gives better query performance than adding the
+   * shapes one by one.
+   *
+   * @param shapes The shapes to index
+   */
+  public ShapeIndex(List<S> shapes) {
+    tree = AabbTree.build(shapes, s -> s.bounds(new Bounds()));
+    for (int i = 0; i < shapes.size(); i++) {
+      ids.put(shapes.get(i), i);
+    }
+  }
+
+  /**
+   * @return The number of indexed shapes
+   */
+  public int size() {
+    return tree.size();
+  }
+
+  /**
+   * Adds a shape to the index
+   *
+   * @param shape The shape
+   * @return <code>this</code>
+   */
+  public ShapeIndex<S> add(S shape) {
+    if (!ids.containsKey(shape)) {
+      ids.put(shape, tree.insert(shape.bounds(bounds), shape));
+    }
+    return this;
+  }
+
+  /**
+   * Removes a shape from the index
+   *
+   * @param shape The shape
+   * @return <code>this</code>
+   */
+  public ShapeIndex<S> remove(S shape) {
+    Integer id = ids.remove(shape);
+    if (id != null) {
+      tree.remove(id);
+    }
+    return this;
+  }
+
+  /**
+   * Updates the index after a shape has changed
+   *
+   * @param shape The shape
+   * @return <code>this</code>
+   */
+  public ShapeIndex<S> refit(S shape) {
+    Integer id = ids.get(shape);
+    if (id != null) {
+      tree.update(id, shape.bounds(bounds));
+    }
+    return this;
+  }
+
+  /**
+   * Finds the shapes whose bounds overlap a box
+   *
+   * @param region The box
+   * @param action What to do with each shape
+   */
+  public void query(Bounds region, Consumer<? super S> action) {
+    tree.query(region, action);
+  }
+
+  /**
+   * Finds the shapes that cover a point, as seen looking down the z axis
+   *
+   * @param x      The point's x coordinate
+   * @param y      The point's y coordinate
+   * @param action What to do with each shape
+   */
+  public void pick(float x, float y, Consumer<? super S> action) {
+    tree.query(x, y, Float.NEGATIVE_INFINITY, x, y, Float.POSITIVE_INFINITY, s -> {
+      if (Triangles.containsXY(s, x, y)) {
+        action.accept(s);
+      }
+    });
+  }
+
+  /**
+   * Finds the first shape hit by a ray
+   *
+   * @param origin    The start of the ray
+   * @param direction The direction of the ray
+   * @return The nearest shape whose triangles are hit by the ray, or <code>null</code> if none are
+   */
+  public S raycast(Vector3fc origin, Vector3fc direction) {
+    hit = null;
+    tree.raycast(origin, direction, Float.POSITIVE_INFINITY, (s, limit) -> {
+      float distance = Triangles.intersect(s, origin, direction, limit);
+      if (distance < limit) {
+        hit = s;
+      }
+      return distance;
+    });
+    S result = hit;
+    hit = null;
+    return result;
+  }
+}
@@ -0,0 +1,102 @@
+package dev.flowty.gl.shape.spatial;
+
+import dev.flowty.gl.shape.Shape;
+import org.joml.Vector3fc;
+
+/**
+ * Exact tests against the triangles of a {@link Shape}. These are the narrow phase that follows a
+ * bounds query on an {@link AabbTree}.
+ */
+public class Triangles {
+
+  private Triangles() {
+    // no instances
+  }
+
+  /**
+   * Tests if a point lies on a shape, as seen looking down the z axis
+   *
+   * @param shape The shape
+   * @param x     The point's x coordinate
+   * @param y     The point's y coordinate
+   * @return <code>true</code> if the point lies within, or on the edge of, any of the shape's
+   * triangles
+   */
+  public static boolean containsXY(Shape shape, float x, float y) {
+    float[] v = shape.vertices;
+    int[] t = shape.triangles;
+    for (int i = 0; i + 2 < t.length; i += 3) {
+      int a = 3 * t[i];
+      int b = 3 * t[i + 1];
+      int c = 3 * t[i + 2];
+      float d1 = edge(x, y, v[a], v[a + 1], v[b], v[b + 1]);
+      float d2 = edge(x, y, v[b], v[b + 1], v[c], v[c + 1]);
+      float d3 = edge(x, y, v[c], v[c + 1], v[a], v[a + 1]);
+      boolean negative = d1 < 0 || d2 < 0 || d3 < 0;
+      boolean positive = d1 > 0 || d2 > 0 || d3 > 0;
+      if (!(negative && positive)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static float edge(float px, float py, float ax, float ay, float bx, float by) {
+    return (px - bx) * (ay - by) - (ax - bx) * (py - by);
+  }
+
+  /**
+   * Finds where a ray first hits a shape
+   *
+   * @param shape     The shape
+   * @param origin    The start of the ray
+   * @param direction The direction of the ray
+   * @param limit     The maximum distance along the ray, in multiples of the direction vector
+   * @return The distance along the ray of the nearest hit, or <code>limit</code> if there is no
+   * hit nearer than that
+   */
+  public static float intersect(Shape shape, Vector3fc origin, Vector3fc direction,
+      float limit) {
+    float ox = origin.x(), oy = origin.y(), oz = origin.z();
+    float dx = direction.x(), dy = direction.y(), dz = direction.z();
+    float[] v = shape.vertices;
+    int[] t = shape.triangles;
+    float nearest = limit;
+
+    for (int i = 0; i + 2 < t.length; i += 3) {
+      int a = 3 * t[i];
+      int b = 3 * t[i + 1];
+      int c = 3 * t[i + 2];
+
+      // Möller-Trumbore
+      float e1x = v[b] - v[a], e1y = v[b + 1] - v[a + 1], e1z = v[b + 2] - v[a + 2];
+      float e2x = v[c] - v[a], e2y = v[c + 1] - v[a + 1], e2z = v[c + 2] - v[a + 2];
+      float px = dy * e2z - dz * e2y;
+      float py = dz * e2x - dx * e2z;
+      float pz = dx * e2y - dy * e2x;
+      float det = e1x * px + e1y * py + e1z * pz;
+      if (det == 0) {
+        // the ray is parallel to the triangle
+        continue;
+      }
+      float inv = 1 / det;
+      float sx = ox - v[a], sy = oy - v[a + 1], sz = oz - v[a + 2];
+      float u = (sx * px + sy * py + sz * pz) * inv;
+      if (u < 0 || u > 1) {
+        continue;
+      }
+      float qx = sy * e1z - sz * e1y;
+      float qy = sz * e1x - sx * e1z;
+      float qz = sx * e1y - sy * e1x;
+      float w = (dx * qx + dy * qy + dz * qz) * inv;
+      if (w < 0 || u + w > 1) {
+        continue;
+      }
+      float distance = (e2x * qx + e2y * qy + e2z * qz) * inv;
+      if (distance >= 0 && distance < nearest) {
+        nearest = distance;
+      }
+    }
+    return nearest;
+  }
+}
@@ -1,5 +1,8 @@
 module dev.flowty.gl.shape {
   requires org.joml;
+  // optional: used only if it's added to the runtime
+  requires static jdk.incubator.vector;
 
   exports dev.flowty.gl.shape;
+  exports dev.flowty.gl.shape.spatial;
 }
\ No newline at end of file
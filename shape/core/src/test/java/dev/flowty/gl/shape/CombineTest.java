@@ -0,0 +1,90 @@
+package dev.flowty.gl.shape;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Exercises {@link Combine} and {@link ShapeBuilder}
+ */
+@SuppressWarnings("static-method")
+class CombineTest {
+
+  private static List<Shape> shapes(int count) {
+    Random rng = new Random(0);
+    List<Shape> shapes = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      int vc = 3 + rng.nextInt(6);
+      float[] vertices = new float[3 * vc];
+      for (int j = 0; j < vertices.length; j++) {
+        vertices[j] = rng.nextFloat();
+      }
+      int[] triangles = new int[3 * rng.nextInt(5)];
+      for (int j = 0; j < triangles.length; j++) {
+        triangles[j] = rng.nextInt(vc);
+      }
+      shapes.add(new Shape(vertices, triangles));
+    }
+    return shapes;
+  }
+
+  /**
+   * Parallel combination matches the sequential constructor
+   */
+  @Test
+  void combine() {
+    for (int count : new int[]{0, 1, 10, 5000}) {
+      List<Shape> shapes = shapes(count);
+      Shape expected = new Shape(shapes.toArray(Shape[]::new));
+      Shape actual = Combine.shapes(shapes);
+
+      assertArrayEquals(expected.vertices, actual.vertices);
+      assertArrayEquals(expected.triangles, actual.triangles);
+      assertEquals(expected.bounds(new Bounds()).toString(),
+          actual.bounds(new Bounds()).toString());
+    }
+  }
+
+  /**
+   * Per-vertex data can be copied alongside
+   */
+  @Test
+  void extra() {
+    List<Shape> shapes = shapes(3000);
+    int[] owner = new int[new Shape(shapes.toArray(Shape[]::new)).vertices()];
+    Combine.shapes(shapes, (s, offset) -> {
+      for (int i = 0; i < s.vertices(); i++) {
+        owner[offset + i] = shapes.indexOf(s);
+      }
+    });
+
+    int v = 0;
+    for (int i = 0; i < shapes.size(); i++) {
+      for (int j = 0; j < shapes.get(i).vertices(); j++) {
+        assertEquals(i, owner[v++]);
+      }
+    }
+  }
+
+  /**
+   * Streamed building matches the sequential constructor
+   */
+  @Test
+  void builder() {
+    List<Shape> shapes = shapes(500);
+    Shape expected = new Shape(shapes.toArray(Shape[]::new));
+
+    ShapeBuilder builder = new ShapeBuilder(1, 1);
+    shapes.forEach(builder::add);
+    Shape actual = builder.build();
+
+    assertEquals(expected.vertices(), builder.vertices());
+    assertEquals(expected.triangles(), builder.triangles());
+    assertArrayEquals(expected.vertices, actual.vertices);
+    assertArrayEquals(expected.triangles, actual.triangles);
+  }
+}
@@ -0,0 +1,120 @@
+package dev.flowty.gl.shape;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import org.joml.Vector3f;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Exercises {@link MeshFile}
+ */
+@SuppressWarnings("static-method")
+class MeshFileTest {
+
+  @TempDir
+  Path dir;
+
+  private static Shape shape(int vertexCount, int triangleCount) {
+    Random rng = new Random(0);
+    float[] vertices = new float[3 * vertexCount];
+    for (int i = 0; i < vertices.length; i++) {
+      vertices[i] = rng.nextFloat() * 100 - 50;
+    }
+    int[] triangles = new int[3 * triangleCount];
+    for (int i = 0; i < triangles.length; i++) {
+      triangles[i] = rng.nextInt(vertexCount);
+    }
+    return new Shape(vertices, triangles);
+  }
+
+  /**
+   * Shapes survive the round trip exactly
+   */
+  @Test
+  void roundTrip() throws IOException {
+    for (int vertexCount : new int[]{3, 1000, 70_000}) {
+      Shape shape = shape(vertexCount, 500);
+      Path path = dir.resolve("mesh" + vertexCount + ".bin");
+      MeshFile.write(shape, path);
+
+      try (Arena arena = Arena.ofConfined()) {
+        MeshFile file = MeshFile.map(path, arena);
+        assertEquals(vertexCount, file.vertices());
+        assertEquals(1500, file.indices());
+        assertFalse(file.quantised());
+        assertFalse(file.hasColours());
+        assertNull(file.colours());
+        assertEquals(shape.bounds(new Bounds()).toString(),
+            file.bounds(new Bounds()).toString());
+
+        Shape read = file.shape();
+        assertArrayEquals(shape.vertices, read.vertices);
+        assertArrayEquals(shape.triangles, read.triangles);
+
+        NativeShape wrapped = file.nativeShape();
+        assertEquals(vertexCount, wrapped.vertices());
+        assertEquals(vertexCount > NativeShape.SHORT_INDEX_LIMIT ? 4 : 2,
+            wrapped.indexBytes());
+        for (int i = 0; i < shape.triangles.length; i++) {
+          assertEquals(shape.triangles[i], wrapped.index(i));
+        }
+        assertEquals(shape.vertex(vertexCount - 1, new Vector3f()),
+            wrapped.vertex(vertexCount - 1, new Vector3f()));
+      }
+    }
+  }
+
+  /**
+   * Quantised positions are smaller and close to the originals, colours are preserved
+   */
+  @Test
+  void quantisedColours() throws IOException {
+    Shape shape = shape(1000, 100);
+    int[] colours = new int[1000];
+    for (int i = 0; i < colours.length; i++) {
+      colours[i] = i * 0x01020304;
+    }
+    Path plain = dir.resolve("plain.bin");
+    Path small = dir.resolve("small.bin");
+    MeshFile.write(shape, colours, false, plain);
+    MeshFile.write(shape, colours, true, small);
+    assertTrue(Files.size(small) < Files.size(plain));
+
+    try (Arena arena = Arena.ofConfined()) {
+      MeshFile file = MeshFile.map(small, arena);
+      assertTrue(file.quantised());
+      assertArrayEquals(colours, file.colours());
+      assertEquals(colours[7], file.colourData().getInt(7 * Integer.BYTES));
+
+      // 100 units quantised into 16 bits
+      float[] read = file.shape().vertices;
+      for (int i = 0; i < read.length; i++) {
+        assertEquals(shape.vertices[i], read[i], 0.001f);
+      }
+      assertThrows(IllegalStateException.class, file::nativeShape);
+    }
+  }
+
+  /**
+   * Other files are rejected
+   */
+  @Test
+  void notAMesh() throws IOException {
+    Path path = dir.resolve("text.txt");
+    Files.writeString(path, "This is not a mesh file, it's just some text");
+    try (Arena arena = Arena.ofConfined()) {
+      assertThrows(IllegalArgumentException.class, () -> MeshFile.map(path, arena));
+    }
+  }
+}
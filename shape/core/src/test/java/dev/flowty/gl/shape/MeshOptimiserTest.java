@@ -0,0 +1,153 @@
+package dev.flowty.gl.shape;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dev.flowty.gl.shape.MeshOptimiser.Result;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Exercises {@link MeshOptimiser}
+ */
+@SuppressWarnings("static-method")
+class MeshOptimiserTest {
+
+  /**
+   * Builds a grid of quads with the triangles in a random order
+   *
+   * @param size The number of quads along each side
+   * @return The grid
+   */
+  private static Shape scrambledGrid(int size) {
+    float[] vertices = new float[3 * (size + 1) * (size + 1)];
+    for (int y = 0; y <= size; y++) {
+      for (int x = 0; x <= size; x++) {
+        int v = y * (size + 1) + x;
+        vertices[3 * v] = x;
+        vertices[3 * v + 1] = y;
+      }
+    }
+    List<int[]> quads = new ArrayList<>();
+    for (int y = 0; y < size; y++) {
+      for (int x = 0; x < size; x++) {
+        int v = y * (size + 1) + x;
+        quads.add(new int[]{v, v + 1, v + size + 1});
+        quads.add(new int[]{v + 1, v + size + 2, v + size + 1});
+      }
+    }
+    Collections.shuffle(quads, new Random(0));
+    int[] triangles = new int[3 * quads.size()];
+    for (int i = 0; i < quads.size(); i++) {
+      System.arraycopy(quads.get(i), 0, triangles, 3 * i, 3);
+    }
+    return new Shape(vertices, triangles);
+  }
+
+  /**
+   * @param s A shape
+   * @return The shape's triangles, described by vertex positions in winding order
+   */
+  private static List<String> triangles(Shape s) {
+    List<String> triangles = new ArrayList<>();
+    for (int t = 0; t < s.triangles.length; t += 3) {
+      // rotate so the lowest index leads, which preserves winding
+      String[] corners = new String[3];
+      for (int i = 0; i < 3; i++) {
+        int v = s.triangles[t + i];
+        corners[i] = s.vertices[3 * v] + "," + s.vertices[3 * v + 1] + "," + s.vertices[3 * v + 2];
+      }
+      int first = 0;
+      for (int i = 1; i < 3; i++) {
+        if (corners[i].compareTo(corners[first]) < 0) {
+          first = i;
+        }
+      }
+      triangles.add(corners[first] + " " + corners[(first + 1) % 3] + " "
+          + corners[(first + 2) % 3]);
+    }
+    Collections.sort(triangles);
+    return triangles;
+  }
+
+  /**
+   * Reordering improves cache efficiency without changing the geometry
+   */
+  @Test
+  void reorder() {
+    Shape grid = scrambledGrid(32);
+    Result<Shape> result = MeshOptimiser.optimise(grid, -1);
+
+    assertEquals(grid.vertices(), result.shape().vertices());
+    assertEquals(triangles(grid), triangles(result.shape()));
+    assertTrue(result.acmrBefore() > 1.5f, "before " + result.acmrBefore());
+    assertTrue(result.acmrAfter() < 0.8f, "after " + result.acmrAfter());
+    assertEquals(result.acmrAfter(), MeshOptimiser.acmr(result.shape().triangles));
+
+    // the remap takes us from input vertices to output vertices
+    for (int v = 0; v < grid.vertices(); v++) {
+      for (int i = 0; i < 3; i++) {
+        assertEquals(grid.vertices[3 * v + i], result.shape().vertices[3 * result.remap()[v] + i]);
+      }
+    }
+
+    // vertices are stored in order of first use
+    int highest = -1;
+    for (int t : result.shape().triangles) {
+      assertTrue(t <= highest + 1);
+      highest = Math.max(highest, t);
+    }
+  }
+
+  /**
+   * Coincident vertices are merged
+   */
+  @Test
+  void weld() {
+    // two triangles that share an edge, but not vertices
+    Shape pair = new Shape(
+        new float[]{
+            0, 0, 0,
+            1, 0, 0,
+            0, 1, 0,
+            1, 0.01f, 0,
+            1, 1, 0,
+            0, 1.01f, 0},
+        new int[]{0, 1, 2, 3, 4, 5});
+
+    assertEquals(6, MeshOptimiser.optimise(pair, 0).shape().vertices());
+
+    Result<Shape> welded = MeshOptimiser.optimise(pair, 0.05f);
+    assertEquals(4, welded.shape().vertices());
+    assertEquals(6, welded.shape().triangles.length);
+    assertEquals(welded.remap()[1], welded.remap()[3]);
+    assertEquals(welded.remap()[2], welded.remap()[5]);
+
+    // differing keys prevent welding
+    Result<Shape> keyed = MeshOptimiser.optimise(pair, 0.05f,
+        new int[]{0, 0, 0, 1, 1, 0}, (s, r) -> s);
+    assertEquals(5, keyed.shape().vertices());
+  }
+
+  /**
+   * Triangles that collapse on welding are dropped
+   */
+  @Test
+  void degenerate() {
+    Shape sliver = new Shape(
+        new float[]{
+            0, 0, 0,
+            1, 0, 0,
+            1, 0.001f, 0,
+            0, 1, 0},
+        new int[]{0, 1, 2, 0, 1, 3});
+
+    Result<Shape> welded = MeshOptimiser.optimise(sliver, 0.01f);
+    assertEquals("[0.0,0.0,0.0 1.0,0.0,0.0 0.0,1.0,0.0]",
+        triangles(welded.shape()).stream().collect(Collectors.joining(", ", "[", "]")));
+  }
+}
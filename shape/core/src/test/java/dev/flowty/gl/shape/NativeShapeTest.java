@@ -0,0 +1,110 @@
+package dev.flowty.gl.shape;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.lang.foreign.Arena;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Exercises {@link NativeShape}
+ */
+@SuppressWarnings("static-method")
+class NativeShapeTest {
+
+  private static final Shape TRIANGLE = new Shape(
+      new float[]{
+          0, 0, 0,
+          0, 1, 0,
+          1, 0, 0},
+      new int[]{0, 1, 2});
+
+  /**
+   * Heap shapes can be copied off-heap
+   */
+  @Test
+  void copy() {
+    try (Arena arena = Arena.ofConfined()) {
+      NativeShape ns = new NativeShape(arena, TRIANGLE);
+      assertEquals(3, ns.vertices());
+      assertEquals(1, ns.triangles());
+      assertEquals("[0.0, 0.0, 0.0, 0.0, 1.0, 0.0, 1.0, 0.0, 0.0]", floats(ns.vertexData()));
+      assertEquals("[0, 1, 2]", ints(ns));
+    }
+  }
+
+  /**
+   * Combination offsets the indices of later constituents
+   */
+  @Test
+  void combine() {
+    try (Arena arena = Arena.ofConfined()) {
+      NativeShape a = new NativeShape(arena, TRIANGLE);
+      NativeShape b = new NativeShape(arena, TRIANGLE)
+          .transform(new Matrix4f().translate(10, 20, 30));
+      NativeShape c = new NativeShape(arena, a, b);
+
+      assertEquals(6, c.vertices());
+      assertEquals(2, c.triangles());
+      assertEquals("[0, 1, 2, 3, 4, 5]", ints(c));
+      assertEquals(new Vector3f(10, 21, 30), c.vertex(4, new Vector3f()));
+
+      Bounds bounds = c.bounds(new Bounds());
+      assertEquals(new Vector3f(0, 0, 0), bounds.min);
+      assertEquals(new Vector3f(11, 21, 30), bounds.max);
+    }
+  }
+
+  /**
+   * Vertices and indices can be set directly
+   */
+  @Test
+  void mutate() {
+    try (Arena arena = Arena.ofConfined()) {
+      NativeShape ns = new NativeShape(arena, 2, 3)
+          .vertex(1, 4, 5, 6)
+          .index(0, 1)
+          .index(2, 1);
+      assertEquals("[0.0, 0.0, 0.0, 4.0, 5.0, 6.0]", floats(ns.vertexData()));
+      assertEquals("[1, 0, 1]", ints(ns));
+      assertEquals(1, ns.index(2));
+    }
+  }
+
+  /**
+   * Index width is chosen by the vertex count
+   */
+  @Test
+  void indexWidth() {
+    try (Arena arena = Arena.ofConfined()) {
+      NativeShape compact = new NativeShape(arena, NativeShape.SHORT_INDEX_LIMIT, 3)
+          .index(0, NativeShape.SHORT_INDEX_LIMIT - 1);
+      assertEquals(2, compact.indexBytes());
+      assertEquals(6, compact.indexData().remaining());
+      assertEquals(NativeShape.SHORT_INDEX_LIMIT - 1, compact.index(0));
+
+      NativeShape wide = new NativeShape(arena, NativeShape.SHORT_INDEX_LIMIT + 1, 3)
+          .index(0, NativeShape.SHORT_INDEX_LIMIT);
+      assertEquals(4, wide.indexBytes());
+      assertEquals(12, wide.indexData().remaining());
+      assertEquals(NativeShape.SHORT_INDEX_LIMIT, wide.index(0));
+    }
+  }
+
+  private static String floats(ByteBuffer bb) {
+    float[] f = new float[bb.remaining() / Float.BYTES];
+    bb.asFloatBuffer().get(f);
+    return Arrays.toString(f);
+  }
+
+  private static String ints(NativeShape ns) {
+    int[] i = new int[ns.indices()];
+    for (int j = 0; j < i.length; j++) {
+      i[j] = ns.index(j);
+    }
+    return Arrays.toString(i);
+  }
+}
@@ -0,0 +1,90 @@
+package dev.flowty.gl.shape;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.joml.Matrix4f;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Exercises {@link Shape}
+ */
+@SuppressWarnings("static-method")
+class ShapeTest {
+
+  private static Shape triangle() {
+    return new Shape(
+        new float[]{
+            0, 0, 0,
+            0, 1, 0,
+            1, 0, 0},
+        new int[]{0, 1, 2});
+  }
+
+  /**
+   * Bounds are cached, and the cache is invalidated by changes
+   */
+  @Test
+  void bounds() {
+    Shape s = triangle();
+    assertEquals("(0.0,0.0,0.0) w1.0 h1.0 d0.0", s.bounds(new Bounds()).toString());
+
+    s.vertex(1, v -> v.set(0, 2, 0));
+    assertEquals("(0.0,0.0,0.0) w1.0 h2.0 d0.0", s.bounds(new Bounds()).toString());
+
+    s.transform(new Matrix4f().translate(1, 2, 3));
+    assertEquals("(1.0,2.0,3.0) w1.0 h2.0 d0.0", s.bounds(new Bounds()).toString());
+
+    s.with(t -> t.vertices[0] = -1);
+    assertEquals("(-1.0,2.0,3.0) w3.0 h2.0 d0.0", s.bounds(new Bounds()).toString());
+
+    // direct array changes are not noticed until we're told
+    s.vertices[0] = -5;
+    assertEquals("(-1.0,2.0,3.0) w3.0 h2.0 d0.0", s.bounds(new Bounds()).toString());
+    s.markDirty();
+    assertEquals("(-5.0,2.0,3.0) w7.0 h2.0 d0.0", s.bounds(new Bounds()).toString());
+  }
+
+  /**
+   * Composite shapes take their bounds from their constituents
+   */
+  @Test
+  void compositeBounds() {
+    Shape a = triangle();
+    Shape b = triangle().transform(new Matrix4f().translate(5, 6, 7));
+    Shape empty = new Shape(new float[0], new int[0]);
+
+    Shape c = new Shape(empty, a, b);
+    assertEquals("(0.0,0.0,0.0) w6.0 h7.0 d7.0", c.bounds(new Bounds()).toString());
+
+    c.markDirty();
+    assertEquals("(0.0,0.0,0.0) w6.0 h7.0 d7.0", c.bounds(new Bounds()).toString());
+  }
+
+  /**
+   * Empty shapes have empty bounds
+   */
+  @Test
+  void emptyBounds() {
+    assertTrue(new Shape(new float[0], new int[0]).bounds(new Bounds()).isEmpty());
+  }
+
+  /**
+   * Primitive mutations
+   */
+  @Test
+  void mutation() {
+    Shape s = triangle();
+    s.setXY(new float[]{5, 6, 7, 8})
+        .set(2, 1, 2, 3);
+    assertArrayEquals(new float[]{5, 6, 0, 7, 8, 0, 1, 2, 3}, s.vertices);
+
+    s.translate(1, 2, 10, 20, 30);
+    assertArrayEquals(new float[]{5, 6, 0, 17, 28, 30, 11, 22, 33}, s.vertices);
+
+    s.setXY(1, 0, 0).transform(0, 1, new Matrix4f().scale(2));
+    assertArrayEquals(new float[]{10, 12, 0, 0, 0, 30, 11, 22, 33}, s.vertices);
+    assertEquals("(0.0,0.0,0.0) w11.0 h22.0 d33.0", s.bounds(new Bounds()).toString());
+  }
+}
@@ -0,0 +1,141 @@
+package dev.flowty.gl.shape;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+import org.joml.Matrix4f;
+import org.joml.Vector4f;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Exercises {@link Vertices}
+ */
+@SuppressWarnings("static-method")
+class VerticesTest {
+
+  private static final float[] POSITIONS = {
+      0, 0, 0,
+      1, 2, 3,
+      -4, 5, -6,
+      7.5f, -8.25f, 9.125f,
+  };
+
+  /**
+   * The identity transform is a straight copy
+   */
+  @Test
+  void identity() {
+    check(new Matrix4f());
+  }
+
+  /**
+   * Affine transforms skip the perspective divide
+   */
+  @Test
+  void affine() {
+    check(new Matrix4f()
+        .translate(10, -20, 30)
+        .rotateXYZ(0.1f, 0.2f, 0.3f)
+        .scale(2, 3, 4));
+  }
+
+  /**
+   * Projective transforms include the perspective divide
+   */
+  @Test
+  void projective() {
+    check(new Matrix4f()
+        .perspective(1, 1.5f, 0.1f, 100)
+        .translate(0, 0, -20));
+  }
+
+  /**
+   * Matrices that don't know their own properties are still handled correctly
+   */
+  @Test
+  void undetermined() {
+    Matrix4f m = new Matrix4f()
+        .perspective(1, 1.5f, 0.1f, 100)
+        .translate(0, 0, -20);
+    check(new Matrix4f().set(m.get(new float[16])));
+  }
+
+  /**
+   * The vectorised kernel gives exactly the same results as the scalar loop
+   */
+  @Test
+  void vectorised() {
+    assumeTrue(Vertices.VECTORISED, "jdk.incubator.vector is not available");
+
+    Random rng = new Random(0);
+    float[] src = new float[3 * 101];
+    for (int i = 0; i < src.length; i++) {
+      src[i] = rng.nextFloat(-100, 100);
+    }
+
+    for (Matrix4f m : new Matrix4f[]{
+        new Matrix4f()
+            .translate(10, -20, 30)
+            .rotateXYZ(0.1f, 0.2f, 0.3f)
+            .scale(2, 3, 4),
+        new Matrix4f()
+            .perspective(1, 1.5f, 0.1f, 100)
+            .translate(0, 0, -200)}) {
+      float[] expected = new float[src.length + 6];
+      Vertices.scalar(m, Vertices.isAffine(m), src, 3, expected, 6, 100);
+
+      float[] actual = new float[src.length + 6];
+      Vertices.transform(m, src, 3, actual, 6, 100);
+      assertArrayEquals(expected, actual, "array");
+
+      float[] inPlace = src.clone();
+      Vertices.transform(m, inPlace, 3, inPlace, 3, 100);
+      System.arraycopy(inPlace, 3, actual, 6, 300);
+      assertArrayEquals(expected, actual, "in place");
+    }
+  }
+
+  private static void check(Matrix4f m) {
+    float[] expected = new float[POSITIONS.length];
+    Vector4f v = new Vector4f();
+    for (int i = 0; i < POSITIONS.length; i += 3) {
+      v.set(POSITIONS[i], POSITIONS[i + 1], POSITIONS[i + 2], 1).mul(m);
+      expected[i] = v.x / v.w;
+      expected[i + 1] = v.y / v.w;
+      expected[i + 2] = v.z / v.w;
+    }
+
+    // into a separate array, offset by one vertex
+    float[] array = new float[POSITIONS.length + 3];
+    Vertices.transform(m, POSITIONS, 0, array, 3, POSITIONS.length / 3);
+    float[] actual = new float[POSITIONS.length];
+    System.arraycopy(array, 3, actual, 0, actual.length);
+    assertArrayEquals(expected, actual, 1e-4f, "array");
+
+    // in place
+    float[] inPlace = POSITIONS.clone();
+    Vertices.transform(m, inPlace, 0, inPlace, 0, inPlace.length / 3);
+    assertArrayEquals(expected, inPlace, 1e-4f, "in place");
+
+    // into an interleaved buffer, leaving the gaps alone
+    int stride = 5 * Float.BYTES;
+    ByteBuffer buffer = ByteBuffer.allocate(stride * POSITIONS.length / 3)
+        .order(ByteOrder.nativeOrder());
+    for (int i = 0; i < buffer.capacity(); i += 4) {
+      buffer.putFloat(i, -1);
+    }
+    Vertices.transform(m, POSITIONS, 0, buffer, 0, stride, POSITIONS.length / 3);
+    float[] interleaved = new float[buffer.capacity() / 4];
+    buffer.asFloatBuffer().get(interleaved);
+    float[] expectedInterleaved = new float[interleaved.length];
+    for (int i = 0; i < POSITIONS.length / 3; i++) {
+      System.arraycopy(expected, 3 * i, expectedInterleaved, 5 * i, 3);
+      expectedInterleaved[5 * i + 3] = -1;
+      expectedInterleaved[5 * i + 4] = -1;
+    }
+    assertArrayEquals(expectedInterleaved, interleaved, 1e-4f, "buffer");
+  }
+}
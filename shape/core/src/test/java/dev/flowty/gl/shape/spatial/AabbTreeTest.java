@@ -0,0 +1,169 @@
+package dev.flowty.gl.shape.spatial;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dev.flowty.gl.shape.Bounds;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import org.joml.Vector3f;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Exercises {@link AabbTree} by comparing query results against brute-force searches
+ */
+@SuppressWarnings("static-method")
+class AabbTreeTest {
+
+  /**
+   * Items inserted, moved and removed one by one
+   */
+  @Test
+  void dynamic() {
+    Random rng = new Random(1);
+    List<Bounds> boxes = boxes(rng, 2000);
+    AabbTree<Integer> tree = new AabbTree<>();
+    int[] ids = new int[boxes.size()];
+    for (int i = 0; i < boxes.size(); i++) {
+      ids[i] = tree.insert(boxes.get(i), i);
+    }
+    assertEquals(boxes.size(), tree.size());
+    assertBalanced(tree);
+    check(rng, tree, boxes);
+
+    // move half of them
+    for (int i = 0; i < boxes.size(); i += 2) {
+      boxes.set(i, box(rng));
+      tree.update(ids[i], boxes.get(i));
+    }
+    assertBalanced(tree);
+    check(rng, tree, boxes);
+
+    // remove a third of them
+    for (int i = 0; i < boxes.size(); i += 3) {
+      assertEquals(i, tree.remove(ids[i]));
+      boxes.set(i, null);
+    }
+    assertEquals(boxes.size() - (boxes.size() + 2) / 3, tree.size());
+    check(rng, tree, boxes);
+
+    // the freed nodes are reused
+    for (int i = 0; i < boxes.size(); i += 3) {
+      boxes.set(i, box(rng));
+      ids[i] = tree.insert(boxes.get(i), i);
+    }
+    check(rng, tree, boxes);
+    assertEquals(boxes.get(7).toString(), tree.bounds(ids[7], new Bounds()).toString());
+  }
+
+  /**
+   * A static set built in one go, at scale
+   */
+  @Test
+  void built() {
+    Random rng = new Random(2);
+    List<Bounds> boxes = boxes(rng, 100_000);
+    List<Integer> items = new ArrayList<>();
+    for (int i = 0; i < boxes.size(); i++) {
+      items.add(i);
+    }
+    AabbTree<Integer> tree = AabbTree.build(items, boxes::get);
+    assertEquals(boxes.size(), tree.size());
+    assertTrue(tree.height() < 40, "height " + tree.height());
+    check(rng, tree, boxes);
+
+    // built trees can still be modified
+    boxes.set(5, box(rng));
+    tree.update(5, boxes.get(5));
+    check(rng, tree, boxes);
+  }
+
+  /**
+   * Edge cases of the empty tree
+   */
+  @Test
+  void empty() {
+    AabbTree<Integer> tree = AabbTree.build(List.of(), i -> null);
+    assertEquals(0, tree.size());
+    assertEquals(-1, tree.height());
+    tree.query(0, 0, 0, i -> {
+      throw new AssertionError();
+    });
+    int id = tree.insert(new Bounds().set(0, 0, 0, 1, 1, 1), 7);
+    assertEquals(0, tree.height());
+    assertEquals(7, tree.remove(id));
+    assertEquals(-1, tree.height());
+  }
+
+  private static void check(Random rng, AabbTree<Integer> tree, List<Bounds> boxes) {
+    for (int q = 0; q < 50; q++) {
+      Bounds region = box(rng);
+      Set<Integer> expected = new TreeSet<>();
+      for (int i = 0; i < boxes.size(); i++) {
+        Bounds b = boxes.get(i);
+        if (b != null
+            && b.min.x <= region.max.x && b.max.x >= region.min.x
+            && b.min.y <= region.max.y && b.max.y >= region.min.y
+            && b.min.z <= region.max.z && b.max.z >= region.min.z) {
+          expected.add(i);
+        }
+      }
+      Set<Integer> actual = new TreeSet<>();
+      tree.query(region, actual::add);
+      assertEquals(expected, actual, "region " + region);
+
+      Vector3f origin = new Vector3f(rng.nextFloat() * 100, rng.nextFloat() * 100, -10);
+      Vector3f direction = new Vector3f(rng.nextFloat() - 0.5f, rng.nextFloat() - 0.5f, 1);
+      expected.clear();
+      for (int i = 0; i < boxes.size(); i++) {
+        Bounds b = boxes.get(i);
+        if (b != null && crosses(b, origin, direction)) {
+          expected.add(i);
+        }
+      }
+      actual.clear();
+      tree.raycast(origin, direction, Float.POSITIVE_INFINITY, (item, limit) -> {
+        actual.add(item);
+        return limit;
+      });
+      assertEquals(expected, actual, "ray " + origin + " " + direction);
+    }
+  }
+
+  private static boolean crosses(Bounds b, Vector3f o, Vector3f d) {
+    float near = 0;
+    float far = Float.POSITIVE_INFINITY;
+    for (int a = 0; a < 3; a++) {
+      float t1 = (b.min.get(a) - o.get(a)) / d.get(a);
+      float t2 = (b.max.get(a) - o.get(a)) / d.get(a);
+      near = Math.max(near, Math.min(t1, t2));
+      far = Math.min(far, Math.max(t1, t2));
+    }
+    return near <= far;
+  }
+
+  private static void assertBalanced(AabbTree<?> tree) {
+    // an AVL-balanced tree has height at most 1.44 log2(n+2)
+    double limit = 1.45 * Math.log(tree.size() + 2) / Math.log(2);
+    assertTrue(tree.height() <= limit, "height " + tree.height() + " exceeds " + limit);
+  }
+
+  private static List<Bounds> boxes(Random rng, int count) {
+    List<Bounds> boxes = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      boxes.add(box(rng));
+    }
+    return boxes;
+  }
+
+  private static Bounds box(Random rng) {
+    float x = rng.nextFloat() * 100;
+    float y = rng.nextFloat() * 100;
+    float z = rng.nextFloat() * 10;
+    return new Bounds().set(x, y, z,
+        x + rng.nextFloat() * 5, y + rng.nextFloat() * 5, z + rng.nextFloat());
+  }
+}
@@ -0,0 +1,78 @@
+package dev.flowty.gl.shape.spatial;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import dev.flowty.gl.shape.Shape;
+import java.util.ArrayList;
+import java.util.List;
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Exercises {@link ShapeIndex}
+ */
+@SuppressWarnings("static-method")
+class ShapeIndexTest {
+
+  /**
+   * A right-angled triangle with the right angle at the origin and unit legs
+   */
+  private static Shape triangle(float x, float y, float z) {
+    return new Shape(
+        new float[]{
+            0, 0, 0,
+            0, 1, 0,
+            1, 0, 0},
+        new int[]{0, 1, 2})
+        .transform(new Matrix4f().translate(x, y, z));
+  }
+
+  /**
+   * Picking tests against triangles, not just bounds
+   */
+  @Test
+  void pick() {
+    Shape a = triangle(0, 0, 0);
+    Shape b = triangle(0.5f, 0, 1);
+    ShapeIndex<Shape> index = new ShapeIndex<>(List.of(a, b));
+
+    assertEquals(List.of(a), picked(index, 0.1f, 0.1f));
+    // within both bounding boxes, but only inside b's triangle
+    assertEquals(List.of(b), picked(index, 0.6f, 0.45f));
+    // within both bounding boxes, but outside both triangles
+    assertEquals(List.of(), picked(index, 0.9f, 0.9f));
+
+    index.remove(a);
+    assertEquals(List.of(), picked(index, 0.1f, 0.1f));
+
+    b.transform(new Matrix4f().translate(-0.5f, 0, 0));
+    index.refit(b);
+    assertEquals(List.of(b), picked(index, 0.1f, 0.1f));
+  }
+
+  /**
+   * Rays find the nearest hit
+   */
+  @Test
+  void raycast() {
+    ShapeIndex<Shape> index = new ShapeIndex<>();
+    Shape near = triangle(0, 0, 1);
+    Shape far = triangle(0, 0, 2);
+    index.add(far).add(near);
+
+    Vector3f down = new Vector3f(0, 0, 1);
+    assertSame(near, index.raycast(new Vector3f(0.25f, 0.25f, 0), down));
+    assertSame(far, index.raycast(new Vector3f(0.25f, 0.25f, 1.5f), down));
+    assertNull(index.raycast(new Vector3f(0.25f, 0.25f, 3), down));
+    assertNull(index.raycast(new Vector3f(0.9f, 0.9f, 0), down));
+  }
+
+  private static List<Shape> picked(ShapeIndex<Shape> index, float x, float y) {
+    List<Shape> picked = new ArrayList<>();
+    index.pick(x, y, picked::add);
+    return picked;
+  }
+}
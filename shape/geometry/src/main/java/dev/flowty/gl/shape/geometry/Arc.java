@@ -32,11 +32,10 @@ public class Arc {
       }
       for (int i = 0; i < shape.vertices(); i++) {
         float angle = sa + i * (ea - sa) / (shape.vertices() - 1);
-        shape.vertex(i, v -> v.set(
+        shape.set(i,
             radius * Math.cos(angle),
-            radius * Math.sin(angle)
-            , 0
-        ));
+            radius * Math.sin(angle),
+            0);
       }
     };
   }
@@ -65,14 +64,13 @@ public class Arc {
         sa += Math.PI_TIMES_2_f;
         ea += Math.PI_TIMES_2_f;
       }
-      shape.vertex(0, v -> v.set(0, 0, 0));
+      shape.set(0, 0, 0, 0);
       for (int i = 1; i < shape.vertices(); i++) {
         float angle = sa + (i - 1) * (ea - sa) / (shape.vertices() - 2);
-        shape.vertex(i, v -> v.set(
+        shape.set(i,
             radius * Math.cos(angle),
-            radius * Math.sin(angle)
-            , 0
-        ));
+            radius * Math.sin(angle),
+            0);
       }
     };
   }
@@ -109,16 +107,14 @@ public class Arc {
         float x = Math.cos(angle);
         float y = Math.sin(angle);
 
-        shape.vertex(i * 2, v -> v.set(
+        shape.set(i * 2,
             (radius - hw) * x,
-            (radius - hw) * y
-            , 0
-        ));
-        shape.vertex(i * 2 + 1, v -> v.set(
+            (radius - hw) * y,
+            0);
+        shape.set(i * 2 + 1,
             (radius + hw) * x,
-            (radius + hw) * y
-            , 0
-        ));
+            (radius + hw) * y,
+            0);
       }
     };
   }
@@ -31,10 +31,10 @@ public class Circular {
     return shape -> {
       for (int i = 0; i < shape.vertices(); i++) {
         float angle = i * Math.PI_TIMES_2_f / shape.vertices();
-        shape.vertex(i, v -> v.set(
+        shape.set(i,
             radius * Math.cos(angle),
             radius * Math.sin(angle),
-            0));
+            0);
       }
     };
   }
@@ -56,13 +56,13 @@ public class Circular {
    */
   public static Consumer<Shape> wheel(float radius) {
     return shape -> {
-      shape.vertex(0, v -> v.set(0, 0, 0));
+      shape.set(0, 0, 0, 0);
       for (int i = 1; i < shape.vertices(); i++) {
         float angle = (i - 1) * Math.PI_TIMES_2_f / (shape.vertices() - 1);
-        shape.vertex(i, v -> v.set(
+        shape.set(i,
             radius * Math.cos(angle),
             radius * Math.sin(angle),
-            0));
+            0);
       }
     };
   }
@@ -87,15 +87,14 @@ public class Circular {
       float hw = width / 2;
       float radStep = Math.PI_TIMES_2_f / shape.vertices();
       for (int i = 0; i < shape.vertices(); i += 2) {
-        int idx = i;
-        shape.vertex(i, v -> v.set(
-            (radius + hw) * Math.cos(idx * radStep),
-            (radius + hw) * Math.sin(idx * radStep),
-            0));
-        shape.vertex(i + 1, v -> v.set(
-            (radius - hw) * Math.cos(idx * radStep),
-            (radius - hw) * Math.sin(idx * radStep),
-            0));
+        shape.set(i,
+            (radius + hw) * Math.cos(i * radStep),
+            (radius + hw) * Math.sin(i * radStep),
+            0);
+        shape.set(i + 1,
+            (radius - hw) * Math.cos(i * radStep),
+            (radius - hw) * Math.sin(i * radStep),
+            0);
       }
     };
   }
@@ -31,18 +31,18 @@ public class Cruciform {
     float f = n + width;
 
     return shape -> {
-      shape.vertex(0, v -> v.set(n, n, v.z));
-      shape.vertex(1, v -> v.set(n, 0, v.z));
-      shape.vertex(2, v -> v.set(f, 0, v.z));
-      shape.vertex(3, v -> v.set(f, n, v.z));
-      shape.vertex(4, v -> v.set(1, n, v.z));
-      shape.vertex(5, v -> v.set(1, f, v.z));
-      shape.vertex(6, v -> v.set(f, f, v.z));
-      shape.vertex(7, v -> v.set(f, 1, v.z));
-      shape.vertex(8, v -> v.set(n, 1, v.z));
-      shape.vertex(9, v -> v.set(n, f, v.z));
-      shape.vertex(10, v -> v.set(0, f, v.z));
-      shape.vertex(11, v -> v.set(0, n, v.z));
+      shape.setXY(0, n, n);
+      shape.setXY(1, n, 0);
+      shape.setXY(2, f, 0);
+      shape.setXY(3, f, n);
+      shape.setXY(4, 1, n);
+      shape.setXY(5, 1, f);
+      shape.setXY(6, f, f);
+      shape.setXY(7, f, 1);
+      shape.setXY(8, n, 1);
+      shape.setXY(9, n, f);
+      shape.setXY(10, 0, f);
+      shape.setXY(11, 0, n);
     };
   }
 }
@@ -56,8 +56,8 @@ public class Linear {
       a.set(vertices[0], vertices[1]);
       b.set(vertices[2], vertices[3]);
       ab.set(b).sub(a).perpendicular().normalize(width / 2);
-      shape.vertex(0, v -> v.set(a.x + ab.x, a.y + ab.y, 0));
-      shape.vertex(1, v -> v.set(a.x - ab.x, a.y - ab.y, 0));
+      shape.set(0, a.x + ab.x, a.y + ab.y, 0);
+      shape.set(1, a.x - ab.x, a.y - ab.y, 0);
 
       for (int i = 2; i < 2 * count - 2; i += 2) {
         a.set(vertices[i - 2], vertices[i - 1]);
@@ -67,14 +67,14 @@ public class Linear {
         ab.set(b).sub(a).perpendicular().normalize();
         bc.set(c).sub(b).perpendicular().normalize();
         ab.add(bc).normalize(width / 2);
-        shape.vertex(i + 0, v -> v.set(b.x + ab.x, b.y + ab.y, 0));
-        shape.vertex(i + 1, v -> v.set(b.x - ab.x, b.y - ab.y, 0));
+        shape.set(i + 0, b.x + ab.x, b.y + ab.y, 0);
+        shape.set(i + 1, b.x - ab.x, b.y - ab.y, 0);
       }
       b.set(vertices[2 * count - 4], vertices[2 * count - 3]);
       c.set(vertices[2 * count - 2], vertices[2 * count - 1]);
       bc.set(c).sub(b).perpendicular().normalize(width / 2);
-      shape.vertex(shape.vertices() - 2, v -> v.set(c.x + bc.x, c.y + bc.y, 0));
-      shape.vertex(shape.vertices() - 1, v -> v.set(c.x - bc.x, c.y - bc.y, 0));
+      shape.set(shape.vertices() - 2, c.x + bc.x, c.y + bc.y, 0);
+      shape.set(shape.vertices() - 1, c.x - bc.x, c.y - bc.y, 0);
     };
   }
 
@@ -86,13 +86,12 @@ public class Linear {
    * @return a shape update operation that sets two vertices for every input point
    */
   public static Consumer<Shape> loop(float width, float... vertices) {
+    Vector2f a = new Vector2f();
+    Vector2f b = new Vector2f();
+    Vector2f c = new Vector2f();
+    Vector2f ab = new Vector2f();
+    Vector2f bc = new Vector2f();
     return shape -> {
-      Vector2f a = new Vector2f();
-      Vector2f b = new Vector2f();
-      Vector2f c = new Vector2f();
-      Vector2f ab = new Vector2f();
-      Vector2f bc = new Vector2f();
-
       for (int i = 0; i < vertices.length; i += 2) {
         a.set(get(vertices, i - 2), get(vertices, i - 1));
         b.set(get(vertices, i + 0), get(vertices, i + 1));
@@ -101,8 +100,8 @@ public class Linear {
         ab.set(b).sub(a).perpendicular().normalize();
         bc.set(c).sub(b).perpendicular().normalize();
         ab.add(bc).normalize(width / 2);
-        shape.vertex(i + 0, v -> v.set(b.x + ab.x, b.y + ab.y, 0));
-        shape.vertex(i + 1, v -> v.set(b.x - ab.x, b.y - ab.y, 0));
+        shape.set(i + 0, b.x + ab.x, b.y + ab.y, 0);
+        shape.set(i + 1, b.x - ab.x, b.y - ab.y, 0);
       }
     };
   }
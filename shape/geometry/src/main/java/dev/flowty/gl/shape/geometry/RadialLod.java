@@ -0,0 +1,156 @@
+package dev.flowty.gl.shape.geometry;
+
+import dev.flowty.gl.shape.Shape;
+import java.util.function.IntFunction;
+import org.joml.Math;
+import org.joml.Matrix4fc;
+import org.joml.Vector3f;
+
+/**
+ * Chooses how finely to tessellate circles and arcs based on how large they appear on screen, so
+ * that small circles cost a handful of triangles while large ones stay smooth. Shapes are built at
+ * unit radius and cached per level of detail, so are only generated once. To use:
+ *
+ * <pre>
+ * RadialLod&lt;Shape&gt; circles = new RadialLod&lt;&gt;(
+ *     Math.PI_TIMES_2_f, 0.5f, 256,
+ *     segments -&gt; new Fan(segments - 2).with(Circular.fan(1)));
+ * ...
+ * Shape circle = circles.get(radius, renderer.transform());
+ * renderer.with(m -&gt; m.scale(radius), r -&gt; r.draw(circle, colour));
+ * </pre>
+ * <p>
+ * The factory is given the number of segments around the curve, which maps to topology sizes as:
+ * </p>
+ * <ul>
+ *   <li>{@link Circular#fan(float)}: a <code>Fan</code> of <code>segments - 2</code> triangles</li>
+ *   <li>{@link Circular#wheel(float)}: a <code>Wheel</code> of <code>segments</code> edges</li>
+ *   <li>{@link Circular#border(float, float)}: a <code>Loop</code> of <code>segments</code>
+ *   quads</li>
+ *   <li>{@link Arc#fan(float, float, float)}: a <code>Fan</code> of <code>segments - 1</code>
+ *   triangles</li>
+ *   <li>{@link Arc#wheel(float, float, float)}: a <code>Fan</code> of <code>segments</code>
+ *   triangles</li>
+ *   <li>{@link Arc#border(float, float, float, float)}: a <code>Strip</code> of
+ *   <code>segments</code> quads</li>
+ * </ul>
+ * Levels of detail are bucketed by powers of two.
+ *
+ * @param <S> The shape type
+ */
+public class RadialLod<S extends Shape> {
+
+  /**
+   * The largest angle that a single segment may cover, so that a full circle has at least three
+   */
+  private static final float MAX_SEGMENT_ANGLE = Math.PI_TIMES_2_f / 3;
+
+  private final float sweep;
+  private final float tolerance;
+  private final int maxSegments;
+  private final IntFunction<S> factory;
+
+  /**
+   * Cached shapes, indexed by the base-2 logarithm of the segment count
+   */
+  private final Shape[] cache = new Shape[32];
+  private final Vector3f scale = new Vector3f();
+
+  /**
+   * @param sweep       The angle covered by the curve, in radians
+   * @param tolerance   The maximum acceptable distance, in pixels, between the ideal curve and the
+   *                    tessellated approximation
+   * @param maxSegments The maximum number of segments
+   * @param factory     Builds a unit-radius shape with the given number of segments
+   */
+  public RadialLod(float sweep, float tolerance, int maxSegments, IntFunction<S> factory) {
+    this.sweep = sweep;
+    this.tolerance = tolerance;
+    this.maxSegments = maxSegments;
+    this.factory = factory;
+  }
+
+  /**
+   * Computes the number of segments needed to approximate a curve
+   *
+   * @param radius    The radius of the curve, in pixels
+   * @param sweep     The angle covered by the curve, in radians
+   * @param tolerance The maximum acceptable distance, in pixels, between the curve and its
+   *                  tessellation
+   * @return The minimum number of straight segments that keep within the tolerance
+   */
+  public static int segments(float radius, float sweep, float tolerance) {
+    float angle = MAX_SEGMENT_ANGLE;
+    if (radius > tolerance) {
+      // the gap between a chord and its arc is r(1 - cos(θ/2))
+      angle = Math.min(angle, 2 * Math.acos(1 - tolerance / radius));
+    }
+    return Math.max(1, (int) java.lang.Math.ceil(sweep / angle));
+  }
+
+  /**
+   * Finds the size of a circle on screen
+   *
+   * @param radius    The circle radius
+   * @param transform The transform from the circle's coordinates to pixels. When rendering with a
+   *                  pixel-aligned orthographic projection this is just the renderer's transform.
+   * @return The radius in pixels
+   */
+  public float projectedRadius(float radius, Matrix4fc transform) {
+    transform.getScale(scale);
+    return radius * Math.max(scale.x, scale.y);
+  }
+
+  /**
+   * Chooses a level of detail
+   *
+   * @param projectedRadius The radius of the curve, in pixels
+   * @return The number of segments to use
+   */
+  public int level(float projectedRadius) {
+    return bucket(segments(projectedRadius, sweep, tolerance));
+  }
+
+  /**
+   * @param segments A number of segments
+   * @return The smallest level of detail that has at least that many segments, or the maximum
+   */
+  private int bucket(int segments) {
+    int bucket = Integer.highestOneBit(Math.max(1, segments));
+    if (bucket < segments) {
+      bucket <<= 1;
+    }
+    return Math.min(bucket, maxSegments);
+  }
+
+  /**
+   * Gets the shape for a curve
+   *
+   * @param radius    The curve radius
+   * @param transform The transform from the curve's coordinates to pixels
+   * @return A unit-radius shape tessellated finely enough for the curve's on-screen size. This is
+   * shared with other curves at the same level of detail, so should not be altered.
+   */
+  public S get(float radius, Matrix4fc transform) {
+    return shape(level(projectedRadius(radius, transform)));
+  }
+
+  /**
+   * Gets the shape for a level of detail
+   *
+   * @param segments The minimum number of segments. This is rounded up to a level of detail, as
+   *                 {@link #level(float)} would, so the result may have more segments than asked
+   *                 for.
+   * @return The shape for that level of detail
+   */
+  @SuppressWarnings("unchecked")
+  public S shape(int segments) {
+    segments = bucket(segments);
+    // the top bucket might not be a power of two, but it's the only one in its slot
+    int slot = 32 - Integer.numberOfLeadingZeros(segments - 1);
+    if (cache[slot] == null) {
+      cache[slot] = factory.apply(segments);
+    }
+    return (S) cache[slot];
+  }
+}
@@ -29,10 +29,10 @@ public class Rectangular {
    */
   public static Consumer<Shape> quad(float minx, float miny, float maxx, float maxy) {
     return shape -> {
-      shape.vertex(0, v -> v.set(minx, miny, v.z));
-      shape.vertex(1, v -> v.set(minx, maxy, v.z));
-      shape.vertex(2, v -> v.set(maxx, miny, v.z));
-      shape.vertex(3, v -> v.set(maxx, maxy, v.z));
+      shape.setXY(0, minx, miny);
+      shape.setXY(1, minx, maxy);
+      shape.setXY(2, maxx, miny);
+      shape.setXY(3, maxx, maxy);
     };
   }
 
@@ -58,14 +58,14 @@ public class Rectangular {
       float width) {
     float hw = width / 2;
     return shape -> {
-      shape.vertex(0, v -> v.set(minx - hw, miny - hw, v.z));
-      shape.vertex(1, v -> v.set(minx + hw, miny + hw, v.z));
-      shape.vertex(2, v -> v.set(maxx + hw, miny - hw, v.z));
-      shape.vertex(3, v -> v.set(maxx - hw, miny + hw, v.z));
-      shape.vertex(4, v -> v.set(maxx + hw, maxy + hw, v.z));
-      shape.vertex(5, v -> v.set(maxx - hw, maxy - hw, v.z));
-      shape.vertex(6, v -> v.set(minx - hw, maxy + hw, v.z));
-      shape.vertex(7, v -> v.set(minx + hw, maxy - hw, v.z));
+      shape.setXY(0, minx - hw, miny - hw);
+      shape.setXY(1, minx + hw, miny + hw);
+      shape.setXY(2, maxx + hw, miny - hw);
+      shape.setXY(3, maxx - hw, miny + hw);
+      shape.setXY(4, maxx + hw, maxy + hw);
+      shape.setXY(5, maxx - hw, maxy - hw);
+      shape.setXY(6, minx - hw, maxy + hw);
+      shape.setXY(7, minx + hw, maxy - hw);
     };
   }
 
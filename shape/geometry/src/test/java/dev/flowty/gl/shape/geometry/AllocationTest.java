@@ -0,0 +1,78 @@
+package dev.flowty.gl.shape.geometry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import dev.flowty.gl.shape.Shape;
+import dev.flowty.gl.shape.topology.Fan;
+import dev.flowty.gl.shape.topology.Loop;
+import dev.flowty.gl.shape.topology.Quad;
+import dev.flowty.gl.shape.topology.Strip;
+import dev.flowty.gl.shape.topology.Wheel;
+import java.lang.management.ManagementFactory;
+import java.util.function.Consumer;
+import org.joml.Matrix4f;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that reapplying geometry to a shape does not allocate, so that per-frame animation does
+ * not produce garbage
+ */
+@SuppressWarnings("static-method")
+class AllocationTest {
+
+  private static final com.sun.management.ThreadMXBean THREADS =
+      (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+  /**
+   * @param shape    The shape to update
+   * @param geometry The update
+   * @return The number of bytes allocated by applying the update many times. One-off allocations,
+   * e.g.: by the JIT, are avoided by taking the best of several runs.
+   */
+  private static long allocated(Shape shape, Consumer<Shape> geometry) {
+    long best = Long.MAX_VALUE;
+    for (int run = 0; run < 5; run++) {
+      // measure the cost of measuring
+      long overhead = -THREADS.getCurrentThreadAllocatedBytes()
+          + THREADS.getCurrentThreadAllocatedBytes();
+
+      long before = THREADS.getCurrentThreadAllocatedBytes();
+      for (int i = 0; i < 1000; i++) {
+        geometry.accept(shape);
+      }
+      best = Math.min(best, THREADS.getCurrentThreadAllocatedBytes() - before - overhead);
+    }
+    return best;
+  }
+
+  /**
+   * The geometry helpers write vertices directly
+   */
+  @Test
+  void geometry() {
+    assertEquals(0, allocated(new Fan(30), Circular.fan(10)));
+    assertEquals(0, allocated(new Wheel(30), Circular.wheel(10)));
+    assertEquals(0, allocated(new Loop(30), Circular.border(10, 2)));
+    assertEquals(0, allocated(new Fan(30), Arc.fan(10, -1, 1)));
+    assertEquals(0, allocated(new Fan(30), Arc.wheel(10, -1, 1)));
+    assertEquals(0, allocated(new Strip(30), Arc.border(10, 2, -1, 1)));
+    assertEquals(0, allocated(new Quad(), Rectangular.quad(0, 0, 1, 1)));
+    assertEquals(0, allocated(new Strip(2), Linear.strip(3, 0, 0, 1, 0, 1, 1)));
+    assertEquals(0, allocated(new Loop(3), Linear.loop(3, 0, 0, 1, 0, 1, 1)));
+  }
+
+  /**
+   * The primitive shape operations don't allocate either
+   */
+  @Test
+  void shape() {
+    float[] xy = new float[60];
+    Matrix4f m = new Matrix4f().rotateZ(0.1f);
+    assertEquals(0, allocated(new Strip(14), s -> s
+        .setXY(xy)
+        .set(3, 1, 2, 3)
+        .translate(0, 10, 1, 1, 0)
+        .transform(2, 20, m)
+        .transform(m)));
+  }
+}
@@ -0,0 +1,89 @@
+package dev.flowty.gl.shape.geometry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import dev.flowty.gl.shape.Shape;
+import dev.flowty.gl.shape.topology.Fan;
+import java.util.ArrayList;
+import java.util.List;
+import org.joml.Math;
+import org.joml.Matrix4f;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Exercises {@link RadialLod}
+ */
+@SuppressWarnings("static-method")
+class RadialLodTest {
+
+  /**
+   * Segment counts follow the chord error
+   */
+  @Test
+  void segments() {
+    float circle = Math.PI_TIMES_2_f;
+    // tiny circles are triangles
+    assertEquals(3, RadialLod.segments(0.1f, circle, 0.5f));
+    assertEquals(3, RadialLod.segments(1, circle, 0.5f));
+    assertEquals(10, RadialLod.segments(10, circle, 0.5f));
+    assertEquals(32, RadialLod.segments(100, circle, 0.5f));
+    assertEquals(100, RadialLod.segments(1000, circle, 0.5f));
+    // tighter tolerance, more segments
+    assertEquals(315, RadialLod.segments(1000, circle, 0.05f));
+    // arcs need fewer
+    assertEquals(25, RadialLod.segments(1000, circle / 4, 0.5f));
+    assertEquals(1, RadialLod.segments(1, circle / 4, 0.5f));
+  }
+
+  /**
+   * Shapes are cached per bucket, and bucket choice reflects the transform
+   */
+  @Test
+  void cache() {
+    List<Integer> built = new ArrayList<>();
+    RadialLod<Shape> lod = new RadialLod<>(Math.PI_TIMES_2_f, 0.5f, 64, segments -> {
+      built.add(segments);
+      return new Fan(segments - 2).with(Circular.fan(1));
+    });
+
+    Matrix4f identity = new Matrix4f();
+    Shape small = lod.get(1, identity);
+    assertEquals(4, small.vertices());
+    assertSame(small, lod.get(1.5f, identity));
+
+    // scaling the transform makes the circle bigger on screen
+    Shape big = lod.get(1, new Matrix4f().scale(80));
+    assertEquals(32, big.vertices());
+    assertSame(big, lod.get(60, identity));
+
+    // capped at the maximum
+    assertEquals(64, lod.get(10_000, identity).vertices());
+    assertEquals("[4, 32, 64]", built.toString());
+  }
+
+  /**
+   * Arbitrary segment counts are rounded up to the level of detail that they share a cache slot
+   * with, rather than polluting it
+   */
+  @Test
+  void shape() {
+    List<Integer> built = new ArrayList<>();
+    RadialLod<Shape> lod = new RadialLod<>(Math.PI_TIMES_2_f, 0.5f, 100, segments -> {
+      built.add(segments);
+      return new Fan(segments - 2).with(Circular.fan(1));
+    });
+
+    Shape three = lod.shape(3);
+    assertEquals(4, three.vertices());
+    assertSame(three, lod.get(1, new Matrix4f()));
+
+    assertEquals(8, lod.shape(5).vertices());
+    assertSame(lod.shape(8), lod.shape(6));
+
+    // the top level of detail need not be a power of two
+    assertEquals(100, lod.shape(70).vertices());
+    assertSame(lod.shape(100), lod.shape(1000));
+    assertEquals("[4, 8, 100]", built.toString());
+  }
+}
@@ -0,0 +1,11 @@
+module dev.flowty.gl.shape.geometry {
+  requires jdk.management;
+  requires org.joml;
+  requires org.junit.jupiter.api;
+
+  requires dev.flowty.gl.shape;
+  requires dev.flowty.gl.shape.topology;
+  requires dev.flowty.gl.test.shape;
+
+  exports dev.flowty.gl.shape.geometry;
+}
@@ -13,22 +13,27 @@ import dev.flowty.gl.shape.Shape;
  *   │ │
  *   1─2
  * </pre>
+ * <p>
+ * The triangle array is shared by all crosses, so must not be altered.
+ * </p>
  */
 public class Cross extends Shape {
 
+  private static final int[] INDICES = {
+      0, 1, 2,
+      0, 2, 3,
+      0, 3, 6,
+      0, 6, 9,
+      3, 4, 5,
+      3, 5, 6,
+      6, 7, 8,
+      6, 8, 9,
+      9, 10, 11,
+      9, 11, 0
+  };
+
   public Cross() {
-    super(new float[12 * 3], new int[]{
-        0, 1, 2,
-        0, 2, 3,
-        0, 3, 6,
-        0, 6, 9,
-        3, 4, 5,
-        3, 5, 6,
-        6, 7, 8,
-        6, 8, 9,
-        9, 10, 11,
-        9, 11, 0
-    });
+    super(new float[12 * 3], INDICES);
   }
 
 }
@@ -12,14 +12,19 @@ import dev.flowty.gl.shape.Shape;
  *   │╲│
  *   1─2
  * </pre>
+ * <p>
+ * The triangle array is shared by all fans of the same size, so must not be altered.
+ * </p>
  */
 public class Fan extends Shape {
 
+  private static final Indices INDICES = new Indices(Fan::indices);
+
   /**
    * @param tris The number of triangles in the fan
    */
   public Fan(int tris) {
-    super(new float[(2 + tris) * 3], indices(tris));
+    super(new float[(2 + tris) * 3], INDICES.get(tris));
   }
 
   private static int[] indices(int tris) {
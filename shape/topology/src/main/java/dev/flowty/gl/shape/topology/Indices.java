@@ -0,0 +1,30 @@
+package dev.flowty.gl.shape.topology;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntFunction;
+
+/**
+ * Interns triangle index arrays, so that shapes of the same topology and size can share them
+ * rather than each regenerating an identical copy
+ */
+class Indices {
+
+  private final Map<Integer, int[]> interned = new ConcurrentHashMap<>();
+  private final IntFunction<int[]> generator;
+
+  /**
+   * @param generator Builds the index array for a given size
+   */
+  Indices(IntFunction<int[]> generator) {
+    this.generator = generator;
+  }
+
+  /**
+   * @param size The topology size
+   * @return The shared index array for that size. This must not be altered!
+   */
+  int[] get(int size) {
+    return interned.computeIfAbsent(size, generator::apply);
+  }
+}
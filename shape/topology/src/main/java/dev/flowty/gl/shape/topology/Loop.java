@@ -4,14 +4,19 @@ import dev.flowty.gl.shape.Shape;
 
 /**
  * Same as a {@link Strip}, but with two extra triangles to join the end of the strip to the start
+ * <p>
+ * The triangle array is shared by all loops of the same size, so must not be altered.
+ * </p>
  */
 public class Loop extends Shape {
 
+  private static final Indices INDICES = new Indices(quads -> indices(quads - 1));
+
   /**
    * @param quads The number of quads in the loop
    */
   public Loop(int quads) {
-    super(new float[(2 + 2 * (quads - 1)) * 3], indices(quads - 1));
+    super(new float[(2 + 2 * (quads - 1)) * 3], INDICES.get(quads));
   }
 
   private static int[] indices(int quads) {
@@ -10,14 +10,19 @@ import dev.flowty.gl.shape.Shape;
  * │╲│
  * 0─2
  * </pre>
+ * <p>
+ * The triangle array is shared by all quads, so must not be altered.
+ * </p>
  */
 public class Quad extends Shape {
 
+  private static final int[] INDICES = {
+      0, 1, 2,
+      1, 3, 2,
+  };
+
   /***/
   public Quad() {
-    super(new float[12], new int[]{
-        0, 1, 2,
-        1, 3, 2,
-    });
+    super(new float[12], INDICES);
   }
 }
@@ -0,0 +1,67 @@
+package dev.flowty.gl.shape.topology;
+
+import dev.flowty.gl.shape.Shape;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * Recycles shapes, so that short-lived geometry such as particles and trails can reuse vertex
+ * arrays rather than allocating fresh ones. Not thread-safe.
+ *
+ * @param <S> The shape type
+ */
+public class ShapePool<S extends Shape> {
+
+  private final IntFunction<S> factory;
+  private final Map<Integer, ArrayDeque<S>> free = new HashMap<>();
+
+  /**
+   * @param factory Builds new shapes of a given size, e.g.: <code>Strip::new</code>
+   */
+  public ShapePool(IntFunction<S> factory) {
+    this.factory = factory;
+  }
+
+  /**
+   * Gets a shape from the pool
+   *
+   * @param size The size of shape to get
+   * @return A shape of the requested size. If it is a recycled shape then it will hold the vertex
+   * positions that it was released with.
+   */
+  public S acquire(int size) {
+    ArrayDeque<S> shapes = free.get(size);
+    if (shapes == null || shapes.isEmpty()) {
+      return factory.apply(size);
+    }
+    S shape = shapes.pop();
+    // the caller is about to move it
+    shape.markDirty();
+    return shape;
+  }
+
+  /**
+   * Returns a shape to the pool. The shape should not be used after this call.
+   *
+   * @param size  The size that the shape was acquired with
+   * @param shape The shape
+   * @return <code>this</code>
+   */
+  public ShapePool<S> release(int size, S shape) {
+    free.computeIfAbsent(size, s -> new ArrayDeque<>()).push(shape);
+    return this;
+  }
+
+  /**
+   * @return The number of shapes that are available for reuse
+   */
+  public int available() {
+    int count = 0;
+    for (ArrayDeque<S> shapes : free.values()) {
+      count += shapes.size();
+    }
+    return count;
+  }
+}
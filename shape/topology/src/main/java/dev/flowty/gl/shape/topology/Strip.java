@@ -10,14 +10,19 @@ import dev.flowty.gl.shape.Shape;
  * │╲│╲│╲│...
  * 0─2─4─6...
  * </pre>
+ * <p>
+ * The triangle array is shared by all strips of the same size, so must not be altered.
+ * </p>
  */
 public class Strip extends Shape {
 
+  private static final Indices INDICES = new Indices(Strip::indices);
+
   /**
    * @param quads the number of quads in the strip
    */
   public Strip(int quads) {
-    super(new float[(2 + 2 * quads) * 3], indices(quads));
+    super(new float[(2 + 2 * quads) * 3], INDICES.get(quads));
   }
 
   private static int[] indices(int quads) {
@@ -10,15 +10,18 @@ import dev.flowty.gl.shape.Shape;
  * │╲
  * 0─2
  * </pre>
+ * <p>
+ * The triangle array is shared by all triangles, so must not be altered.
+ * </p>
  */
 public class Triangle extends Shape {
 
+  private static final int[] INDICES = {
+      0, 1, 2,
+  };
+
   /***/
   public Triangle() {
-    super(
-        new float[9],
-        new int[]{
-            0, 1, 2,
-        });
+    super(new float[9], INDICES);
   }
 }
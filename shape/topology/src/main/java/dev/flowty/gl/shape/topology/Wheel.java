@@ -12,14 +12,19 @@ import dev.flowty.gl.shape.Shape;
  * │╱│╲│
  * 8─1─2
  * </pre>
+ * <p>
+ * The triangle array is shared by all wheels of the same size, so must not be altered.
+ * </p>
  */
 public class Wheel extends Shape {
 
+  private static final Indices INDICES = new Indices(Wheel::indices);
+
   /**
    * @param edges The number of edges on the wheel
    */
   public Wheel(int edges) {
-    super(new float[(1 + edges) * 3], indices(edges));
+    super(new float[(1 + edges) * 3], INDICES.get(edges));
   }
 
   private static int[] indices(int edges) {
@@ -0,0 +1,61 @@
+package dev.flowty.gl.shape.topology;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Exercises the sharing of topology data between shapes
+ */
+@SuppressWarnings("static-method")
+class SharingTest {
+
+  /**
+   * Shapes of the same topology and size share index arrays
+   */
+  @Test
+  void indices() {
+    assertSame(new Strip(3).triangles, new Strip(3).triangles);
+    assertNotSame(new Strip(3).triangles, new Strip(4).triangles);
+    assertSame(new Loop(5).triangles, new Loop(5).triangles);
+    assertSame(new Fan(6).triangles, new Fan(6).triangles);
+    assertSame(new Wheel(7).triangles, new Wheel(7).triangles);
+    assertSame(new Quad().triangles, new Quad().triangles);
+
+    assertArrayEquals(new int[]{
+            0, 1, 2,
+            1, 3, 2,
+            2, 3, 4,
+            3, 5, 4},
+        new Strip(2).triangles);
+    assertArrayEquals(new int[]{
+            0, 1, 2,
+            0, 2, 3,
+            0, 3, 1},
+        new Wheel(3).triangles);
+
+    // but vertices are distinct
+    assertNotSame(new Strip(3).vertices, new Strip(3).vertices);
+  }
+
+  /**
+   * Released shapes are reused
+   */
+  @Test
+  void pool() {
+    ShapePool<Strip> pool = new ShapePool<>(Strip::new);
+    Strip a = pool.acquire(3);
+    Strip b = pool.acquire(3);
+    assertNotSame(a, b);
+    assertEquals(0, pool.available());
+
+    pool.release(3, a);
+    assertEquals(1, pool.available());
+    assertNotSame(a, pool.acquire(4));
+    assertSame(a, pool.acquire(3));
+    assertNotSame(a, pool.acquire(3));
+  }
+}